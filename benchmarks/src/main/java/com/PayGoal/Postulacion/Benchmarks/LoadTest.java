@@ -0,0 +1,156 @@
+package com.PayGoal.Postulacion.Benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.PayGoal.Postulacion.Models.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Prueba de carga contra una instancia de la aplicación en ejecución: mantiene
+ * una cantidad fija de clientes haciendo peticiones sin pausa durante un tiempo
+ * y reporta el rendimiento, la latencia y los códigos HTTP obtenidos. Sirve para
+ * comparar el modo con hilos virtuales (productos.hilos-virtuales.habilitado)
+ * contra el pool de hilos de Tomcat, o la escritura diferida
+ * (productos.escritura-diferida.habilitado) contra una transacción por
+ * actualización.
+ * <p>
+ * Argumentos, en formato clave=valor:
+ * <ul>
+ * <li>url: la dirección de la aplicación, por defecto http://localhost:8080.</li>
+ * <li>clientes: la cantidad de clientes concurrentes, por defecto 500.</li>
+ * <li>duracion: los segundos de medición, por defecto 30.</li>
+ * <li>filas: los productos a cargar antes de medir, por defecto 10000.</li>
+ * <li>endpoint: id, ids, pagina, listado, busqueda o actualizacion, por defecto id. El endpoint ids
+ * consulta {@value #LOOKUP_SIZE} productos por petición.</li>
+ * </ul>
+ */
+public final class LoadTest {
+
+	private static final int SEED_CHUNK = 10000;
+
+	private static final int LATENCY_SAMPLES = 10000;
+
+	private static final int LOOKUP_SIZE = 50;
+
+	private LoadTest() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<>(Map.of("url", "http://localhost:8080", "clientes", "500",
+				"duracion", "30", "filas", "10000", "endpoint", "id"));
+		for (String arg : args) {
+			String[] option = arg.split("=", 2);
+			options.put(option[0], option[1]);
+		}
+		String url = options.get("url");
+		int clients = Integer.parseInt(options.get("clientes"));
+		int rows = Integer.parseInt(options.get("filas"));
+		long duration = Duration.ofSeconds(Long.parseLong(options.get("duracion"))).toNanos();
+		String endpoint = options.get("endpoint");
+
+		HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+		seed(httpClient, url, rows);
+
+		LongAdder requests = new LongAdder();
+		Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+		// cada cliente guarda sus últimas latencias en un buffer circular propio
+		long[][] latencies = new long[clients][LATENCY_SAMPLES];
+		int[] counts = new int[clients];
+		CountDownLatch done = new CountDownLatch(clients);
+		long start = System.nanoTime();
+		for (int i = 0; i < clients; i++) {
+			long[] clientLatencies = latencies[i];
+			int clientIndex = i;
+			Thread client = new Thread(() -> {
+				int count = 0;
+				while (System.nanoTime() - start < duration) {
+					long sent = System.nanoTime();
+					int status;
+					try {
+						status = httpClient.send(request(url, endpoint, rows), HttpResponse.BodyHandlers.discarding())
+								.statusCode();
+					} catch (Exception e) {
+						status = -1;
+					}
+					clientLatencies[count++ % LATENCY_SAMPLES] = System.nanoTime() - sent;
+					requests.increment();
+					statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+				}
+				counts[clientIndex] = count;
+				done.countDown();
+			});
+			client.setDaemon(true);
+			client.start();
+		}
+		done.await();
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		long[] all = IntStream.range(0, clients)
+				.mapToObj(i -> Arrays.stream(latencies[i], 0, Math.min(counts[i], LATENCY_SAMPLES)))
+				.flatMapToLong(Function.identity()).sorted().toArray();
+		Map<Integer, Long> statusCounts = new TreeMap<>();
+		statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+		System.out.printf("endpoint=%s clientes=%d filas=%d%n", endpoint, clients, rows);
+		System.out.printf("peticiones=%d rendimiento=%.1f pet/s%n", requests.sum(), requests.sum() / seconds);
+		System.out.printf("latencia p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms%n", percentile(all, 0.50),
+				percentile(all, 0.95), percentile(all, 0.99), percentile(all, 1.0));
+		System.out.println("codigos=" + statusCounts);
+	}
+
+	private static void seed(HttpClient httpClient, String url, int rows) throws Exception {
+		ObjectMapper objectMapper = new ObjectMapper();
+		List<Product> products = ProductDataGenerator.generate(rows);
+		for (int from = 0; from < rows; from += SEED_CHUNK) {
+			String body = objectMapper.writeValueAsString(products.subList(from, Math.min(from + SEED_CHUNK, rows)));
+			HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(url + "/api/productos/lote"))
+					.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+					HttpResponse.BodyHandlers.ofString());
+			if (response.statusCode() != 200) {
+				throw new IllegalStateException("No se pudieron cargar los productos: " + response.body());
+			}
+		}
+	}
+
+	private static HttpRequest request(String url, String endpoint, int rows) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		if (endpoint.equals("actualizacion")) {
+			return HttpRequest.newBuilder(URI.create(url + "/api/productos/" + (1 + random.nextInt(rows))))
+					.timeout(Duration.ofSeconds(30)).header("Content-Type", "application/json")
+					.method("PATCH", HttpRequest.BodyPublishers.ofString("{\"precio\":" + random.nextInt(1, 1000) + "}"))
+					.build();
+		}
+		String path = switch (endpoint) {
+		case "pagina" -> "/api/productos?orden=ASC&limite=20";
+		case "listado" -> "/api/productos?orden=ASC";
+		case "busqueda" -> "/api/productos/buscar?texto=" + (1 + random.nextInt(1000));
+		case "ids" -> "/api/productos?ids=" + IntStream.range(0, LOOKUP_SIZE)
+				.mapToObj(i -> String.valueOf(1 + random.nextInt(rows))).collect(Collectors.joining(","));
+		default -> "/api/productos/" + (1 + random.nextInt(rows));
+		};
+		return HttpRequest.newBuilder(URI.create(url + path)).timeout(Duration.ofSeconds(30)).GET().build();
+	}
+
+	private static double percentile(long[] sorted, double percentile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+		return sorted[Math.max(index, 0)] / 1e6;
+	}
+}
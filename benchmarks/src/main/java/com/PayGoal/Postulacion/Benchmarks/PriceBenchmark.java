@@ -0,0 +1,154 @@
+package com.PayGoal.Postulacion.Benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.PayGoal.Postulacion.Models.Product;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Ordenamiento por (precio, id) y serialización a JSON de listados completos
+ * de productos, con los precios en centavos. Los benchmarks "legacy" repiten
+ * las mismas operaciones con los precios como BigDecimal, la representación
+ * anterior (conviene ejecutarlos con "-prof gc" para comparar las
+ * asignaciones). Un BigDecimal guarda su texto la primera vez que se
+ * serializa, por lo que "legacyWriteLoadedListing" serializa precios recién
+ * creados, como los de los productos leídos de la Base de Datos en cada
+ * consulta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PriceBenchmark {
+
+	private static final Comparator<Product> BY_PRICE = Comparator.comparingLong(Product::getPrecioCentavos)
+			.thenComparingLong(Product::getId);
+
+	private static final Comparator<LegacyProduct> LEGACY_BY_PRICE = Comparator
+			.comparing((LegacyProduct prod) -> prod.precio).thenComparingLong(prod -> prod.id);
+
+	@Param({ "10000", "100000" })
+	int rows;
+
+	ObjectMapper mapper;
+
+	List<Product> products;
+
+	List<LegacyProduct> legacyProducts;
+
+	// se descarta lo escrito para medir solo la codificación
+	final OutputStream discard = OutputStream.nullOutputStream();
+
+	@Setup
+	public void setUp() {
+		mapper = new ObjectMapper().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		products = ProductDataGenerator.generate(rows);
+		legacyProducts = new ArrayList<>(rows);
+		for (int i = 0; i < products.size(); i++) {
+			Product prod = products.get(i);
+			prod.setId(Long.valueOf(i + 1));
+			legacyProducts.add(new LegacyProduct(prod));
+		}
+	}
+
+	@Benchmark
+	public List<Product> sortByPrice() {
+		List<Product> sorted = new ArrayList<>(products);
+		sorted.sort(BY_PRICE);
+		return sorted;
+	}
+
+	@Benchmark
+	public List<LegacyProduct> legacySortByPrice() {
+		List<LegacyProduct> sorted = new ArrayList<>(legacyProducts);
+		sorted.sort(LEGACY_BY_PRICE);
+		return sorted;
+	}
+
+	@Benchmark
+	public void writeListing() throws IOException {
+		mapper.writeValue(discard, products);
+	}
+
+	@Benchmark
+	public void legacyWriteListing() throws IOException {
+		mapper.writeValue(discard, legacyProducts);
+	}
+
+	@Benchmark
+	public void legacyWriteLoadedListing(LoadedListing listing) throws IOException {
+		mapper.writeValue(discard, listing.products);
+	}
+
+	/**
+	 * Copia de los productos con precios que todavía no se serializaron, creada
+	 * antes de cada invocación.
+	 */
+	@State(Scope.Thread)
+	public static class LoadedListing {
+
+		List<LegacyProduct> products;
+
+		@Setup(Level.Invocation)
+		public void setUp(PriceBenchmark benchmark) {
+			products = new ArrayList<>(benchmark.rows);
+			for (LegacyProduct prod : benchmark.legacyProducts) {
+				products.add(new LegacyProduct(prod.id, prod.nombre, prod.descripcion,
+						BigDecimal.valueOf(prod.precio.unscaledValue().longValue(), prod.precio.scale()), prod.cantidad));
+			}
+		}
+	}
+
+	/**
+	 * Un producto con el precio como BigDecimal, serializado con los mismos campos
+	 * y en el mismo orden que {@link Product}.
+	 */
+	@JsonPropertyOrder({ "id", "nombre", "descripcion", "precio", "cantidad" })
+	public static class LegacyProduct {
+
+		public final Long id;
+
+		public final String nombre;
+
+		public final String descripcion;
+
+		public final BigDecimal precio;
+
+		public final Long cantidad;
+
+		LegacyProduct(Product prod) {
+			this(prod.getId(), prod.getNombre(), prod.getDescripcion(), prod.getPrecio(), prod.getCantidad());
+		}
+
+		LegacyProduct(Long id, String nombre, String descripcion, BigDecimal precio, Long cantidad) {
+			this.id = id;
+			this.nombre = nombre;
+			this.descripcion = descripcion;
+			this.precio = precio;
+			this.cantidad = cantidad;
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package com.PayGoal.Postulacion.Benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.PayGoal.Postulacion.Models.Product;
+
+/**
+ * Generador reproducible de productos para los benchmarks: la misma cantidad y
+ * semilla siempre generan los mismos productos.
+ */
+public final class ProductDataGenerator {
+
+	public static final long DEFAULT_SEED = 20230501L;
+
+	private static final String[] NOUNS = { "Café", "Té", "Yerba", "Azúcar", "Galletitas", "Mermelada", "Aceite",
+			"Arroz", "Fideos", "Harina", "Leche", "Queso", "Jamón", "Pan", "Jugo", "Agua" };
+
+	private static final String[] ADJECTIVES = { "molido", "orgánico", "clásico", "premium", "light", "integral",
+			"natural", "especial", "importado", "artesanal" };
+
+	private ProductDataGenerator() {
+	}
+
+	/**
+	 * Genera productos sin Id con la semilla por defecto.
+	 * @param count La cantidad de productos a generar.
+	 * @return Los productos generados.
+	 */
+	public static List<Product> generate(int count) {
+		return generate(count, DEFAULT_SEED);
+	}
+
+	/**
+	 * Genera productos sin Id.
+	 * @param count La cantidad de productos a generar.
+	 * @param seed La semilla del generador aleatorio.
+	 * @return Los productos generados.
+	 */
+	public static List<Product> generate(int count, long seed) {
+		Random random = new Random(seed);
+		List<Product> products = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String nombre = NOUNS[random.nextInt(NOUNS.length)] + " " + ADJECTIVES[random.nextInt(ADJECTIVES.length)]
+					+ " " + (1 + random.nextInt(1000));
+			products.add(new Product(null, nombre, "Producto de prueba N°" + i + " generado para benchmarks",
+					BigDecimal.valueOf(1 + random.nextInt(1_000_000), 2), Long.valueOf(1 + random.nextInt(1000))));
+		}
+		return products;
+	}
+}
@@ -0,0 +1,167 @@
+package com.PayGoal.Postulacion.Benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.PayGoal.Postulacion.PostulacionApplication;
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Models.ProductLookup;
+import com.PayGoal.Postulacion.Models.ProductPage;
+import com.PayGoal.Postulacion.Services.ProductService;
+import com.PayGoal.Postulacion.Utilities.PriceCursor;
+
+/**
+ * Caminos de lectura y escritura de {@link ProductService} sobre una base HSQLDB
+ * embebida cargada con {@link ProductDataGenerator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductServiceBenchmark {
+
+	private static final int LOOKUP_SIZE = 50;
+
+	@Param({ "10000", "100000", "1000000" })
+	int rows;
+
+	/**
+	 * Si los listados por precio se resuelven sobre el índice en memoria o sobre la
+	 * Base de Datos.
+	 */
+	@Param({ "true", "false" })
+	boolean priceIndex;
+
+	ConfigurableApplicationContext context;
+
+	ProductService service;
+
+	String middleCursor;
+
+	long[] ids;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringApplicationBuilder(PostulacionApplication.class).web(WebApplicationType.NONE)
+				.logStartupInfo(false)
+				.run("--logging.level.root=WARN", "--productos.indice-precios.habilitado=" + priceIndex);
+		service = context.getBean(ProductService.class);
+		List<Product> products = ProductDataGenerator.generate(rows);
+		List<Long> created = new ArrayList<>(rows);
+		for (int from = 0; from < rows; from += ProductService.MAX_BATCH_SIZE) {
+			created.addAll(service.createProducts(new ArrayList<>(products.subList(from, Math.min(from + ProductService.MAX_BATCH_SIZE, rows))))
+					.getCreados());
+		}
+		ids = created.stream().mapToLong(Long::longValue).toArray();
+		// los precios generados se distribuyen entre 0.01 y 10000.00
+		middleCursor = new PriceCursor(Direction.ASC, 500000L, 0L).encode();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Product getProductById() {
+		return service.getProductById(randomId());
+	}
+
+	/**
+	 * Resuelve {@value #LOOKUP_SIZE} Ids con una consulta por producto, como un
+	 * cliente que pide cada producto por separado.
+	 */
+	@Benchmark
+	public List<Product> getProductsOneByOne() {
+		List<Product> products = new ArrayList<>(LOOKUP_SIZE);
+		for (int i = 0; i < LOOKUP_SIZE; i++) {
+			try {
+				products.add(service.getProductById(randomId()));
+			} catch (ResponseStatusException e) {
+				// igual que en la consulta por Ids, los faltantes no interrumpen la búsqueda
+			}
+		}
+		return products;
+	}
+
+	@Benchmark
+	public ProductLookup getProductsByIds() {
+		List<Long> ids = new ArrayList<>(LOOKUP_SIZE);
+		for (int i = 0; i < LOOKUP_SIZE; i++) {
+			ids.add(randomId());
+		}
+		return service.getProductsByIds(ids);
+	}
+
+	@Benchmark
+	public ProductPage getFirstPriceOrderedPage() {
+		return service.getProductsPageOrderedByPrice(Direction.ASC, null, 50);
+	}
+
+	@Benchmark
+	public ProductPage getDeepPriceOrderedPage() {
+		return service.getProductsPageOrderedByPrice(Direction.ASC, middleCursor, 50);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Measurement(iterations = 3, time = 5)
+	public List<Product> getAllProductsOrderedByPrice() {
+		return service.getAllProductsOrderedByPrice(Direction.ASC);
+	}
+
+	@Benchmark
+	public List<Product> getCheapestProductsInPriceRange() {
+		return service.getProductsInPriceRange(new BigDecimal("2500.00"), new BigDecimal("7500.00"), Direction.ASC, 20);
+	}
+
+	@Benchmark
+	public List<Product> getMostExpensiveProducts() {
+		return service.getProductsInPriceRange(null, null, Direction.DESC, 20);
+	}
+
+	@Benchmark
+	public List<Product> searchProductsByContent() {
+		return service.searchProductsByName("cafe molido", false, 20);
+	}
+
+	@Benchmark
+	public List<Product> searchProductsByPrefix() {
+		return service.searchProductsByName("yerba", true, 20);
+	}
+
+	@Benchmark
+	public Product updateProduct() {
+		Product changes = new Product(null, null, null, null, Long.valueOf(1 + ThreadLocalRandom.current().nextInt(1000)));
+		return service.updateProduct(randomId(), changes, null);
+	}
+
+	private long randomId() {
+		// se eligen entre los Ids creados, ya que la secuencia puede no comenzar en 1
+		return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+	}
+}
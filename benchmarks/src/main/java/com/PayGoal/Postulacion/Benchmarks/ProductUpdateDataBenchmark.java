@@ -0,0 +1,61 @@
+package com.PayGoal.Postulacion.Benchmarks;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.PayGoal.Postulacion.Models.Product;
+
+/**
+ * Aplicación de cambios parciales con {@link Product#updateData(Product)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProductUpdateDataBenchmark {
+
+	Product target;
+
+	Product first;
+
+	Product second;
+
+	Product partial;
+
+	boolean flip;
+
+	@Setup
+	public void setUp() {
+		target = new Product(1L, "Café molido", "El producto N°1", new BigDecimal("10.00"), 10L);
+		first = new Product(null, "Café molido", "El producto N°1", new BigDecimal("10.00"), 10L);
+		second = new Product(null, "Café molido premium", "El producto N°1, modificado", new BigDecimal("12.50"), 5L);
+		partial = new Product(null, null, null, new BigDecimal("10.00"), null);
+	}
+
+	@Benchmark
+	public Product updateAllFields() {
+		// se alterna entre dos productos para que cada llamada modifique todos los campos
+		flip = !flip;
+		target.updateData(flip ? second : first);
+		return target;
+	}
+
+	@Benchmark
+	public Product updateSingleField() {
+		target.updateData(partial);
+		return target;
+	}
+}
@@ -0,0 +1,112 @@
+package com.PayGoal.Postulacion.Benchmarks;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Utilities.NotFoundException;
+import com.PayGoal.Postulacion.Utilities.RestHandler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Construcción de respuestas HTTP en {@link RestHandler}, incluyendo el camino
+ * de un producto no encontrado. Los benchmarks "legacy" reproducen la versión
+ * anterior, con un HashMap por mensaje y errores con traza de ejecución, para
+ * compararla con la actual (conviene ejecutarlos con "-prof gc").
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RestHandlerBenchmark {
+
+	RestHandler restHandler;
+
+	Product product;
+
+	long id;
+
+	/**
+	 * Profundidad aproximada de la pila al lanzar un error dentro de una petición
+	 * atendida por Tomcat y Spring MVC.
+	 */
+	static final int REQUEST_STACK_DEPTH = 120;
+
+	@Setup
+	public void setUp() {
+		restHandler = new RestHandler(new SimpleMeterRegistry());
+		product = new Product(1L, "Café molido", "El producto N°1", new BigDecimal("10.00"), 10L);
+		product.setVersion(3L);
+	}
+
+	@Benchmark
+	public ResponseEntity<?> messageResponse() {
+		return RestHandler.handleMessageResponses("El producto con el id '" + (++id) + "' ha sido eliminado con exito",
+				HttpStatus.OK);
+	}
+
+	@Benchmark
+	public ResponseEntity<?> legacyMessageResponse() {
+		Map<String, String> jsonResponse = new HashMap<>();
+		jsonResponse.put("message", "El producto con el id '" + (++id) + "' ha sido eliminado con exito");
+		return new ResponseEntity<>(jsonResponse, HttpStatus.OK);
+	}
+
+	@Benchmark
+	public ResponseEntity<?> dataResponse() {
+		return RestHandler.handleDataResponses(product, HttpStatus.OK);
+	}
+
+	@Benchmark
+	public ResponseEntity<?> versionedDataResponse() {
+		return RestHandler.handleVersionedDataResponses(product, product.getVersion(), HttpStatus.OK);
+	}
+
+	@Benchmark
+	public ResponseEntity<?> notFoundResponse() {
+		return notFoundAtDepth(REQUEST_STACK_DEPTH, false);
+	}
+
+	@Benchmark
+	public ResponseEntity<?> legacyNotFoundResponse() {
+		return notFoundAtDepth(REQUEST_STACK_DEPTH, true);
+	}
+
+	/**
+	 * Reproduce el camino de getProductById cuando el producto no existe: el error
+	 * se lanza sobre la pila de la petición y se captura unos pocos niveles más
+	 * arriba, como lo hace Spring al invocar el controlador.
+	 */
+	private ResponseEntity<?> notFoundAtDepth(int depth, boolean withStackTrace) {
+		if (depth > 0) {
+			return notFoundAtDepth(depth - 1, withStackTrace);
+		}
+		try {
+			throw withStackTrace
+					? new ResponseStatusException(HttpStatus.NOT_FOUND,
+							"No se ha encontrado un producto con el id: '" + (++id) + "'")
+					: NotFoundException.forProduct(++id);
+		} catch (ResponseStatusException e) {
+			return restHandler.handleStatusExceptions(e);
+		}
+	}
+}
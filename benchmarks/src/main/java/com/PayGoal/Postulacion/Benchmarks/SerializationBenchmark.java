@@ -0,0 +1,98 @@
+package com.PayGoal.Postulacion.Benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Utilities.ProductFields;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+
+/**
+ * Serialización de productos a JSON con Jackson, utilizado por los
+ * controladores, y con Gson.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SerializationBenchmark {
+
+	ObjectMapper objectMapper;
+
+	Gson gson;
+
+	Product product;
+
+	List<Product> products;
+
+	List<Map<String, Object>> projectedProducts;
+
+	String productJson;
+
+	@Setup
+	public void setUp() throws JsonProcessingException {
+		objectMapper = new ObjectMapper();
+		gson = new Gson();
+		products = ProductDataGenerator.generate(1000);
+		for (int i = 0; i < products.size(); i++) {
+			products.get(i).setId(Long.valueOf(i + 1));
+		}
+		product = products.get(0);
+		projectedProducts = ProductFields.project(products, List.of("id", "nombre", "precio"));
+		productJson = objectMapper.writeValueAsString(product);
+	}
+
+	@Benchmark
+	public String jacksonWriteProduct() throws JsonProcessingException {
+		return objectMapper.writeValueAsString(product);
+	}
+
+	@Benchmark
+	public String gsonWriteProduct() {
+		return gson.toJson(product);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public String jacksonWriteList() throws JsonProcessingException {
+		return objectMapper.writeValueAsString(products);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public String jacksonWriteProjectedList() throws JsonProcessingException {
+		return objectMapper.writeValueAsString(projectedProducts);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public String gsonWriteList() {
+		return gson.toJson(products);
+	}
+
+	@Benchmark
+	public Product jacksonReadProduct() throws JsonProcessingException {
+		return objectMapper.readValue(productJson, Product.class);
+	}
+
+	@Benchmark
+	public Product gsonReadProduct() {
+		return gson.fromJson(productJson, Product.class);
+	}
+}
@@ -0,0 +1,142 @@
+package com.PayGoal.Postulacion.Benchmarks;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el tiempo desde que se lanza el proceso de la aplicación hasta que
+ * responde con éxito su primera petición, en cada forma de ejecutarla:
+ * <ul>
+ * <li>jar: el jar ejecutable de Spring Boot.</li>
+ * <li>clases: el jar del perfil inicio-rapido, con sus dependencias en lib/
+ * pero sin usar el procesamiento AOT.</li>
+ * <li>aot: el mismo jar con el contexto procesado en la compilación
+ * (spring.aot.enabled).</li>
+ * <li>aot-cds: además con el archivo de clases compartidas generado por el
+ * perfil.</li>
+ * </ul>
+ * Requiere compilar la aplicación con "mvn -Pinicio-rapido package". Argumentos,
+ * en formato clave=valor:
+ * <ul>
+ * <li>modos: los modos a medir separados por coma, por defecto todos.</li>
+ * <li>repeticiones: los inicios por modo, por defecto 5.</li>
+ * <li>target: el directorio target de la aplicación, por defecto ../target.</li>
+ * <li>ruta: la petición esperada, por defecto /api/productos/estadisticas.</li>
+ * </ul>
+ */
+public final class StartupBenchmark {
+
+	private static final String JAR = "Postulacion-0.0.1-SNAPSHOT";
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(120);
+
+	private StartupBenchmark() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<>(Map.of("modos", "jar,clases,aot,aot-cds", "repeticiones", "5",
+				"target", "../target", "ruta", "/api/productos/estadisticas"));
+		for (String arg : args) {
+			String[] option = arg.split("=", 2);
+			options.put(option[0], option[1]);
+		}
+		Path target = Path.of(options.get("target")).toAbsolutePath().normalize();
+		int runs = Integer.parseInt(options.get("repeticiones"));
+		String path = options.get("ruta");
+
+		HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+		for (String mode : options.get("modos").split(",")) {
+			long[] times = new long[runs];
+			for (int i = 0; i < runs; i++) {
+				times[i] = timeToFirstRequest(httpClient, command(mode, target), target, path);
+			}
+			Arrays.sort(times);
+			System.out.printf("modo=%s primera-peticion p50=%dms min=%dms max=%dms%n", mode, times[runs / 2],
+					times[0], times[runs - 1]);
+		}
+	}
+
+	/**
+	 * Los modos del perfil inicio-rapido se ejecutan desde su directorio y con las
+	 * mismas rutas relativas que al generar el archivo de clases compartidas, que
+	 * solo se usa si coinciden.
+	 */
+	private static List<String> command(String mode, Path target) {
+		String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+		Path fastStartup = target.resolve("inicio-rapido");
+		String fastStartupJar = fastStartup.relativize(required(fastStartup.resolve(JAR + "-inicio-rapido.jar")))
+				.toString();
+		return switch (mode) {
+		case "jar" -> List.of(java, "-jar", required(target.resolve(JAR + "-exec.jar")).toString());
+		case "clases" -> List.of(java, "-jar", fastStartupJar);
+		case "aot" -> List.of(java, "-Dspring.aot.enabled=true", "-jar", fastStartupJar);
+		// -Xshare:on hace fallar el inicio si no puede usarse el archivo, en lugar de ignorarlo
+		case "aot-cds" -> List.of(java,
+				"-XX:SharedArchiveFile=" + fastStartup.relativize(required(fastStartup.resolve("postulacion.jsa"))),
+				"-Xshare:on", "-Dspring.aot.enabled=true", "-jar", fastStartupJar);
+		default -> throw new IllegalArgumentException("Modo desconocido: " + mode);
+		};
+	}
+
+	private static Path required(Path file) {
+		if (!Files.exists(file)) {
+			throw new IllegalStateException(
+					"No se encontro " + file + ", compile la aplicacion con mvn -Pinicio-rapido package");
+		}
+		return file;
+	}
+
+	private static long timeToFirstRequest(HttpClient httpClient, List<String> command, Path target, String path)
+			throws Exception {
+		int port = freePort();
+		List<String> withPort = new ArrayList<>(command);
+		withPort.add("--server.port=" + port);
+		ProcessBuilder builder = new ProcessBuilder(withPort).directory(target.resolve("inicio-rapido").toFile())
+				.redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD);
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.timeout(Duration.ofSeconds(5)).GET().build();
+		long start = System.nanoTime();
+		Process process = builder.start();
+		try {
+			while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+				if (!process.isAlive()) {
+					throw new IllegalStateException("La aplicacion termino con el codigo " + process.exitValue()
+							+ ": " + String.join(" ", withPort));
+				}
+				try {
+					if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+						return (System.nanoTime() - start) / 1_000_000;
+					}
+				} catch (IOException e) {
+					// todavía no acepta conexiones
+				}
+				Thread.sleep(10);
+			}
+			throw new IllegalStateException("La aplicacion no respondio en " + TIMEOUT.toSeconds() + " segundos");
+		} finally {
+			process.destroy();
+			if (!process.waitFor(30, TimeUnit.SECONDS)) {
+				process.destroyForcibly().waitFor();
+			}
+		}
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
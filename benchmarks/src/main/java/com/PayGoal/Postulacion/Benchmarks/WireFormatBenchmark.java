@@ -0,0 +1,93 @@
+package com.PayGoal.Postulacion.Benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.PayGoal.Postulacion.Models.Product;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+/**
+ * Codificación y decodificación de listados de productos en JSON y en Smile,
+ * los formatos que pueden solicitarse con el encabezado Accept. Al preparar el
+ * benchmark se informa el tamaño de cada formato, sin comprimir y comprimido
+ * con gzip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class WireFormatBenchmark {
+
+	private static final TypeReference<List<Product>> PRODUCT_LIST = new TypeReference<>() {
+	};
+
+	ObjectMapper jsonMapper;
+
+	ObjectMapper smileMapper;
+
+	List<Product> products;
+
+	byte[] productsJson;
+
+	byte[] productsSmile;
+
+	@Setup
+	public void setUp() throws IOException {
+		jsonMapper = new ObjectMapper();
+		smileMapper = new SmileMapper();
+		products = ProductDataGenerator.generate(1000);
+		for (int i = 0; i < products.size(); i++) {
+			products.get(i).setId(Long.valueOf(i + 1));
+		}
+		productsJson = jsonMapper.writeValueAsBytes(products);
+		productsSmile = smileMapper.writeValueAsBytes(products);
+		System.out.printf("%nJSON: %d bytes, gzip %d bytes%n", productsJson.length, gzipSize(productsJson));
+		System.out.printf("Smile: %d bytes, gzip %d bytes%n", productsSmile.length, gzipSize(productsSmile));
+	}
+
+	@Benchmark
+	public byte[] jsonWriteList() throws IOException {
+		return jsonMapper.writeValueAsBytes(products);
+	}
+
+	@Benchmark
+	public byte[] smileWriteList() throws IOException {
+		return smileMapper.writeValueAsBytes(products);
+	}
+
+	@Benchmark
+	public List<Product> jsonReadList() throws IOException {
+		return jsonMapper.readValue(productsJson, PRODUCT_LIST);
+	}
+
+	@Benchmark
+	public List<Product> smileReadList() throws IOException {
+		return smileMapper.readValue(productsSmile, PRODUCT_LIST);
+	}
+
+	private static int gzipSize(byte[] data) throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+			gzip.write(data);
+		}
+		return compressed.size();
+	}
+}
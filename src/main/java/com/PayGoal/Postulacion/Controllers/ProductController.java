@@ -1,9 +1,31 @@
 package com.PayGoal.Postulacion.Controllers;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.Sort.Direction;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,50 +33,300 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Models.ProductChange;
+import com.PayGoal.Postulacion.Models.ProductFilter;
+import com.PayGoal.Postulacion.Services.CatalogVersion;
+import com.PayGoal.Postulacion.Services.ProductChangeLog;
 import com.PayGoal.Postulacion.Services.ProductService;
+import com.PayGoal.Postulacion.Utilities.ProductFields;
 import com.PayGoal.Postulacion.Utilities.RestHandler;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Validated
 @RestController
-@RequestMapping(value = "/api/productos", produces = "application/json")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping(value = "/api/productos", produces = { "application/json", "application/x-jackson-smile" })
 public class ProductController {
 
+	/**
+	 * Cantidad de productos exportados entre cada envío forzado de la respuesta.
+	 */
+	private static final int EXPORT_FLUSH_INTERVAL = 500;
+
+	/**
+	 * Intervalo entre los comentarios enviados en el flujo de cambios.
+	 */
+	private static final Duration CHANGE_STREAM_HEARTBEAT = Duration.ofSeconds(15);
+
+	/**
+	 * Respuesta a un orden inexistente, compartida por los listados ya que no cambia.
+	 */
+	private static final ResponseEntity<?> INVALID_ORDER_RESPONSE = RestHandler
+			.handleMessageResponses("El orden solicitado no existe", HttpStatus.UNPROCESSABLE_ENTITY);
+
+	/**
+	 * Respuesta a una búsqueda por Ids combinada con otro criterio de búsqueda.
+	 */
+	private static final ResponseEntity<?> IDS_WITH_CRITERIA_RESPONSE = RestHandler.handleMessageResponses(
+			"La busqueda por Ids no puede combinarse con otros criterios", HttpStatus.UNPROCESSABLE_ENTITY);
+
 	@Autowired
 	ProductService productSv;
 
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	CatalogVersion catalogVersion;
+
+	@Value("${productos.http.cache.producto:0s}")
+	Duration productMaxAge;
+
+	@Value("${productos.http.cache.listados:0s}")
+	Duration listingMaxAge;
+
 	/**
 	 * Obtiene todos los productos en la Base de Datos ordenados según su precio.
 	 * 
-	 * @param order La dirección de ordenamiento.
+	 * @param order   La dirección de ordenamiento.
+	 * @param fields  Los campos a enviar de cada producto separados por comas, opcional.
+	 * @param request La petición, para verificar si el cliente ya tiene la versión actual.
 	 * @return Una respuesta HTTP con todos los productos de la base de datos
 	 *         ordenados según su precio.
 	 */
-	@GetMapping(params = "orden")
-	public ResponseEntity<?> getProductsPriceOrdered(@RequestParam("orden") @NotBlank String order) {
-		if (order.toUpperCase().equals("ASC") || order.toUpperCase().equals("DESC")) {
-			return RestHandler.handleDataResponses(productSv.getAllProductsOrderedByPrice(Direction.fromString(order)),
-					HttpStatus.OK);
+	@GetMapping(params = { "orden", "!ids" })
+	public ResponseEntity<?> getProductsPriceOrdered(@RequestParam("orden") @NotBlank String order,
+			@RequestParam(value = "campos", required = false) String fields, WebRequest request) {
+		if (isValidOrder(order)) {
+			List<String> selected = fields == null ? null : ProductFields.parse(fields);
+			Direction direction = Direction.fromString(order);
+			return catalogResponse(request, cacheControl(listingMaxAge),
+					() -> selected == null ? productSv.getAllProductsOrderedByPrice(direction)
+							: productSv.getProductFieldsOrderedByPrice(direction, selected));
+		}
+		return INVALID_ORDER_RESPONSE;
+	}
+
+	/**
+	 * Obtiene una página de productos ordenados según su precio, continuando desde
+	 * el cursor recibido.
+	 * 
+	 * @param order  La dirección de ordenamiento.
+	 * @param limit  La cantidad máxima de productos de la página.
+	 * @param cursor El cursor devuelto por la página anterior, opcional.
+	 * @param request La petición, para verificar si el cliente ya tiene la versión actual.
+	 * @return Una respuesta HTTP con la página de productos y el cursor de la
+	 *         página siguiente.
+	 */
+	@GetMapping(params = { "orden", "limite", "!ids" })
+	public ResponseEntity<?> getProductsPagePriceOrdered(@RequestParam("orden") @NotBlank String order,
+			@RequestParam("limite") @Min(value = 1, message = "El limite no puede ser menor a {value}") @Max(value = ProductService.MAX_PAGE_SIZE, message = "El limite no puede ser mayor a {value}") Integer limit,
+			@RequestParam(value = "cursor", required = false) String cursor, WebRequest request) {
+		if (isValidOrder(order)) {
+			return catalogResponse(request, cacheControl(listingMaxAge),
+					() -> productSv.getProductsPageOrderedByPrice(Direction.fromString(order), cursor, limit));
+		}
+		return INVALID_ORDER_RESPONSE;
+	}
+
+	/**
+	 * Exporta todos los productos de la Base de Datos ordenados según su precio en
+	 * formato NDJSON (un producto por línea). Los productos se escriben en la
+	 * respuesta a medida que se leen, sin acumular el catálogo en memoria.
+	 * 
+	 * @param order La dirección de ordenamiento, ascendente por defecto.
+	 * @param request La petición, para verificar si el cliente ya tiene la versión actual.
+	 * @return Una respuesta HTTP que transmite los productos ordenados según su
+	 *         precio.
+	 */
+	@GetMapping(value = "/exportar", produces = { "application/x-ndjson", "application/json" })
+	public ResponseEntity<StreamingResponseBody> exportProducts(
+			@RequestParam(value = "orden", defaultValue = "ASC") @NotBlank String order, WebRequest request) {
+		if (!isValidOrder(order)) {
+			throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "El orden solicitado no existe");
 		}
-		return RestHandler.handleMessageResponses("El orden solicitado no existe", HttpStatus.UNPROCESSABLE_ENTITY);
+		CatalogVersion.Validators version = catalogVersion.getValidators();
+		if (isNotModified(request, version)) {
+			return RestHandler.handleCacheableDataResponses(null, version.getETag(), version.getLastModified(),
+					CacheControl.noCache(), HttpStatus.NOT_MODIFIED);
+		}
+		StreamingResponseBody body = out -> {
+			try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+				// cada producto termina en su propio salto de línea
+				generator.setRootValueSeparator(null);
+				int[] written = { 0 };
+				productSv.exportAllProductsOrderedByPrice(Direction.fromString(order), prod -> {
+					try {
+						generator.writeObject(prod);
+						generator.writeRaw('\n');
+						if (written[0]++ % EXPORT_FLUSH_INTERVAL == 0) {
+							generator.flush();
+						}
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+		};
+		return ResponseEntity.ok().eTag(version.getETag()).lastModified(version.getLastModified())
+				.cacheControl(CacheControl.noCache()).varyBy(HttpHeaders.ACCEPT).contentType(MediaType.APPLICATION_NDJSON)
+				.body(body);
+	}
+
+	/**
+	 * Transmite un snapshot CSV de todos los productos ordenados por Id, incluida su
+	 * versión, que puede importarse al iniciar otra instancia de la aplicación.
+	 * 
+	 * @param request La petición, para verificar si el cliente ya tiene la versión actual.
+	 * @return Una respuesta HTTP que transmite el snapshot de los productos.
+	 */
+	@GetMapping(value = "/snapshot", produces = "text/csv")
+	public ResponseEntity<StreamingResponseBody> exportSnapshot(WebRequest request) {
+		CatalogVersion.Validators version = catalogVersion.getValidators();
+		if (isNotModified(request, version)) {
+			return RestHandler.handleCacheableDataResponses(null, version.getETag(), version.getLastModified(),
+					CacheControl.noCache(), HttpStatus.NOT_MODIFIED);
+		}
+		StreamingResponseBody body = out -> {
+			Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+			productSv.exportSnapshot(writer);
+			writer.flush();
+		};
+		return ResponseEntity.ok().eTag(version.getETag()).lastModified(version.getLastModified())
+				.cacheControl(CacheControl.noCache()).contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"productos.csv\"").body(body);
+	}
+
+	/**
+	 * Obtiene las estadísticas de uso del caché de lectura de productos.
+	 * 
+	 * @return Una respuesta HTTP con los aciertos, fallos, desalojos y tamaño del
+	 *         caché por Id y del caché por nombre.
+	 */
+	@GetMapping("/cache")
+	public ResponseEntity<?> getCacheStatistics() {
+		return RestHandler.handleCacheableDataResponses(productSv.getCacheStatistics(), CacheControl.noStore(),
+				HttpStatus.OK);
+	}
+
+	/**
+	 * Obtiene las estadísticas del catálogo, mantenidas en memoria sin recorrer
+	 * los productos en cada consulta.
+	 * 
+	 * @param request La petición, para verificar si el cliente ya tiene la versión actual.
+	 * @return Una respuesta HTTP con la cantidad de productos y unidades, el valor
+	 *         del inventario y el precio mínimo, máximo, promedio y sus percentiles.
+	 */
+	@GetMapping("/estadisticas")
+	public ResponseEntity<?> getCatalogStatistics(WebRequest request) {
+		return catalogResponse(request, cacheControl(listingMaxAge), productSv::getCatalogStatistics);
+	}
+
+	/**
+	 * Obtiene los cambios sobre los productos posteriores a una secuencia, para
+	 * mantener una copia del catálogo sin volver a obtenerlo completo. Con
+	 * "espera" la respuesta se demora hasta que ocurra un cambio o pase esa
+	 * cantidad de segundos.
+	 * 
+	 * @param since La secuencia del último cambio recibido, 0 para obtener el historial completo.
+	 * @param limit La cantidad máxima de cambios.
+	 * @param wait  Los segundos a esperar si no hay cambios nuevos.
+	 * @return Una respuesta HTTP con los cambios y el valor de "desde" para la consulta siguiente.
+	 */
+	@GetMapping("/cambios")
+	public Mono<ResponseEntity<?>> getChanges(
+			@RequestParam("desde") @Min(value = 0, message = "La secuencia no puede ser menor a {value}") long since,
+			@RequestParam(value = "limite", defaultValue = "100") @Min(value = 1, message = "El limite no puede ser menor a {value}") @Max(value = ProductChangeLog.MAX_PAGE_SIZE, message = "El limite no puede ser mayor a {value}") int limit,
+			@RequestParam(value = "espera", defaultValue = "0") @Min(value = 0, message = "La espera no puede ser menor a {value}") @Max(value = ProductChangeLog.MAX_WAIT_SECONDS, message = "La espera no puede ser mayor a {value} segundos") int wait) {
+		return productSv.awaitChangesSince(since, limit, Duration.ofSeconds(wait)).map(
+				page -> RestHandler.handleCacheableDataResponses(page, CacheControl.noStore(), HttpStatus.OK));
+	}
+
+	/**
+	 * Transmite los cambios sobre los productos como Server-Sent Events, con la
+	 * secuencia de cada cambio como Id del evento. Al reconectarse, el cliente
+	 * recibe los cambios posteriores al último Id recibido.
+	 * 
+	 * @param since       La secuencia desde la cual transmitir, opcional. Sin ella se transmiten solo los cambios nuevos.
+	 * @param lastEventId El Id del último evento recibido, enviado por el cliente al reconectarse.
+	 * @return Los cambios a medida que ocurren.
+	 */
+	@GetMapping(value = "/cambios/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public Flux<ServerSentEvent<ProductChange>> streamChanges(
+			@RequestParam(value = "desde", required = false) @Min(value = 0, message = "La secuencia no puede ser menor a {value}") Long since,
+			@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+		return changeEvents(productSv.streamChangesSince(lastEventId != null ? lastEventId : since));
 	}
 
 	/**
 	 * Obtiene un producto de la Base de Datos que tenga el Id recibido por
 	 * parámetro.
 	 * 
+	 * Si el cliente envía el ETag de la versión actual del producto se responde 304
+	 * sin cuerpo.
+	 * 
 	 * @param id El parámetro de búsqueda.
 	 * @return Una respuesta HTTP con un producto del mismo Id.
 	 */
 	@GetMapping("/{id}")
 	public ResponseEntity<?> getProductById(@PathVariable("id") @NotNull Long id) {
-		return RestHandler.handleDataResponses(productSv.getProductById(id), HttpStatus.OK);
+		Product product = productSv.getProductById(id);
+		return RestHandler.handleVersionedDataResponses(product, product.getVersion(), cacheControl(productMaxAge),
+				HttpStatus.OK);
+
+	}
+
+	/**
+	 * Obtiene varios productos de la Base de Datos por sus Ids en una sola
+	 * petición. Los Ids que no existen se informan en la respuesta en lugar de
+	 * responder 404. No puede combinarse con la búsqueda por nombre ni con el
+	 * ordenamiento por precio.
+	 * 
+	 * @param ids     Los Ids a buscar, separados por comas.
+	 * @param request La petición, para verificar que no tenga otros criterios.
+	 * @return Una respuesta HTTP con los productos encontrados y los Ids faltantes.
+	 */
+	@GetMapping(params = "ids")
+	public ResponseEntity<?> getProductsByIds(
+			@RequestParam("ids") @NotEmpty(message = "Debe indicar al menos un Id") @Size(max = ProductService.MAX_LOOKUP_SIZE, message = "No se pueden consultar mas de {max} productos") List<Long> ids,
+			WebRequest request) {
+		if (request.getParameter("nombre") != null || request.getParameter("orden") != null) {
+			return IDS_WITH_CRITERIA_RESPONSE;
+		}
+		return RestHandler.handleCacheableDataResponses(productSv.getProductsByIds(ids), cacheControl(productMaxAge),
+				HttpStatus.OK);
+	}
 
+	/**
+	 * Obtiene varios productos de la Base de Datos por los Ids recibidos en el
+	 * cuerpo, para consultas con demasiados Ids para la URL.
+	 * 
+	 * @param ids Los Ids a buscar.
+	 * @return Una respuesta HTTP con los productos encontrados y los Ids faltantes.
+	 */
+	@PostMapping("/ids")
+	public ResponseEntity<?> getProductsByIdsInBody(
+			@RequestBody @NotEmpty(message = "Debe indicar al menos un Id") @Size(max = ProductService.MAX_LOOKUP_SIZE, message = "No se pueden consultar mas de {max} productos") List<Long> ids) {
+		return RestHandler.handleDataResponses(productSv.getProductsByIds(ids), HttpStatus.OK);
 	}
 
 	/**
@@ -62,11 +334,101 @@ public class ProductController {
 	 * parámetro.
 	 * 
 	 * @param name El parámetro de búsqueda.
+	 * @param request La petición, para verificar si el cliente ya tiene la versión actual.
 	 * @return Una respuesta HTTP con los productos del mismo nombre.
 	 */
-	@GetMapping(params = "nombre")
-	public ResponseEntity<?> getProductsByName(@RequestParam("nombre") @NotBlank String name) {
-		return RestHandler.handleDataResponses(productSv.getProductsByName(name), HttpStatus.OK);
+	@GetMapping(params = { "nombre", "!ids" })
+	public ResponseEntity<?> getProductsByName(@RequestParam("nombre") @NotBlank String name, WebRequest request) {
+		return catalogResponse(request, cacheControl(listingMaxAge), () -> productSv.getProductsByName(name));
+	}
+
+	/**
+	 * Busca productos cuyo nombre comience con, o contenga, el texto recibido por
+	 * parámetro, sin distinguir mayúsculas ni acentos.
+	 * 
+	 * @param text  El texto a buscar.
+	 * @param mode  El modo de búsqueda, "prefijo" o "contiene".
+	 * @param limit La cantidad máxima de resultados.
+	 * @param request La petición, para verificar si el cliente ya tiene la versión actual.
+	 * @return Una respuesta HTTP con los productos encontrados ordenados por
+	 *         nombre.
+	 */
+	@GetMapping("/buscar")
+	public ResponseEntity<?> searchProducts(@RequestParam("texto") @NotBlank String text,
+			@RequestParam(value = "modo", defaultValue = "contiene") String mode,
+			@RequestParam(value = "limite", defaultValue = "20") @Min(value = 1, message = "El limite no puede ser menor a {value}") @Max(value = ProductService.MAX_PAGE_SIZE, message = "El limite no puede ser mayor a {value}") Integer limit,
+			WebRequest request) {
+		if (mode.equalsIgnoreCase("prefijo") || mode.equalsIgnoreCase("contiene")) {
+			return catalogResponse(request, cacheControl(listingMaxAge),
+					() -> productSv.searchProductsByName(text, mode.equalsIgnoreCase("prefijo"), limit));
+		}
+		return RestHandler.handleMessageResponses("El modo de busqueda solicitado no existe",
+				HttpStatus.UNPROCESSABLE_ENTITY);
+	}
+
+	/**
+	 * Obtiene los productos cuyo precio se encuentra dentro de un rango, ordenados
+	 * según su precio. Sin límites de precio devuelve los productos más baratos, o
+	 * los más caros en orden descendente.
+	 * 
+	 * @param min     El precio mínimo, inclusive, opcional.
+	 * @param max     El precio máximo, inclusive, opcional.
+	 * @param order   La dirección de ordenamiento, ascendente por defecto.
+	 * @param limit   La cantidad máxima de resultados.
+	 * @param request La petición, para verificar si el cliente ya tiene la versión actual.
+	 * @return Una respuesta HTTP con los productos del rango ordenados según su
+	 *         precio.
+	 */
+	@GetMapping("/precios")
+	public ResponseEntity<?> getProductsInPriceRange(
+			@RequestParam(value = "minimo", required = false) @DecimalMin(value = "0", message = "El precio minimo no puede ser menor a $0") BigDecimal min,
+			@RequestParam(value = "maximo", required = false) @DecimalMin(value = "0", message = "El precio maximo no puede ser menor a $0") BigDecimal max,
+			@RequestParam(value = "orden", defaultValue = "ASC") @NotBlank String order,
+			@RequestParam(value = "limite", defaultValue = "20") @Min(value = 1, message = "El limite no puede ser menor a {value}") @Max(value = ProductService.MAX_PAGE_SIZE, message = "El limite no puede ser mayor a {value}") Integer limit,
+			WebRequest request) {
+		if (isValidOrder(order)) {
+			return catalogResponse(request, cacheControl(listingMaxAge),
+					() -> productSv.getProductsInPriceRange(min, max, Direction.fromString(order), limit));
+		}
+		return INVALID_ORDER_RESPONSE;
+	}
+
+	/**
+	 * Obtiene una página de los productos que cumplen todos los filtros recibidos,
+	 * ordenados por el campo indicado. Los filtros son opcionales.
+	 * 
+	 * @param minPrice    El precio mínimo, inclusive.
+	 * @param maxPrice    El precio máximo, inclusive.
+	 * @param minQuantity La cantidad mínima, inclusive.
+	 * @param name        Un texto que debe contener el nombre.
+	 * @param sortField   El campo por el cual ordenar, "precio" por defecto.
+	 * @param order       La dirección de ordenamiento, ascendente por defecto.
+	 * @param page        El número de página, comenzando en 0.
+	 * @param limit       La cantidad máxima de productos de la página.
+	 * @param fields      Los campos a enviar de cada producto separados por comas.
+	 * @param request     La petición, para verificar si el cliente ya tiene la versión actual.
+	 * @return Una respuesta HTTP con la página de productos y el número de la
+	 *         página siguiente.
+	 */
+	@GetMapping("/filtrar")
+	public ResponseEntity<?> getFilteredProducts(
+			@RequestParam(value = "precioMinimo", required = false) @DecimalMin(value = "0", message = "El precio minimo no puede ser menor a $0") BigDecimal minPrice,
+			@RequestParam(value = "precioMaximo", required = false) @DecimalMin(value = "0", message = "El precio maximo no puede ser menor a $0") BigDecimal maxPrice,
+			@RequestParam(value = "cantidadMinima", required = false) @Min(value = 0, message = "La cantidad minima no puede ser menor a {value}") Long minQuantity,
+			@RequestParam(value = "nombre", required = false) String name,
+			@RequestParam(value = "ordenarPor", defaultValue = "precio") String sortField,
+			@RequestParam(value = "orden", defaultValue = "ASC") @NotBlank String order,
+			@RequestParam(value = "pagina", defaultValue = "0") @Min(value = 0, message = "La pagina no puede ser menor a {value}") Integer page,
+			@RequestParam(value = "limite", defaultValue = "20") @Min(value = 1, message = "El limite no puede ser menor a {value}") @Max(value = ProductService.MAX_PAGE_SIZE, message = "El limite no puede ser mayor a {value}") Integer limit,
+			@RequestParam(value = "campos", required = false) String fields,
+			WebRequest request) {
+		if (isValidOrder(order)) {
+			List<String> selected = fields == null ? null : ProductFields.parse(fields);
+			return catalogResponse(request, cacheControl(listingMaxAge),
+					() -> productSv.getFilteredProducts(new ProductFilter(minPrice, maxPrice, minQuantity, name),
+							sortField, Direction.fromString(order), page, limit, selected));
+		}
+		return INVALID_ORDER_RESPONSE;
 	}
 
 	/**
@@ -80,29 +442,75 @@ public class ProductController {
 		return RestHandler.handleDataResponses(productSv.createProduct(product), HttpStatus.OK);
 	}
 
+	/**
+	 * Guarda un lote de productos en la Base de Datos. Los productos con un Id
+	 * existente se actualizan en lugar de crearse.
+	 * 
+	 * @param products Los productos a guardar.
+	 * @return Una respuesta HTTP con los ids creados y actualizados, y los errores
+	 *         de validación de cada producto descartado.
+	 */
+	@PostMapping("/lote")
+	public ResponseEntity<?> createProducts(
+			@RequestBody @NotEmpty(message = "El lote no puede estar vacio") @Size(max = ProductService.MAX_BATCH_SIZE, message = "El lote no puede tener mas de {max} productos") List<Product> products) {
+		return RestHandler.handleDataResponses(productSv.createProducts(products), HttpStatus.OK);
+	}
+
 	/**
 	 * Actualiza un producto que tenga el Id recibido por parámetro.
 	 * 
 	 * @param id      El parámetro de búsqueda.
 	 * @param product un objeto con los nuevos valores de los parámetros a
 	 *                actualizar.
+	 * @param ifMatch El ETag que se espera que tenga el producto, opcional.
 	 * @return una copia del producto actualizado en la Base de Datos.
 	 */
 	@PatchMapping("/{id}")
 	public ResponseEntity<?> updateProduct(@PathVariable("id") @NotNull Long id,
-			@RequestBody @Validated(Product.OnUpdateValidation.class) Product product) {
-		return RestHandler.handleDataResponses(productSv.updateProduct(id, product), HttpStatus.OK);
+			@RequestBody @Validated(Product.OnUpdateValidation.class) Product product,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		Product updated = productSv.updateProduct(id, product, parseVersion(id, ifMatch));
+		return RestHandler.handleVersionedDataResponses(updated, updated.getVersion(), HttpStatus.OK);
+	}
+
+	/**
+	 * Reserva stock de un producto que tenga el Id recibido por parámetro. La
+	 * reserva se descuenta de forma atómica y nunca deja el stock en negativo.
+	 * 
+	 * @param id       El parámetro de búsqueda.
+	 * @param quantity La cantidad a reservar.
+	 * @return Una respuesta HTTP con la reserva realizada y el stock disponible.
+	 */
+	@PostMapping("/{id}/reservar")
+	public ResponseEntity<?> reserveStock(@PathVariable("id") @NotNull Long id,
+			@RequestParam("cantidad") @NotNull @Min(value = 1, message = "La cantidad no puede ser menor a {value}") Long quantity) {
+		return RestHandler.handleDataResponses(productSv.reserveStock(id, quantity), HttpStatus.OK);
+	}
+
+	/**
+	 * Libera stock reservado de un producto que tenga el Id recibido por parámetro.
+	 * 
+	 * @param id       El parámetro de búsqueda.
+	 * @param quantity La cantidad a liberar.
+	 * @return Una respuesta HTTP con la liberación realizada y el stock disponible.
+	 */
+	@PostMapping("/{id}/liberar")
+	public ResponseEntity<?> releaseStock(@PathVariable("id") @NotNull Long id,
+			@RequestParam("cantidad") @NotNull @Min(value = 1, message = "La cantidad no puede ser menor a {value}") Long quantity) {
+		return RestHandler.handleDataResponses(productSv.releaseStock(id, quantity), HttpStatus.OK);
 	}
 
 	/**
 	 * Elimina un producto que tenga el Id recibido por parámetro.
 	 * 
-	 * @param id El parámetro de búsqueda.
+	 * @param id      El parámetro de búsqueda.
+	 * @param ifMatch El ETag que se espera que tenga el producto, opcional.
 	 * @return Una respuesta HTTP indicando el éxito o el fracaso de la operación
 	 */
 	@DeleteMapping("/{id}")
-	public ResponseEntity<?> deleteProduct(@PathVariable("id") @NotNull Long id) {
-		boolean result = productSv.deleteProduct(id);
+	public ResponseEntity<?> deleteProduct(@PathVariable("id") @NotNull Long id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		boolean result = productSv.deleteProduct(id, parseVersion(id, ifMatch));
 		if (!result) {
 			return RestHandler.handleMessageResponses("No existe un producto con el id: '" + id + "'",
 					HttpStatus.CONFLICT);
@@ -111,4 +519,113 @@ public class ProductController {
 				HttpStatus.OK);
 	}
 
+	/**
+	 * Obtiene la versión esperada de un producto a partir del encabezado If-Match.
+	 * <p>
+	 * Se aceptan los ETag débiles que envían las consultas, ya que no se comparan
+	 * los bytes de una respuesta sino la versión del producto, que es la misma en
+	 * cualquier formato y que se verifica contra la Base de Datos al modificarlo.
+	 * 
+	 * @param id      El Id del producto.
+	 * @param ifMatch El valor del encabezado, puede ser null.
+	 * @return La versión esperada, o null si no se debe verificar.
+	 */
+	static Long parseVersion(Long id, String ifMatch) {
+		if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+			return null;
+		}
+		String tag = ifMatch.trim();
+		if (tag.startsWith("W/")) {
+			tag = tag.substring(2);
+		}
+		try {
+			return Long.valueOf(tag.replace("\"", ""));
+		} catch (NumberFormatException e) {
+			throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+					"El producto con el id '" + id + "' fue modificado y no coincide con la version esperada");
+		}
+	}
+
+	/**
+	 * Genera una respuesta con datos del catálogo informando su versión. Si el
+	 * cliente ya tiene la versión actual se responde 304 sin consultar la Base de
+	 * Datos; si la consulta falla, el error se responde sin la versión.
+	 * 
+	 * @param request      La petición, para verificar si el cliente ya tiene la versión actual.
+	 * @param cacheControl La política de caché de la respuesta.
+	 * @param query        La consulta de los datos a enviar.
+	 * @return La respuesta HTTP.
+	 */
+	private <T> ResponseEntity<T> catalogResponse(WebRequest request, CacheControl cacheControl, Supplier<T> query) {
+		// la versión se lee antes de consultar, así un cambio concurrente nunca queda oculto tras el ETag
+		CatalogVersion.Validators version = catalogVersion.getValidators();
+		if (isNotModified(request, version)) {
+			return RestHandler.handleCacheableDataResponses(null, version.getETag(), version.getLastModified(),
+					cacheControl, HttpStatus.NOT_MODIFIED);
+		}
+		return RestHandler.handleCacheableDataResponses(query.get(), version.getETag(), version.getLastModified(),
+				cacheControl, HttpStatus.OK);
+	}
+
+	/**
+	 * Verifica si el cliente ya tiene una versión del catálogo. A diferencia de
+	 * {@link WebRequest#checkNotModified(String, long)} no agrega la versión a la
+	 * respuesta, que de otro modo quedaría también en las respuestas de error.
+	 * 
+	 * @param request La petición.
+	 * @param version La versión del catálogo.
+	 * @return true si el cliente ya tiene la versión.
+	 */
+	private static boolean isNotModified(WebRequest request, CatalogVersion.Validators version) {
+		List<String> ifNoneMatch = new ArrayList<>();
+		String[] values = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+		if (values != null) {
+			for (String value : values) {
+				for (String tag : value.split(",")) {
+					ifNoneMatch.add(tag.trim());
+				}
+			}
+		}
+		long ifModifiedSince = -1;
+		String date = request.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+		if (date != null) {
+			try {
+				ifModifiedSince = ZonedDateTime.parse(date, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant()
+						.toEpochMilli();
+			} catch (DateTimeParseException e) {
+				// una fecha inválida se ignora, como en WebRequest#checkNotModified
+			}
+		}
+		return version.isNotModified(ifNoneMatch, ifModifiedSince);
+	}
+
+	/**
+	 * Obtiene la política de caché para un tiempo de validez.
+	 * 
+	 * @param maxAge El tiempo durante el cual la respuesta puede usarse sin revalidar.
+	 * @return La política de caché, que exige revalidar en cada uso si el tiempo es 0.
+	 */
+	static CacheControl cacheControl(Duration maxAge) {
+		return maxAge.isZero() ? CacheControl.noCache() : CacheControl.maxAge(maxAge).cachePublic();
+	}
+
+	/**
+	 * Convierte los cambios en eventos, intercalando un comentario periódico para
+	 * que los proxies no cierren la conexión mientras no hay cambios.
+	 * 
+	 * @param changes Los cambios a transmitir.
+	 * @return Los eventos a enviar al cliente.
+	 */
+	static Flux<ServerSentEvent<ProductChange>> changeEvents(Flux<ProductChange> changes) {
+		return Flux.merge(
+				changes.map(change -> ServerSentEvent.builder(change).id(String.valueOf(change.getSecuencia()))
+						.event(change.getTipo().name().toLowerCase(Locale.ROOT)).build()),
+				Flux.interval(CHANGE_STREAM_HEARTBEAT, CHANGE_STREAM_HEARTBEAT)
+						.map(tick -> ServerSentEvent.<ProductChange>builder().comment("").build()));
+	}
+
+	static boolean isValidOrder(String order) {
+		return order.toUpperCase().equals("ASC") || order.toUpperCase().equals("DESC");
+	}
+
 }
@@ -0,0 +1,507 @@
+package com.PayGoal.Postulacion.Controllers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.util.MultiValueMap;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Models.ProductChange;
+import com.PayGoal.Postulacion.Models.ProductFilter;
+import com.PayGoal.Postulacion.Services.CatalogVersion;
+import com.PayGoal.Postulacion.Services.ProductChangeLog;
+import com.PayGoal.Postulacion.Services.ProductService;
+import com.PayGoal.Postulacion.Services.ReactiveProductService;
+import com.PayGoal.Postulacion.Utilities.ProductFields;
+import com.PayGoal.Postulacion.Utilities.RestHandler;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Variante reactiva de {@link ProductController}, activa cuando la aplicación
+ * se ejecuta como aplicación web reactiva (perfil "reactivo"). Expone los mismos
+ * endpoints y respuestas, pero sin ocupar los hilos del servidor mientras se
+ * espera a la Base de Datos.
+ */
+@Validated
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping(value = "/api/productos", produces = { "application/json", "application/x-jackson-smile" })
+public class ReactiveProductController {
+
+	private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+	@Autowired
+	ReactiveProductService productSv;
+
+	@Autowired
+	CatalogVersion catalogVersion;
+
+	@Value("${productos.http.cache.producto:0s}")
+	Duration productMaxAge;
+
+	@Value("${productos.http.cache.listados:0s}")
+	Duration listingMaxAge;
+
+	/**
+	 * Obtiene todos los productos en la Base de Datos ordenados según su precio.
+	 * Los productos se transmiten a medida que el cliente los consume, como un
+	 * arreglo JSON o, si se solicita, en formato NDJSON. En formato Smile los
+	 * productos se reúnen y se envían como un único arreglo, ya que el
+	 * codificador de Spring solo admite valores completos en ese formato.
+	 * 
+	 * @param order    La dirección de ordenamiento.
+	 * @param fields   Los campos a enviar de cada producto separados por comas, opcional.
+	 * @param exchange La petición, para conocer los formatos aceptados.
+	 * @return Los productos de la base de datos ordenados según su precio.
+	 */
+	@GetMapping(params = { "orden", "!ids" }, produces = { "application/json", "application/x-ndjson", "application/x-jackson-smile" })
+	public ResponseEntity<?> getProductsPriceOrdered(@RequestParam("orden") @NotBlank String order,
+			@RequestParam(value = "campos", required = false) String fields, ServerWebExchange exchange) {
+		if (!ProductController.isValidOrder(order)) {
+			throw invalidOrder();
+		}
+		Direction direction = Direction.fromString(order);
+		Flux<Object> products = fields == null ? productSv.streamAllProductsOrderedByPrice(direction).cast(Object.class)
+				: productSv.getProductFieldsOrderedByPrice(direction, ProductFields.parse(fields))
+						.flatMapIterable(projected -> projected);
+		CacheControl cacheControl = ProductController.cacheControl(listingMaxAge);
+		return acceptsOnlySmile(exchange) ? catalogResponse(products.collectList(), cacheControl)
+				: catalogResponse(products, cacheControl);
+	}
+
+	/**
+	 * Obtiene una página de productos ordenados según su precio, continuando desde
+	 * el cursor recibido.
+	 * 
+	 * @param order  La dirección de ordenamiento.
+	 * @param limit  La cantidad máxima de productos de la página.
+	 * @param cursor El cursor devuelto por la página anterior, opcional.
+	 * @param exchange La petición, para verificar si el cliente ya tiene la versión actual.
+	 * @return Una respuesta HTTP con la página de productos y el cursor de la
+	 *         página siguiente.
+	 */
+	@GetMapping(params = { "orden", "limite", "!ids" })
+	public Mono<ResponseEntity<?>> getProductsPagePriceOrdered(@RequestParam("orden") @NotBlank String order,
+			@RequestParam("limite") @Min(value = 1, message = "El limite no puede ser menor a {value}") @Max(value = ProductService.MAX_PAGE_SIZE, message = "El limite no puede ser mayor a {value}") Integer limit,
+			@RequestParam(value = "cursor", required = false) String cursor, ServerWebExchange exchange) {
+		if (!ProductController.isValidOrder(order)) {
+			return Mono.error(invalidOrder());
+		}
+		return catalogResponse(exchange, ProductController.cacheControl(listingMaxAge),
+				() -> productSv.getProductsPageOrderedByPrice(Direction.fromString(order), cursor, limit));
+	}
+
+	/**
+	 * Exporta todos los productos de la Base de Datos ordenados según su precio en
+	 * formato NDJSON (un producto por línea), a medida que el cliente los consume.
+	 * 
+	 * @param order La dirección de ordenamiento, ascendente por defecto.
+	 * @return Los productos ordenados según su precio.
+	 */
+	@GetMapping(value = "/exportar", produces = { "application/x-ndjson", "application/json" })
+	public ResponseEntity<Flux<Product>> exportProducts(
+			@RequestParam(value = "orden", defaultValue = "ASC") @NotBlank String order) {
+		if (!ProductController.isValidOrder(order)) {
+			throw invalidOrder();
+		}
+		// a diferencia del listado, un catálogo vacío se exporta como una respuesta vacía
+		return catalogResponse(productSv.streamAllProductsOrderedByPrice(Direction.fromString(order))
+				.onErrorResume(ResponseStatusException.class,
+						e -> e.getStatusCode() == HttpStatus.NOT_FOUND ? Flux.empty() : Flux.error(e)),
+				CacheControl.noCache());
+	}
+
+	/**
+	 * Obtiene las estadísticas de uso del caché de lectura de productos.
+	 * 
+	 * @return Una respuesta HTTP con los aciertos, fallos, desalojos y tamaño del
+	 *         caché por Id y del caché por nombre.
+	 */
+	@GetMapping("/cache")
+	public Mono<ResponseEntity<?>> getCacheStatistics() {
+		return productSv.getCacheStatistics().map(
+				stats -> RestHandler.handleCacheableDataResponses(stats, CacheControl.noStore(), HttpStatus.OK));
+	}
+
+	/**
+	 * Obtiene las estadísticas del catálogo, mantenidas en memoria sin recorrer
+	 * los productos en cada consulta.
+	 * 
+	 * @param exchange La petición, para verificar si el cliente ya tiene la versión actual.
+	 * @return Una respuesta HTTP con la cantidad de productos y unidades, el valor
+	 *         del inventario y el precio mínimo, máximo, promedio y sus percentiles.
+	 */
+	@GetMapping("/estadisticas")
+	public Mono<ResponseEntity<?>> getCatalogStatistics(ServerWebExchange exchange) {
+		return catalogResponse(exchange, ProductController.cacheControl(listingMaxAge),
+				productSv::getCatalogStatistics);
+	}
+
+	/**
+	 * Obtiene los cambios sobre los productos posteriores a una secuencia, para
+	 * mantener una copia del catálogo sin volver a obtenerlo completo. Con
+	 * "espera" la respuesta se demora hasta que ocurra un cambio o pase esa
+	 * cantidad de segundos.
+	 * 
+	 * @param since La secuencia del último cambio recibido, 0 para obtener el historial completo.
+	 * @param limit La cantidad máxima de cambios.
+	 * @param wait  Los segundos a esperar si no hay cambios nuevos.
+	 * @return Una respuesta HTTP con los cambios y el valor de "desde" para la consulta siguiente.
+	 */
+	@GetMapping("/cambios")
+	public Mono<ResponseEntity<?>> getChanges(
+			@RequestParam("desde") @Min(value = 0, message = "La secuencia no puede ser menor a {value}") long since,
+			@RequestParam(value = "limite", defaultValue = "100") @Min(value = 1, message = "El limite no puede ser menor a {value}") @Max(value = ProductChangeLog.MAX_PAGE_SIZE, message = "El limite no puede ser mayor a {value}") int limit,
+			@RequestParam(value = "espera", defaultValue = "0") @Min(value = 0, message = "La espera no puede ser menor a {value}") @Max(value = ProductChangeLog.MAX_WAIT_SECONDS, message = "La espera no puede ser mayor a {value} segundos") int wait) {
+		return productSv.awaitChangesSince(since, limit, Duration.ofSeconds(wait)).map(
+				page -> RestHandler.handleCacheableDataResponses(page, CacheControl.noStore(), HttpStatus.OK));
+	}
+
+	/**
+	 * Transmite los cambios sobre los productos como Server-Sent Events, con la
+	 * secuencia de cada cambio como Id del evento. Al reconectarse, el cliente
+	 * recibe los cambios posteriores al último Id recibido.
+	 * 
+	 * @param since       La secuencia desde la cual transmitir, opcional. Sin ella se transmiten solo los cambios nuevos.
+	 * @param lastEventId El Id del último evento recibido, enviado por el cliente al reconectarse.
+	 * @return Los cambios a medida que ocurren.
+	 */
+	@GetMapping(value = "/cambios/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public Flux<ServerSentEvent<ProductChange>> streamChanges(
+			@RequestParam(value = "desde", required = false) @Min(value = 0, message = "La secuencia no puede ser menor a {value}") Long since,
+			@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+		return ProductController.changeEvents(productSv.streamChangesSince(lastEventId != null ? lastEventId : since));
+	}
+
+	/**
+	 * Obtiene un producto de la Base de Datos que tenga el Id recibido por
+	 * parámetro.
+	 * 
+	 * Si el cliente envía el ETag de la versión actual del producto se responde 304
+	 * sin cuerpo.
+	 * 
+	 * @param id El parámetro de búsqueda.
+	 * @return Una respuesta HTTP con un producto del mismo Id.
+	 */
+	@GetMapping("/{id}")
+	public Mono<ResponseEntity<?>> getProductById(@PathVariable("id") @NotNull Long id) {
+		return productSv.getProductById(id).map(product -> RestHandler.handleVersionedDataResponses(product,
+				product.getVersion(), ProductController.cacheControl(productMaxAge), HttpStatus.OK));
+	}
+
+	/**
+	 * Obtiene varios productos de la Base de Datos por sus Ids en una sola
+	 * petición. Los Ids que no existen se informan en la respuesta en lugar de
+	 * responder 404. No puede combinarse con la búsqueda por nombre ni con el
+	 * ordenamiento por precio.
+	 * 
+	 * @param ids      Los Ids a buscar, separados por comas.
+	 * @param exchange La petición, para verificar que no tenga otros criterios.
+	 * @return Una respuesta HTTP con los productos encontrados y los Ids faltantes.
+	 */
+	@GetMapping(params = "ids")
+	public Mono<ResponseEntity<?>> getProductsByIds(
+			@RequestParam("ids") @NotEmpty(message = "Debe indicar al menos un Id") @Size(max = ProductService.MAX_LOOKUP_SIZE, message = "No se pueden consultar mas de {max} productos") List<Long> ids,
+			ServerWebExchange exchange) {
+		MultiValueMap<String, String> params = exchange.getRequest().getQueryParams();
+		if (params.containsKey("nombre") || params.containsKey("orden")) {
+			return Mono.error(new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+					"La busqueda por Ids no puede combinarse con otros criterios"));
+		}
+		return productSv.getProductsByIds(ids).map(lookup -> RestHandler.handleCacheableDataResponses(lookup,
+				ProductController.cacheControl(productMaxAge), HttpStatus.OK));
+	}
+
+	/**
+	 * Obtiene varios productos de la Base de Datos por los Ids recibidos en el
+	 * cuerpo, para consultas con demasiados Ids para la URL.
+	 * 
+	 * @param ids Los Ids a buscar.
+	 * @return Una respuesta HTTP con los productos encontrados y los Ids faltantes.
+	 */
+	@PostMapping("/ids")
+	public Mono<ResponseEntity<?>> getProductsByIdsInBody(
+			@RequestBody @NotEmpty(message = "Debe indicar al menos un Id") @Size(max = ProductService.MAX_LOOKUP_SIZE, message = "No se pueden consultar mas de {max} productos") List<Long> ids) {
+		return productSv.getProductsByIds(ids).map(lookup -> RestHandler.handleDataResponses(lookup, HttpStatus.OK));
+	}
+
+	/**
+	 * Obtiene productos de la Base de Datos que tengan el nombre recibido por
+	 * parámetro.
+	 * 
+	 * @param name     El parámetro de búsqueda.
+	 * @param exchange La petición, para verificar si el cliente ya tiene la versión actual.
+	 * @return Una respuesta HTTP con los productos del mismo nombre.
+	 */
+	@GetMapping(params = { "nombre", "!ids" })
+	public Mono<ResponseEntity<?>> getProductsByName(@RequestParam("nombre") @NotBlank String name,
+			ServerWebExchange exchange) {
+		return catalogResponse(exchange, ProductController.cacheControl(listingMaxAge),
+				() -> productSv.getProductsByName(name));
+	}
+
+	/**
+	 * Busca productos cuyo nombre comience con, o contenga, el texto recibido por
+	 * parámetro, sin distinguir mayúsculas ni acentos.
+	 * 
+	 * @param text  El texto a buscar.
+	 * @param mode  El modo de búsqueda, "prefijo" o "contiene".
+	 * @param limit    La cantidad máxima de resultados.
+	 * @param exchange La petición, para verificar si el cliente ya tiene la versión actual.
+	 * @return Una respuesta HTTP con los productos encontrados ordenados por
+	 *         nombre.
+	 */
+	@GetMapping("/buscar")
+	public Mono<ResponseEntity<?>> searchProducts(@RequestParam("texto") @NotBlank String text,
+			@RequestParam(value = "modo", defaultValue = "contiene") String mode,
+			@RequestParam(value = "limite", defaultValue = "20") @Min(value = 1, message = "El limite no puede ser menor a {value}") @Max(value = ProductService.MAX_PAGE_SIZE, message = "El limite no puede ser mayor a {value}") Integer limit,
+			ServerWebExchange exchange) {
+		if (mode.equalsIgnoreCase("prefijo") || mode.equalsIgnoreCase("contiene")) {
+			return catalogResponse(exchange, ProductController.cacheControl(listingMaxAge),
+					() -> productSv.searchProductsByName(text, mode.equalsIgnoreCase("prefijo"), limit));
+		}
+		return Mono.just(RestHandler.handleMessageResponses("El modo de busqueda solicitado no existe",
+				HttpStatus.UNPROCESSABLE_ENTITY));
+	}
+
+	/**
+	 * Obtiene los productos cuyo precio se encuentra dentro de un rango, ordenados
+	 * según su precio. Sin límites de precio devuelve los productos más baratos, o
+	 * los más caros en orden descendente.
+	 * 
+	 * @param min      El precio mínimo, inclusive, opcional.
+	 * @param max      El precio máximo, inclusive, opcional.
+	 * @param order    La dirección de ordenamiento, ascendente por defecto.
+	 * @param limit    La cantidad máxima de resultados.
+	 * @param exchange La petición, para verificar si el cliente ya tiene la versión actual.
+	 * @return Una respuesta HTTP con los productos del rango ordenados según su
+	 *         precio.
+	 */
+	@GetMapping("/precios")
+	public Mono<ResponseEntity<?>> getProductsInPriceRange(
+			@RequestParam(value = "minimo", required = false) @DecimalMin(value = "0", message = "El precio minimo no puede ser menor a $0") BigDecimal min,
+			@RequestParam(value = "maximo", required = false) @DecimalMin(value = "0", message = "El precio maximo no puede ser menor a $0") BigDecimal max,
+			@RequestParam(value = "orden", defaultValue = "ASC") @NotBlank String order,
+			@RequestParam(value = "limite", defaultValue = "20") @Min(value = 1, message = "El limite no puede ser menor a {value}") @Max(value = ProductService.MAX_PAGE_SIZE, message = "El limite no puede ser mayor a {value}") Integer limit,
+			ServerWebExchange exchange) {
+		if (!ProductController.isValidOrder(order)) {
+			return Mono.error(invalidOrder());
+		}
+		return catalogResponse(exchange, ProductController.cacheControl(listingMaxAge),
+				() -> productSv.getProductsInPriceRange(min, max, Direction.fromString(order), limit));
+	}
+
+	/**
+	 * Obtiene una página de los productos que cumplen todos los filtros recibidos,
+	 * ordenados por el campo indicado. Los filtros son opcionales.
+	 * 
+	 * @param minPrice    El precio mínimo, inclusive.
+	 * @param maxPrice    El precio máximo, inclusive.
+	 * @param minQuantity La cantidad mínima, inclusive.
+	 * @param name        Un texto que debe contener el nombre.
+	 * @param sortField   El campo por el cual ordenar, "precio" por defecto.
+	 * @param order       La dirección de ordenamiento, ascendente por defecto.
+	 * @param page        El número de página, comenzando en 0.
+	 * @param limit       La cantidad máxima de productos de la página.
+	 * @param fields      Los campos a enviar de cada producto separados por comas.
+	 * @param exchange    La petición, para verificar si el cliente ya tiene la versión actual.
+	 * @return Una respuesta HTTP con la página de productos y el número de la
+	 *         página siguiente.
+	 */
+	@GetMapping("/filtrar")
+	public Mono<ResponseEntity<?>> getFilteredProducts(
+			@RequestParam(value = "precioMinimo", required = false) @DecimalMin(value = "0", message = "El precio minimo no puede ser menor a $0") BigDecimal minPrice,
+			@RequestParam(value = "precioMaximo", required = false) @DecimalMin(value = "0", message = "El precio maximo no puede ser menor a $0") BigDecimal maxPrice,
+			@RequestParam(value = "cantidadMinima", required = false) @Min(value = 0, message = "La cantidad minima no puede ser menor a {value}") Long minQuantity,
+			@RequestParam(value = "nombre", required = false) String name,
+			@RequestParam(value = "ordenarPor", defaultValue = "precio") String sortField,
+			@RequestParam(value = "orden", defaultValue = "ASC") @NotBlank String order,
+			@RequestParam(value = "pagina", defaultValue = "0") @Min(value = 0, message = "La pagina no puede ser menor a {value}") Integer page,
+			@RequestParam(value = "limite", defaultValue = "20") @Min(value = 1, message = "El limite no puede ser menor a {value}") @Max(value = ProductService.MAX_PAGE_SIZE, message = "El limite no puede ser mayor a {value}") Integer limit,
+			@RequestParam(value = "campos", required = false) String fields,
+			ServerWebExchange exchange) {
+		if (!ProductController.isValidOrder(order)) {
+			return Mono.error(invalidOrder());
+		}
+		List<String> selected = fields == null ? null : ProductFields.parse(fields);
+		return catalogResponse(exchange, ProductController.cacheControl(listingMaxAge),
+				() -> productSv.getFilteredProducts(new ProductFilter(minPrice, maxPrice, minQuantity, name),
+						sortField, Direction.fromString(order), page, limit, selected));
+	}
+
+	/**
+	 * Guarda un producto en la Base de Datos.
+	 * 
+	 * @param product El producto a guardar.
+	 * @return Una copia de el producto cargado en la Base de Datos.
+	 */
+	@PostMapping("/")
+	public Mono<ResponseEntity<?>> createProduct(
+			@RequestBody @Validated(Product.OnCreateValidation.class) Product product) {
+		return productSv.createProduct(product).map(created -> RestHandler.handleDataResponses(created, HttpStatus.OK));
+	}
+
+	/**
+	 * Guarda un lote de productos en la Base de Datos. Los productos con un Id
+	 * existente se actualizan en lugar de crearse.
+	 * 
+	 * @param products Los productos a guardar.
+	 * @return Una respuesta HTTP con los ids creados y actualizados, y los errores
+	 *         de validación de cada producto descartado.
+	 */
+	@PostMapping("/lote")
+	public Mono<ResponseEntity<?>> createProducts(
+			@RequestBody @NotEmpty(message = "El lote no puede estar vacio") @Size(max = ProductService.MAX_BATCH_SIZE, message = "El lote no puede tener mas de {max} productos") List<Product> products) {
+		return productSv.createProducts(products).map(result -> RestHandler.handleDataResponses(result, HttpStatus.OK));
+	}
+
+	/**
+	 * Actualiza un producto que tenga el Id recibido por parámetro.
+	 * 
+	 * @param id      El parámetro de búsqueda.
+	 * @param product un objeto con los nuevos valores de los parámetros a
+	 *                actualizar.
+	 * @param ifMatch El ETag que se espera que tenga el producto, opcional.
+	 * @return una copia del producto actualizado en la Base de Datos.
+	 */
+	@PatchMapping("/{id}")
+	public Mono<ResponseEntity<?>> updateProduct(@PathVariable("id") @NotNull Long id,
+			@RequestBody @Validated(Product.OnUpdateValidation.class) Product product,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return productSv.updateProduct(id, product, ProductController.parseVersion(id, ifMatch)).map(updated -> RestHandler.handleVersionedDataResponses(updated, updated.getVersion(), HttpStatus.OK));
+	}
+
+	/**
+	 * Reserva stock de un producto que tenga el Id recibido por parámetro. La
+	 * reserva se descuenta de forma atómica y nunca deja el stock en negativo.
+	 * 
+	 * @param id       El parámetro de búsqueda.
+	 * @param quantity La cantidad a reservar.
+	 * @return Una respuesta HTTP con la reserva realizada y el stock disponible.
+	 */
+	@PostMapping("/{id}/reservar")
+	public Mono<ResponseEntity<?>> reserveStock(@PathVariable("id") @NotNull Long id,
+			@RequestParam("cantidad") @NotNull @Min(value = 1, message = "La cantidad no puede ser menor a {value}") Long quantity) {
+		return productSv.reserveStock(id, quantity)
+				.map(reservation -> RestHandler.handleDataResponses(reservation, HttpStatus.OK));
+	}
+
+	/**
+	 * Libera stock reservado de un producto que tenga el Id recibido por parámetro.
+	 * 
+	 * @param id       El parámetro de búsqueda.
+	 * @param quantity La cantidad a liberar.
+	 * @return Una respuesta HTTP con la liberación realizada y el stock disponible.
+	 */
+	@PostMapping("/{id}/liberar")
+	public Mono<ResponseEntity<?>> releaseStock(@PathVariable("id") @NotNull Long id,
+			@RequestParam("cantidad") @NotNull @Min(value = 1, message = "La cantidad no puede ser menor a {value}") Long quantity) {
+		return productSv.releaseStock(id, quantity)
+				.map(release -> RestHandler.handleDataResponses(release, HttpStatus.OK));
+	}
+
+	/**
+	 * Elimina un producto que tenga el Id recibido por parámetro.
+	 * 
+	 * @param id      El parámetro de búsqueda.
+	 * @param ifMatch El ETag que se espera que tenga el producto, opcional.
+	 * @return Una respuesta HTTP indicando el éxito o el fracaso de la operación
+	 */
+	@DeleteMapping("/{id}")
+	public Mono<ResponseEntity<?>> deleteProduct(@PathVariable("id") @NotNull Long id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return productSv.deleteProduct(id, ProductController.parseVersion(id, ifMatch)).map(deleted -> deleted
+						? RestHandler.handleMessageResponses(
+								"El producto con el id '" + id + "' ha sido eliminado con exito", HttpStatus.OK)
+						: RestHandler.handleMessageResponses("No existe un producto con el id: '" + id + "'",
+								HttpStatus.CONFLICT));
+	}
+
+	/**
+	 * Genera una respuesta con datos del catálogo informando su versión. Si el
+	 * cliente ya tiene la versión actual se responde 304 sin consultar la Base de
+	 * Datos; si la consulta falla, el error se responde sin la versión. A
+	 * diferencia de {@link ServerWebExchange#checkNotModified(String, Instant)},
+	 * la verificación no agrega la versión a la respuesta.
+	 * 
+	 * @param exchange     La petición, para verificar si el cliente ya tiene la versión actual.
+	 * @param cacheControl La política de caché de la respuesta.
+	 * @param query        La consulta de los datos a enviar.
+	 * @return La respuesta HTTP.
+	 */
+	private Mono<ResponseEntity<?>> catalogResponse(ServerWebExchange exchange, CacheControl cacheControl,
+			Supplier<Mono<?>> query) {
+		// la versión se lee antes de consultar, así un cambio concurrente nunca queda oculto tras el ETag
+		CatalogVersion.Validators version = catalogVersion.getValidators();
+		HttpHeaders headers = exchange.getRequest().getHeaders();
+		if (version.isNotModified(headers.getIfNoneMatch(), headers.getIfModifiedSince())) {
+			return Mono.just(RestHandler.handleCacheableDataResponses(null, version.getETag(),
+					version.getLastModified(), cacheControl, HttpStatus.NOT_MODIFIED));
+		}
+		return query.get().map(data -> RestHandler.handleCacheableDataResponses(data, version.getETag(),
+				version.getLastModified(), cacheControl, HttpStatus.OK));
+	}
+
+	/**
+	 * Genera una respuesta que transmite productos del catálogo con la versión
+	 * actual como ETag. Si el cliente ya tiene esa versión se responde 304 sin
+	 * suscribirse a los productos, es decir, sin consultar la Base de Datos.
+	 * 
+	 * @param products     Los productos a transmitir.
+	 * @param cacheControl La política de caché de la respuesta.
+	 * @return La respuesta HTTP.
+	 */
+	private <T extends Publisher<?>> ResponseEntity<T> catalogResponse(T products, CacheControl cacheControl) {
+		// la versión se lee antes de consultar, así un cambio concurrente nunca queda oculto tras el ETag
+		CatalogVersion.Validators version = catalogVersion.getValidators();
+		return RestHandler.handleCacheableDataResponses(products, version.getETag(), version.getLastModified(),
+				cacheControl, HttpStatus.OK);
+	}
+
+	private static boolean acceptsOnlySmile(ServerWebExchange exchange) {
+		List<MediaType> accepted = exchange.getRequest().getHeaders().getAccept();
+		return accepted.stream().anyMatch(SMILE::equalsTypeAndSubtype) && accepted.stream()
+				.noneMatch(type -> type.equalsTypeAndSubtype(MediaType.APPLICATION_JSON)
+						|| type.equalsTypeAndSubtype(MediaType.APPLICATION_NDJSON));
+	}
+
+	private ResponseStatusException invalidOrder() {
+		return new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "El orden solicitado no existe");
+	}
+}
@@ -0,0 +1,31 @@
+package com.PayGoal.Postulacion.Events;
+
+import com.PayGoal.Postulacion.Models.Product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Evento publicado por el servicio de productos cada vez que un producto se crea,
+ * se actualiza o se elimina. Permite mantener sincronizadas las estructuras en
+ * memoria que dependen del contenido de la Base de Datos.
+ */
+@Data
+@AllArgsConstructor
+public class ProductChangeEvent {
+
+	public enum Type {
+		CREATED, UPDATED, DELETED
+	}
+
+	private Type type;
+
+	private Long id;
+
+	/**
+	 * Una copia del producto luego del cambio. Es null cuando el producto fue
+	 * eliminado.
+	 */
+	private Product product;
+
+}
@@ -0,0 +1,20 @@
+package com.PayGoal.Postulacion.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheStatistics {
+
+	private long aciertos;
+
+	private long fallos;
+
+	private long desalojos;
+
+	private long tamano;
+
+}
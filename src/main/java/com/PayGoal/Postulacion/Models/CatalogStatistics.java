@@ -0,0 +1,38 @@
+package com.PayGoal.Postulacion.Models;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CatalogStatistics {
+
+	private long productos;
+
+	/**
+	 * La suma de las cantidades de todos los productos.
+	 */
+	private long unidades;
+
+	/**
+	 * La suma del precio por la cantidad de cada producto.
+	 */
+	private BigDecimal valorInventario;
+
+	private BigDecimal precioMinimo;
+
+	private BigDecimal precioMaximo;
+
+	private BigDecimal precioPromedio;
+
+	/**
+	 * Los percentiles del precio de los productos, por nombre ("p50", "p90", "p95" y "p99").
+	 */
+	private Map<String, BigDecimal> percentilesPrecio;
+
+}
@@ -0,0 +1,26 @@
+package com.PayGoal.Postulacion.Models;
+
+import java.math.BigDecimal;
+
+import com.PayGoal.Postulacion.Utilities.Prices;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Guarda los precios, manejados en memoria como centavos, en una columna
+ * decimal con {@value Prices#SCALE} decimales.
+ */
+@Converter
+public class PriceConverter implements AttributeConverter<Long, BigDecimal> {
+
+	@Override
+	public BigDecimal convertToDatabaseColumn(Long cents) {
+		return Prices.toDecimal(cents);
+	}
+
+	@Override
+	public Long convertToEntityAttribute(BigDecimal price) {
+		return Prices.toCents(price);
+	}
+}
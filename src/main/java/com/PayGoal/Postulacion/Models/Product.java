@@ -1,27 +1,60 @@
 package com.PayGoal.Postulacion.Models;
 
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
-import lombok.AllArgsConstructor;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 
 import org.springframework.data.annotation.ReadOnlyProperty;
 
+import com.PayGoal.Postulacion.Utilities.Prices;
+import com.PayGoal.Postulacion.Utilities.TextNormalizer;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.gson.annotations.JsonAdapter;
+
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
+@Table(indexes = { @Index(name = "idx_producto_precio_id", columnList = "precio, id"),
+		@Index(name = "idx_producto_nombre", columnList = "nombre"),
+		@Index(name = "idx_producto_cantidad", columnList = "cantidad") })
+@JsonPropertyOrder({ "id", "nombre", "descripcion", "precio", "cantidad" })
 @Data
-@AllArgsConstructor
+@EqualsAndHashCode(doNotUseGetters = true)
+@ToString(doNotUseGetters = true)
 @NoArgsConstructor
 public class Product {
+	/**
+	 * Cantidad de Ids que se reservan de la secuencia en cada acceso.
+	 */
+	public static final int ID_ALLOCATION_SIZE = 50;
+
 	@Id
-	@GeneratedValue
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "producto_seq")
+	@SequenceGenerator(name = "producto_seq", sequenceName = "producto_seq", allocationSize = ID_ALLOCATION_SIZE)
 	@ReadOnlyProperty
 	private Long id;
 	
@@ -33,12 +66,82 @@ public class Product {
 	
 	@Min(value = 0, message="El precio no puede ser menor a $0", groups = {OnCreateValidation.class, OnUpdateValidation.class})
 	@NotNull(message="El precio no puede ser nulo", groups = {OnCreateValidation.class})
-	private BigDecimal precio;
+	@Convert(converter = PriceConverter.class)
+	@Column(precision = 38, scale = Prices.SCALE)
+	@JsonProperty("precio")
+	@JsonSerialize(using = Prices.Serializer.class)
+	@JsonDeserialize(using = Prices.Deserializer.class)
+	@JsonAdapter(Prices.GsonAdapter.class)
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private Long precio;
 	
 	@Min(value = 1, message="La cantidad no puede ser menor a 1", groups = {OnCreateValidation.class, OnUpdateValidation.class})
 	@NotNull(message="La cantidad no puede ser nula", groups = {OnCreateValidation.class})
 	private Long cantidad;
 	
+	/**
+	 * El nombre sin acentos y en minúsculas, utilizado para las búsquedas.
+	 */
+	@JsonIgnore
+	@Column(name = "nombre_normalizado")
+	private String nombreNormalizado;
+	
+	/**
+	 * La versión del producto, incrementada en cada actualización. Se expone a los
+	 * clientes como ETag.
+	 */
+	@JsonIgnore
+	@Version
+	private Long version;
+	
+	public Product(Long id, String nombre, String descripcion, BigDecimal precio, Long cantidad) {
+		this.id = id;
+		this.nombre = nombre;
+		this.descripcion = descripcion;
+		this.precio = Prices.toCents(precio);
+		this.cantidad = cantidad;
+	}
+	
+	/**
+	 * El precio en centavos, utilizado para comparar y ordenar productos sin
+	 * crear instancias de BigDecimal.
+	 * @return Los centavos, o null si el producto no tiene precio.
+	 */
+	@JsonIgnore
+	public Long getPrecioCentavos() {
+		return precio;
+	}
+	
+	@JsonIgnore
+	public void setPrecioCentavos(Long precioCentavos) {
+		this.precio = precioCentavos;
+	}
+	
+	/**
+	 * El precio con {@value Prices#SCALE} decimales. Crea un BigDecimal en cada
+	 * llamada, por lo que las comparaciones utilizan {@link #getPrecioCentavos()}.
+	 * @return El precio, o null si el producto no tiene precio.
+	 */
+	@JsonIgnore
+	public BigDecimal getPrecio() {
+		return Prices.toDecimal(precio);
+	}
+	
+	/**
+	 * @param precio El precio, con hasta {@value Prices#SCALE} decimales.
+	 * @throws ArithmeticException - En caso de que el precio tenga más decimales.
+	 */
+	@JsonIgnore
+	public void setPrecio(BigDecimal precio) throws ArithmeticException {
+		this.precio = Prices.toCents(precio);
+	}
+	
+	@PrePersist
+	@PreUpdate
+	void normalizeNombre() {
+		this.nombreNormalizado = TextNormalizer.normalize(nombre);
+	}
 	
 	/** 
 	 * Método que reemplaza los parámetros modificables de un producto por los parámetros de otro producto
@@ -59,6 +162,17 @@ public class Product {
 		}
 	}
 	
+	/**
+	 * Método que genera una copia independiente del producto.
+	 * @return Un nuevo producto con los mismos valores.
+	 */
+	public Product copy() {
+		Product copy = new Product(id, nombre, descripcion, null, cantidad);
+		copy.precio = precio;
+		copy.version = version;
+		return copy;
+	}
+	
 	public interface OnCreateValidation {
 		// interfaz para clasificar grupos de validaciones
 	}
@@ -0,0 +1,29 @@
+package com.PayGoal.Postulacion.Models;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+
+@Data
+public class ProductBatchResult {
+
+	/**
+	 * Ids de los productos creados.
+	 */
+	private List<Long> creados = new ArrayList<>();
+
+	/**
+	 * Ids de los productos existentes que fueron actualizados.
+	 */
+	private List<Long> actualizados = new ArrayList<>();
+
+	/**
+	 * Errores de validación encontrados, agrupados por la posición del producto
+	 * dentro del lote recibido.
+	 */
+	private Map<Integer, Map<String, String>> errores = new LinkedHashMap<>();
+
+}
@@ -0,0 +1,60 @@
+package com.PayGoal.Postulacion.Models;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Un cambio sobre un producto registrado en el historial de cambios. Los cambios
+ * se numeran en el orden en que se confirmaron, por lo que un consumidor puede
+ * pedir solo los posteriores al último que recibió.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_cambio_fecha", columnList = "fecha"))
+@Data
+@NoArgsConstructor
+public class ProductChange {
+
+	public enum Tipo {
+		CREADO, ACTUALIZADO, ELIMINADO
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "producto_cambio_seq")
+	@SequenceGenerator(name = "producto_cambio_seq", sequenceName = "producto_cambio_seq", allocationSize = 50)
+	private Long secuencia;
+
+	@Enumerated(EnumType.STRING)
+	private Tipo tipo;
+
+	private Long idProducto;
+
+	private Instant fecha;
+
+	/*
+	 * El estado del producto luego del cambio. Los campos son nulos cuando el
+	 * producto fue eliminado.
+	 */
+
+	private String nombre;
+
+	private String descripcion;
+
+	private BigDecimal precio;
+
+	private Long cantidad;
+
+	private Long version;
+
+}
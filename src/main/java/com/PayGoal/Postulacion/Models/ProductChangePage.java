@@ -0,0 +1,22 @@
+package com.PayGoal.Postulacion.Models;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductChangePage {
+
+	private List<ProductChange> cambios;
+
+	/**
+	 * Valor de "desde" para obtener los cambios siguientes: la secuencia del último
+	 * cambio de la página, o la recibida si no hubo cambios.
+	 */
+	private long siguiente;
+
+}
@@ -0,0 +1,28 @@
+package com.PayGoal.Postulacion.Models;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Criterios de filtrado de productos. Los criterios null no se aplican.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductFilter {
+
+	private BigDecimal precioMinimo;
+
+	private BigDecimal precioMaximo;
+
+	private Long cantidadMinima;
+
+	/**
+	 * Texto que debe contener el nombre, sin distinguir mayúsculas ni acentos.
+	 */
+	private String nombre;
+
+}
@@ -0,0 +1,21 @@
+package com.PayGoal.Postulacion.Models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class ProductLookup {
+
+	/**
+	 * Productos encontrados, en el orden de los Ids recibidos.
+	 */
+	private List<Product> productos = new ArrayList<>();
+
+	/**
+	 * Ids recibidos que no corresponden a ningún producto.
+	 */
+	private List<Long> faltantes = new ArrayList<>();
+
+}
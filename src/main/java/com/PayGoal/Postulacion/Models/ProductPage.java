@@ -0,0 +1,22 @@
+package com.PayGoal.Postulacion.Models;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductPage {
+
+	private List<Product> productos;
+
+	/**
+	 * Cursor opaco para obtener la página siguiente. Es null cuando no quedan más
+	 * productos.
+	 */
+	private String siguiente;
+
+}
@@ -0,0 +1,26 @@
+package com.PayGoal.Postulacion.Models;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSlice {
+
+	/**
+	 * Los productos de la página, completos o con solo los campos solicitados.
+	 */
+	private List<?> productos;
+
+	private int pagina;
+
+	/**
+	 * Número de la página siguiente. Es null cuando no quedan más productos.
+	 */
+	private Integer siguiente;
+
+}
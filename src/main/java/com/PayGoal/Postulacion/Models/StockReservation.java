@@ -0,0 +1,25 @@
+package com.PayGoal.Postulacion.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockReservation {
+
+	private Long id;
+
+	/**
+	 * La cantidad reservada o liberada.
+	 */
+	private Long cantidad;
+
+	/**
+	 * El stock disponible luego de la operación. Es null para los productos en modo
+	 * ráfaga, cuyo stock se descuenta en memoria.
+	 */
+	private Long disponible;
+
+}
@@ -1,33 +1,67 @@
 package com.PayGoal.Postulacion;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.PayGoal.Postulacion.Models.Product;
 import com.PayGoal.Postulacion.Services.ProductService;
 
 @SpringBootApplication
+@EnableScheduling
 public class PostulacionApplication {
 
+	private static final Logger log = LoggerFactory.getLogger(PostulacionApplication.class);
+
 	@Autowired
 	ProductService productSv;
 
+	@Value("${productos.snapshot.archivo:}")
+	String snapshotFile;
+
+	@Value("${productos.datos-iniciales.habilitado:false}")
+	boolean seedEnabled;
+
+	@Value("${productos.inicio-rapido.entrenamiento:false}")
+	boolean training;
+
 	public static void main(String[] args) {
 		SpringApplication.run(PostulacionApplication.class, args);
 	}
 
 	/**
-	 * Método que carga productos al momento de inicializar el servidor.
+	 * Método que carga productos al momento de inicializar el servidor, solo si la
+	 * Base de Datos está vacía. Si se configura un snapshot en
+	 * productos.snapshot.archivo se importan sus productos, y si no se cargan los
+	 * de prueba solo si productos.datos-iniciales.habilitado es true. Las
+	 * condiciones se evalúan al ejecutarse y no al declarar el bean, ya que con el
+	 * procesamiento AOT los beans se resuelven durante la compilación.
 	 */
 	@Bean
 	CommandLineRunner runner() {
 		return args -> {
+			if ((!seedEnabled && snapshotFile.isBlank()) || productSv.countProducts() > 0) {
+				return;
+			}
+			if (!snapshotFile.isBlank()) {
+				long start = System.nanoTime();
+				long imported = productSv.importSnapshot(Path.of(snapshotFile));
+				log.info("Se importaron {} productos desde '{}' en {} ms", imported, snapshotFile,
+						(System.nanoTime() - start) / 1_000_000);
+				return;
+			}
 			List<Product> prods = List.of(
 					new Product(Long.valueOf(1), "producto A", "El producto N°1 de la base de datos",
 							BigDecimal.valueOf(10), Long.valueOf(10)),
@@ -37,10 +71,21 @@ public class PostulacionApplication {
 							BigDecimal.valueOf(100), Long.valueOf(5)),
 					new Product(Long.valueOf(4), "producto A", "El producto N°4 de la base de datos",
 							BigDecimal.valueOf(200), Long.valueOf(50)));
-			prods.forEach(prod -> {
-				productSv.createProduct(prod);
-			});
+			productSv.createProducts(prods);
 		};
 	}
 
+	/**
+	 * Termina la aplicación apenas está lista para recibir peticiones cuando se
+	 * inicia para generar el archivo de clases compartidas del perfil
+	 * inicio-rapido, que incluye las clases cargadas hasta ese momento.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void exitAfterTraining(ApplicationReadyEvent event) {
+		if (training) {
+			log.info("Inicio de entrenamiento completado en {} ms, terminando", event.getTimeTaken().toMillis());
+			System.exit(SpringApplication.exit(event.getApplicationContext()));
+		}
+	}
+
 }
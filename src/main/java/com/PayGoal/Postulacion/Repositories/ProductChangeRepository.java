@@ -0,0 +1,31 @@
+package com.PayGoal.Postulacion.Repositories;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.PayGoal.Postulacion.Models.ProductChange;
+
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+
+	@Query("select c from ProductChange c where c.secuencia > :desde and c.secuencia <= :hasta order by c.secuencia")
+	List<ProductChange> findAllBetween(@Param("desde") long desde, @Param("hasta") long hasta, Pageable pageable);
+
+	@Query("select min(c.secuencia) from ProductChange c")
+	Long findFirstSequence();
+
+	@Query("select max(c.secuencia) from ProductChange c")
+	Long findLastSequence();
+
+	@Modifying
+	@Transactional
+	@Query("delete from ProductChange c where c.fecha < :fecha and c.secuencia < :secuencia")
+	int deleteOlderThan(@Param("fecha") Instant fecha, @Param("secuencia") long secuencia);
+
+}
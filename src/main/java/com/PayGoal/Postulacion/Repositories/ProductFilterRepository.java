@@ -0,0 +1,41 @@
+package com.PayGoal.Postulacion.Repositories;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.PayGoal.Postulacion.Models.Product;
+
+/**
+ * Consultas dinámicas de productos construidas con la API Criteria.
+ */
+public interface ProductFilterRepository {
+
+	/**
+	 * Obtiene un tramo de los productos que cumplen un criterio, sin contar el
+	 * total de coincidencias.
+	 * @param spec El criterio, o null para obtener todos los productos.
+	 * @param sort El ordenamiento de los productos.
+	 * @param offset La cantidad de productos a saltear.
+	 * @param limit La cantidad máxima de productos.
+	 * @return Los productos encontrados.
+	 */
+	List<Product> findAllMatching(Specification<Product> spec, Sort sort, long offset, int limit);
+
+	/**
+	 * Obtiene solo algunos campos de un tramo de los productos que cumplen un
+	 * criterio. La consulta selecciona únicamente las columnas de esos campos y no
+	 * crea entidades.
+	 * @param spec El criterio, o null para obtener todos los productos.
+	 * @param fields Los campos a obtener.
+	 * @param sort El ordenamiento de los productos.
+	 * @param offset La cantidad de productos a saltear.
+	 * @param limit La cantidad máxima de productos, o {@link Integer#MAX_VALUE} para no limitarla.
+	 * @return Los valores de los campos de cada producto, en el orden recibido.
+	 */
+	List<Map<String, Object>> findFieldsMatching(Specification<Product> spec, List<String> fields, Sort sort,
+			long offset, int limit);
+
+}
@@ -0,0 +1,76 @@
+package com.PayGoal.Postulacion.Repositories;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Utilities.Prices;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.AbstractQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+class ProductFilterRepositoryImpl implements ProductFilterRepository {
+
+	@PersistenceContext
+	EntityManager entityManager;
+
+	@Override
+	public List<Product> findAllMatching(Specification<Product> spec, Sort sort, long offset, int limit) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Product> query = cb.createQuery(Product.class);
+		Root<Product> root = query.from(Product.class);
+		where(query, root, spec, cb);
+		query.orderBy(QueryUtils.toOrders(sort, root, cb));
+		return limit(entityManager.createQuery(query), offset, limit).getResultList();
+	}
+
+	@Override
+	public List<Map<String, Object>> findFieldsMatching(Specification<Product> spec, List<String> fields, Sort sort,
+			long offset, int limit) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Tuple> query = cb.createTupleQuery();
+		Root<Product> root = query.from(Product.class);
+		query.multiselect(fields.stream().<Selection<?>>map(field -> root.get(field).alias(field)).toList());
+		where(query, root, spec, cb);
+		query.orderBy(QueryUtils.toOrders(sort, root, cb));
+		List<Tuple> tuples = limit(entityManager.createQuery(query), offset, limit).getResultList();
+		List<Map<String, Object>> products = new ArrayList<>(tuples.size());
+		for (Tuple tuple : tuples) {
+			Map<String, Object> product = new LinkedHashMap<>();
+			// el precio se selecciona en centavos
+			fields.forEach(field -> product.put(field,
+					field.equals("precio") ? Prices.toDecimal((Long) tuple.get(field)) : tuple.get(field)));
+			products.add(product);
+		}
+		return products;
+	}
+
+	private static void where(AbstractQuery<?> query, Root<Product> root, Specification<Product> spec,
+			CriteriaBuilder cb) {
+		Predicate predicate = spec == null ? null : spec.toPredicate(root, (CriteriaQuery<?>) query, cb);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+	}
+
+	private static <T> TypedQuery<T> limit(TypedQuery<T> query, long offset, int limit) {
+		if (offset > 0) {
+			query.setFirstResult(Math.toIntExact(offset));
+		}
+		return limit == Integer.MAX_VALUE ? query : query.setMaxResults(limit);
+	}
+}
@@ -1,15 +1,74 @@
 package com.PayGoal.Postulacion.Repositories;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.PayGoal.Postulacion.Models.Product;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+import jakarta.persistence.QueryHint;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductFilterRepository {
 
 	Optional<Product> findByNombre(String nombre);
 	
 	Iterable<Product> findAllByNombre(String nombre);
 
+	List<Product> findAllBy(Pageable pageable);
+
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	Stream<Product> streamAllBy(Sort sort);
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("select p.id, p.nombreNormalizado from Product p")
+	Stream<Object[]> streamAllNormalizedNames();
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("select p.id, p.precio, p.version from Product p order by p.id")
+	Stream<Object[]> streamAllPrices();
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("select p.id, p.precio, p.cantidad from Product p")
+	Stream<Object[]> streamAllPricesAndQuantities();
+
+	@Query("select p from Product p where (:minimo is null or p.precio >= :minimo) and (:maximo is null or p.precio <= :maximo)")
+	List<Product> findAllInPriceRange(@Param("minimo") Long minimo, @Param("maximo") Long maximo,
+			Pageable pageable);
+
+	@Query("select p from Product p where p.precio >= :precio and (p.precio > :precio or p.id > :id)")
+	List<Product> findAllAfterPrice(@Param("precio") Long precio, @Param("id") Long id, Pageable pageable);
+
+	@Query("select p from Product p where p.precio <= :precio and (p.precio < :precio or p.id < :id)")
+	List<Product> findAllBeforePrice(@Param("precio") Long precio, @Param("id") Long id, Pageable pageable);
+
+	@Modifying
+	@Query("delete from Product p where p.id = :id")
+	int deleteProductById(@Param("id") Long id);
+
+	@Modifying
+	@Query("delete from Product p where p.id = :id and p.version = :version")
+	int deleteProductByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
+
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Product p set p.cantidad = p.cantidad - :cantidad, p.version = p.version + 1 where p.id = :id and p.cantidad >= :cantidad")
+	int decrementStock(@Param("id") Long id, @Param("cantidad") long cantidad);
+
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Product p set p.cantidad = p.cantidad + :cantidad, p.version = p.version + 1 where p.id = :id")
+	int incrementStock(@Param("id") Long id, @Param("cantidad") long cantidad);
+
 }
@@ -0,0 +1,85 @@
+package com.PayGoal.Postulacion.Repositories;
+
+import java.math.BigDecimal;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Models.ProductFilter;
+import com.PayGoal.Postulacion.Utilities.Prices;
+import com.PayGoal.Postulacion.Utilities.TextNormalizer;
+
+/**
+ * Criterios de búsqueda de productos para consultas dinámicas. Cada criterio
+ * es null cuando su valor es null, por lo que pueden combinarse sin verificar
+ * cuáles fueron indicados.
+ */
+public final class ProductSpecifications {
+
+	private static final char LIKE_ESCAPE = '\\';
+
+	private ProductSpecifications() {
+	}
+
+	/**
+	 * Combina todos los criterios de un filtro.
+	 * @param filter El filtro.
+	 * @return Los productos que cumplen todos los criterios del filtro.
+	 */
+	public static Specification<Product> matching(ProductFilter filter) {
+		return Specification.where(priceAtLeast(filter.getPrecioMinimo()))
+				.and(priceAtMost(filter.getPrecioMaximo()))
+				.and(quantityAtLeast(filter.getCantidadMinima()))
+				.and(nameContains(filter.getNombre()));
+	}
+
+	/**
+	 * @param min El precio mínimo, inclusive.
+	 * @return Los productos con un precio mayor o igual al recibido.
+	 */
+	public static Specification<Product> priceAtLeast(BigDecimal min) {
+		return min == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("precio"),
+				Prices.toCentsCeiling(min));
+	}
+
+	/**
+	 * @param max El precio máximo, inclusive.
+	 * @return Los productos con un precio menor o igual al recibido.
+	 */
+	public static Specification<Product> priceAtMost(BigDecimal max) {
+		return max == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("precio"),
+				Prices.toCentsFloor(max));
+	}
+
+	/**
+	 * @param min La cantidad mínima, inclusive.
+	 * @return Los productos con una cantidad mayor o igual a la recibida.
+	 */
+	public static Specification<Product> quantityAtLeast(Long min) {
+		return min == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("cantidad"), min);
+	}
+
+	/**
+	 * @param text El texto a buscar.
+	 * @return Los productos cuyo nombre normalizado contiene el texto normalizado.
+	 */
+	public static Specification<Product> nameContains(String text) {
+		String normalized = TextNormalizer.normalize(text);
+		if (normalized == null || normalized.isEmpty()) {
+			return null;
+		}
+		String pattern = "%" + escapeLike(normalized) + "%";
+		return (root, query, cb) -> cb.like(root.get("nombreNormalizado"), pattern, LIKE_ESCAPE);
+	}
+
+	private static String escapeLike(String text) {
+		StringBuilder escaped = new StringBuilder(text.length());
+		for (char c : text.toCharArray()) {
+			if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+				escaped.append(LIKE_ESCAPE);
+			}
+			escaped.append(c);
+		}
+		return escaped.toString();
+	}
+}
@@ -0,0 +1,107 @@
+package com.PayGoal.Postulacion.Services;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.PayGoal.Postulacion.Events.ProductChangeEvent;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Versión del catálogo completo, incrementada con cada cambio sobre cualquier
+ * producto. Permite responder las consultas de varios productos con un ETag y
+ * una fecha de modificación, y verificar si el cliente ya tiene la respuesta
+ * actual sin consultar la Base de Datos.
+ * <p>
+ * La versión incluye el momento de inicio de la aplicación, para que no se
+ * repita luego de un reinicio.
+ */
+@Component
+public class CatalogVersion {
+
+	private final long epoch = System.currentTimeMillis();
+
+	private final AtomicLong changes = new AtomicLong();
+
+	private volatile long lastModified = epoch;
+
+	/**
+	 * Registra un cambio sobre un producto una vez confirmado.
+	 * @param event El cambio realizado.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChange(ProductChangeEvent event) {
+		lastModified = System.currentTimeMillis();
+		changes.incrementAndGet();
+	}
+
+	/**
+	 * Obtiene el ETag de la versión actual del catálogo. Debe obtenerse antes de
+	 * consultar los productos, para que una respuesta nunca se asocie a una
+	 * versión posterior a la de su contenido.
+	 * <p>
+	 * El ETag es débil, ya que la misma versión se envía comprimida o sin
+	 * comprimir y en distintos formatos. Además, Tomcat no comprime las
+	 * respuestas con un ETag fuerte.
+	 * @return El ETag débil, con comillas.
+	 */
+	public String getETag() {
+		return "W/\"" + epoch + "-" + changes.get() + "\"";
+	}
+
+	/**
+	 * Obtiene el momento del último cambio sobre el catálogo.
+	 * @return El momento del último cambio, en milisegundos desde la época Unix.
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * Obtiene el ETag y el momento del último cambio de la versión actual, que
+	 * deben obtenerse antes de consultar los productos.
+	 * @return La versión actual.
+	 */
+	public Validators getValidators() {
+		return new Validators(getETag(), lastModified);
+	}
+
+	/**
+	 * El ETag y el momento del último cambio de una versión del catálogo, que se
+	 * informan solo en las respuestas exitosas.
+	 */
+	@Getter
+	@AllArgsConstructor(access = AccessLevel.PRIVATE)
+	public static final class Validators {
+
+		private final String eTag;
+
+		private final long lastModified;
+
+		/**
+		 * Indica si el cliente ya tiene esta versión según los encabezados de la
+		 * petición. If-Modified-Since solo se considera si no se envía
+		 * If-None-Match, y los ETags se comparan sin distinguir si son débiles.
+		 * @param ifNoneMatch Los ETags del encabezado If-None-Match, vacío si no se envía.
+		 * @param ifModifiedSince El momento del encabezado If-Modified-Since en milisegundos, o -1 si no se envía.
+		 * @return true si puede responderse 304.
+		 */
+		public boolean isNotModified(List<String> ifNoneMatch, long ifModifiedSince) {
+			if (!ifNoneMatch.isEmpty()) {
+				String current = opaque(eTag);
+				return ifNoneMatch.stream().anyMatch(tag -> tag.equals("*") || opaque(tag).equals(current));
+			}
+			// las fechas HTTP no tienen milisegundos
+			return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+		}
+
+		private static String opaque(String tag) {
+			return tag.startsWith("W/") ? tag.substring(2) : tag;
+		}
+	}
+}
@@ -0,0 +1,235 @@
+package com.PayGoal.Postulacion.Services;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stock en memoria para los productos configurados en modo ráfaga. En lugar de
+ * descontar cada reserva de la Base de Datos, se retiran bloques de stock de la
+ * Base de Datos y se reparten entre varios fragmentos atómicos, de forma que las
+ * reservas concurrentes sobre un mismo producto no compitan por el mismo bloqueo
+ * de fila. El stock no vendido se devuelve periódicamente a la Base de Datos,
+ * y al detener la aplicación, luego de lo cual las reservas vuelven a
+ * resolverse en la Base de Datos.
+ * <p>
+ * Cuando la cantidad de un producto se reemplaza o el producto se elimina, su
+ * stock en memoria se descarta con {@link #reset(Long)}. Cada descarte inicia
+ * una nueva generación del producto, y el stock retirado en una generación
+ * anterior ya no se agrega a la memoria.
+ */
+@Component
+public class FlashSaleStock {
+
+	private final Set<Long> enabledIds;
+
+	private final int shardCount;
+
+	private final long leaseSize;
+
+	private final Map<Long, AtomicLong[]> shardsById = new ConcurrentHashMap<>();
+
+	private final Map<Long, AtomicLong> generationsById = new ConcurrentHashMap<>();
+
+	private volatile boolean closed;
+
+	public FlashSaleStock(@Value("${productos.stock.rafaga.ids:}") Set<Long> enabledIds,
+			@Value("${productos.stock.rafaga.fragmentos:8}") int shardCount,
+			@Value("${productos.stock.rafaga.bloque:100}") long leaseSize) {
+		this.enabledIds = Set.copyOf(enabledIds);
+		this.shardCount = shardCount;
+		this.leaseSize = leaseSize;
+	}
+
+	/**
+	 * Indica si un producto se encuentra en modo ráfaga.
+	 * @param productId El Id del producto.
+	 * @return true si las reservas del producto se resuelven en memoria.
+	 */
+	public boolean isEnabled(Long productId) {
+		return !closed && enabledIds.contains(productId);
+	}
+
+	/**
+	 * Calcula la cantidad de stock a retirar de la Base de Datos para cubrir una
+	 * reserva.
+	 * @param quantity La cantidad a reservar.
+	 * @return El tamaño del bloque a retirar.
+	 */
+	public long leaseSize(long quantity) {
+		return Math.max(leaseSize, quantity);
+	}
+
+	/**
+	 * Intenta reservar stock a partir del stock en memoria, sin acceder a la Base
+	 * de Datos.
+	 * @param productId El Id del producto.
+	 * @param quantity La cantidad a reservar.
+	 * @return true si la reserva se pudo cubrir con el stock en memoria.
+	 */
+	public boolean tryReserve(Long productId, long quantity) {
+		AtomicLong[] shards = shards(productId);
+		int home = homeShard();
+		for (int i = 0; i < shards.length; i++) {
+			if (tryTake(shards[(home + i) % shards.length], quantity)) {
+				return true;
+			}
+		}
+		// ningún fragmento alcanza por sí solo, se intenta juntar el stock de todos
+		long taken = takeUpTo(productId, quantity);
+		if (taken == quantity) {
+			return true;
+		}
+		shards[home].addAndGet(taken);
+		return false;
+	}
+
+	/**
+	 * Retira todo el stock en memoria que se pueda hasta una cantidad, para
+	 * completar una reserva con el stock de la Base de Datos.
+	 * @param productId El Id del producto.
+	 * @param quantity La cantidad máxima a retirar.
+	 * @return La cantidad retirada, que puede ser menor a la pedida.
+	 */
+	public long takeUpTo(Long productId, long quantity) {
+		AtomicLong[] shards = shards(productId);
+		int home = homeShard();
+		long taken = 0;
+		for (int i = 0; i < shards.length && taken < quantity; i++) {
+			taken += takeUpTo(shards[(home + i) % shards.length], quantity - taken);
+		}
+		return taken;
+	}
+
+	/**
+	 * Agrega stock en memoria, ya sea el sobrante de un bloque retirado de la Base
+	 * de Datos o una reserva liberada.
+	 * @param productId El Id del producto.
+	 * @param quantity La cantidad a agregar.
+	 * @return true si el stock queda en memoria, false si ya se cerró y debe
+	 *         devolverse a la Base de Datos con {@link #drain()}.
+	 */
+	public boolean add(Long productId, long quantity) {
+		shards(productId)[homeShard()].addAndGet(quantity);
+		// se lee luego de agregar: o drain() ya ve el stock agregado o se informa que debe retirarse
+		return !closed;
+	}
+
+	/**
+	 * Agrega stock en memoria solo si el producto no cambió de generación desde que
+	 * el stock se retiró, ya que en ese caso la cantidad del producto fue
+	 * reemplazada y el stock ya no le corresponde.
+	 * @param productId El Id del producto.
+	 * @param quantity La cantidad a agregar.
+	 * @param generation La generación del producto al retirar el stock.
+	 * @return true si el stock queda en memoria o se descarta, false si ya se
+	 *         cerró y debe devolverse a la Base de Datos con {@link #drain()}.
+	 */
+	public boolean add(Long productId, long quantity, long generation) {
+		AtomicLong[] shards = shards(productId);
+		// se sincroniza con reset() para que el stock no se agregue luego de descartarse
+		synchronized (shards) {
+			if (generation(productId) != generation) {
+				return true;
+			}
+			return add(productId, quantity);
+		}
+	}
+
+	/**
+	 * Obtiene la generación actual del stock de un producto.
+	 * @param productId El Id del producto.
+	 * @return La cantidad de veces que se descartó el stock del producto.
+	 */
+	public long generation(Long productId) {
+		AtomicLong generation = generationsById.get(productId);
+		return generation == null ? 0 : generation.get();
+	}
+
+	/**
+	 * Descarta el stock en memoria de un producto e inicia una nueva generación,
+	 * antes de reemplazar su cantidad o de eliminarlo.
+	 * @param productId El Id del producto.
+	 * @return La cantidad descartada, para agregarla nuevamente si el cambio no se realiza.
+	 */
+	public long reset(Long productId) {
+		AtomicLong[] shards = shards(productId);
+		synchronized (shards) {
+			generationsById.computeIfAbsent(productId, id -> new AtomicLong()).incrementAndGet();
+			long total = 0;
+			for (AtomicLong shard : shards) {
+				total += shard.getAndSet(0);
+			}
+			return total;
+		}
+	}
+
+	/**
+	 * Deja de resolver reservas en memoria. El stock que quede debe retirarse
+	 * luego con {@link #drain()}.
+	 */
+	public void close() {
+		closed = true;
+	}
+
+	/**
+	 * Retira todo el stock en memoria para devolverlo a la Base de Datos.
+	 * @return La cantidad retirada por cada producto, omitiendo los productos sin stock en memoria.
+	 */
+	public Map<Long, Long> drain() {
+		Map<Long, Long> drained = new HashMap<>();
+		shardsById.forEach((productId, shards) -> {
+			long total = 0;
+			for (AtomicLong shard : shards) {
+				total += shard.getAndSet(0);
+			}
+			if (total > 0) {
+				drained.put(productId, total);
+			}
+		});
+		return drained;
+	}
+
+	private AtomicLong[] shards(Long productId) {
+		return shardsById.computeIfAbsent(productId, id -> {
+			AtomicLong[] shards = new AtomicLong[shardCount];
+			for (int i = 0; i < shards.length; i++) {
+				shards[i] = new AtomicLong();
+			}
+			return shards;
+		});
+	}
+
+	private int homeShard() {
+		return (int) (Thread.currentThread().getId() % shardCount);
+	}
+
+	private static boolean tryTake(AtomicLong shard, long quantity) {
+		long current;
+		do {
+			current = shard.get();
+			if (current < quantity) {
+				return false;
+			}
+		} while (!shard.compareAndSet(current, current - quantity));
+		return true;
+	}
+
+	private static long takeUpTo(AtomicLong shard, long quantity) {
+		long current;
+		long taken;
+		do {
+			current = shard.get();
+			taken = Math.min(current, quantity);
+			if (taken == 0) {
+				return 0;
+			}
+		} while (!shard.compareAndSet(current, current - taken));
+		return taken;
+	}
+}
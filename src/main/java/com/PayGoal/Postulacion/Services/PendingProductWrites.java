@@ -0,0 +1,253 @@
+package com.PayGoal.Postulacion.Services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.PayGoal.Postulacion.Models.Product;
+
+/**
+ * Escrituras de productos pendientes de guardarse en la Base de Datos, agrupadas
+ * por Id: cada producto tiene como máximo una escritura pendiente, que combina
+ * todos sus cambios recibidos desde la última vez que se tomó para guardarse.
+ * Las escrituras tomadas se mantienen como "en curso" hasta confirmarse, para
+ * que las lecturas sigan viéndolas mientras se guardan.
+ * <p>
+ * No es segura para el acceso concurrente: {@link ProductWriteBehind} la
+ * protege con su propio bloqueo.
+ */
+final class PendingProductWrites {
+
+	enum Operation {
+		CREATE, UPDATE, DELETE
+	}
+
+	private final Map<Long, Write> pending = new LinkedHashMap<>();
+
+	private final Map<Long, Write> inFlight = new HashMap<>();
+
+	/**
+	 * Agrega la creación de un producto con un Id nuevo.
+	 * @param prod El producto completo, con su Id.
+	 * @return La escritura pendiente.
+	 */
+	Write create(Product prod) {
+		Write write = new Write(Operation.CREATE, prod.copy());
+		pending.put(prod.getId(), write);
+		return write;
+	}
+
+	/**
+	 * Agrega la actualización de un producto. Si ya tiene una creación o
+	 * actualización pendiente, los campos recibidos se combinan con ella.
+	 * @param id El Id del producto.
+	 * @param changes Los campos a modificar; los campos nulos no se modifican.
+	 * @return La escritura pendiente, o null si el producto tiene una eliminación pendiente.
+	 */
+	Write update(Long id, Product changes) {
+		Write write = pending.get(id);
+		if (write == null) {
+			write = new Write(Operation.UPDATE, patchOf(changes));
+			pending.put(id, write);
+		} else if (write.operation == Operation.DELETE) {
+			return null;
+		} else {
+			merge(write.product, changes);
+		}
+		return write;
+	}
+
+	/**
+	 * Agrega la eliminación de un producto. Si el producto solo tiene una creación
+	 * pendiente, ambas se descartan sin llegar a la Base de Datos.
+	 * @param id El Id del producto.
+	 * @return La escritura pendiente, o null si el producto ya tiene una eliminación pendiente.
+	 */
+	Write delete(Long id) {
+		Write write = pending.get(id);
+		if (write == null) {
+			write = new Write(Operation.DELETE, null);
+			pending.put(id, write);
+		} else if (write.operation == Operation.DELETE) {
+			return null;
+		} else if (write.operation == Operation.CREATE) {
+			pending.remove(id);
+			write.committed.complete(null);
+		} else {
+			write.operation = Operation.DELETE;
+			write.product = null;
+		}
+		return write;
+	}
+
+	/**
+	 * Indica si un producto tiene una escritura pendiente, sin contar las que se
+	 * están guardando.
+	 * @param id El Id del producto.
+	 * @return true si agregar una escritura del producto no ocupa una nueva posición.
+	 */
+	boolean isPending(Long id) {
+		return pending.containsKey(id);
+	}
+
+	/**
+	 * Indica si un producto tiene una escritura pendiente o en curso.
+	 * @param id El Id del producto.
+	 * @return true si la Base de Datos todavía no refleja todos los cambios del producto.
+	 */
+	boolean contains(Long id) {
+		return pending.containsKey(id) || inFlight.containsKey(id);
+	}
+
+	/**
+	 * Obtiene copias de las escrituras de un producto, primero la que está en curso
+	 * y luego la pendiente.
+	 * @param id El Id del producto.
+	 * @return Las escrituras, en el orden en que deben aplicarse.
+	 */
+	List<Write> writesOf(Long id) {
+		List<Write> writes = new ArrayList<>(2);
+		Write current = inFlight.get(id);
+		if (current != null) {
+			writes.add(current.copy());
+		}
+		current = pending.get(id);
+		if (current != null) {
+			writes.add(current.copy());
+		}
+		return writes;
+	}
+
+	/**
+	 * Toma las escrituras pendientes más antiguas para guardarlas, dejándolas en
+	 * curso hasta que se llame a {@link #completed(Map)}.
+	 * @param max La cantidad máxima de escrituras.
+	 * @return Las escrituras tomadas por Id, en el orden en que se recibieron.
+	 */
+	Map<Long, Write> take(int max) {
+		Map<Long, Write> batch = new LinkedHashMap<>();
+		Iterator<Map.Entry<Long, Write>> it = pending.entrySet().iterator();
+		while (it.hasNext() && batch.size() < max) {
+			Map.Entry<Long, Write> entry = it.next();
+			it.remove();
+			batch.put(entry.getKey(), entry.getValue());
+			inFlight.put(entry.getKey(), entry.getValue());
+		}
+		return batch;
+	}
+
+	/**
+	 * Quita las escrituras guardadas de las escrituras en curso.
+	 * @param batch Las escrituras obtenidas de {@link #take(int)}.
+	 */
+	void completed(Map<Long, Write> batch) {
+		batch.keySet().forEach(inFlight::remove);
+	}
+
+	/**
+	 * Cantidad de escrituras pendientes, sin contar las que se están guardando.
+	 */
+	int size() {
+		return pending.size();
+	}
+
+	/**
+	 * Cantidad de escrituras pendientes y en curso.
+	 */
+	int tracked() {
+		return pending.size() + inFlight.size();
+	}
+
+	private static Product patchOf(Product changes) {
+		Product patch = new Product();
+		merge(patch, changes);
+		return patch;
+	}
+
+	/**
+	 * Copia sobre un producto los campos no nulos de otro.
+	 */
+	static void merge(Product target, Product changes) {
+		if (changes.getNombre() != null) {
+			target.setNombre(changes.getNombre());
+		}
+		if (changes.getDescripcion() != null) {
+			target.setDescripcion(changes.getDescripcion());
+		}
+		if (changes.getPrecioCentavos() != null) {
+			target.setPrecioCentavos(changes.getPrecioCentavos());
+		}
+		if (changes.getCantidad() != null) {
+			target.setCantidad(changes.getCantidad());
+		}
+	}
+
+	/**
+	 * Una escritura pendiente de un producto. Su confirmación se completa cuando la
+	 * escritura se guarda, o se descarta, en la Base de Datos.
+	 */
+	static final class Write {
+
+		private Operation operation;
+
+		private Product product;
+
+		private final CompletableFuture<Void> committed;
+
+		private Write(Operation operation, Product product) {
+			this(operation, product, new CompletableFuture<>());
+		}
+
+		private Write(Operation operation, Product product, CompletableFuture<Void> committed) {
+			this.operation = operation;
+			this.product = product;
+			this.committed = committed;
+		}
+
+		Operation getOperation() {
+			return operation;
+		}
+
+		/**
+		 * El producto completo de una creación, o los campos modificados de una
+		 * actualización. Es null en una eliminación.
+		 */
+		Product getProduct() {
+			return product;
+		}
+
+		CompletableFuture<Void> getCommitted() {
+			return committed;
+		}
+
+		/**
+		 * Aplica la escritura sobre el estado de un producto. Las actualizaciones
+		 * asignan valores absolutos, por lo que aplicarlas sobre un estado que ya
+		 * las incluye no lo modifica.
+		 * @param state El estado del producto, o null si no existe. Puede modificarse.
+		 * @return El nuevo estado, sin versión, o null si el producto no existe.
+		 */
+		Product applyTo(Product state) {
+			switch (operation) {
+			case CREATE:
+				return product.copy();
+			case DELETE:
+				return null;
+			default:
+				if (state != null) {
+					merge(state, product);
+					state.setVersion(null);
+				}
+				return state;
+			}
+		}
+
+		private Write copy() {
+			return new Write(operation, product == null ? null : product.copy(), committed);
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package com.PayGoal.Postulacion.Services;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.PayGoal.Postulacion.Events.ProductChangeEvent;
+import com.PayGoal.Postulacion.Models.CacheStatistics;
+import com.PayGoal.Postulacion.Models.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Caché de lectura de productos por Id y por nombre, limitado en tamaño y con
+ * vencimiento por tiempo. Se mantiene actualizado a partir de los eventos de
+ * cambio publicados por {@link ProductService}. Para no recorrer todas las
+ * búsquedas por nombre en cada cambio, se registran los nombres bajo los que
+ * está guardado cada producto.
+ */
+@Component
+public class ProductCache {
+
+	private final Cache<Long, Product> byId;
+
+	private final Cache<String, List<Product>> byName;
+
+	// se modifica junto con la entrada de cada nombre, por lo que no puede quedar un nombre guardado sin registrar
+	private final Map<Long, Set<String>> namesById = new ConcurrentHashMap<>();
+
+	public ProductCache(@Value("${productos.cache.tamano-maximo:10000}") long maximumSize,
+			@Value("${productos.cache.ttl:10m}") Duration ttl, MeterRegistry meterRegistry) {
+		this.byId = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build();
+		this.byName = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl)
+				.<String, List<Product>>evictionListener((name, products, cause) -> unregister(name, products))
+				.recordStats().build();
+		CaffeineCacheMetrics.monitor(meterRegistry, byId, "productos.porId");
+		CaffeineCacheMetrics.monitor(meterRegistry, byName, "productos.porNombre");
+	}
+
+	/**
+	 * Obtiene un producto del caché, o lo carga en caso de no encontrarse.
+	 * @param id El Id del producto.
+	 * @param loader La función que obtiene el producto de la Base de Datos, o null si no existe.
+	 * @return El producto, o null si no existe.
+	 */
+	public Product getById(Long id, Function<Long, Product> loader) {
+		return byId.get(id, loader);
+	}
+
+	/**
+	 * Obtiene varios productos del caché, cargando con una sola llamada los que no
+	 * se encuentren.
+	 * @param ids Los Ids de los productos.
+	 * @param loader La función que obtiene de la Base de Datos los productos
+	 *               existentes entre los Ids que faltan en el caché.
+	 * @return Los productos encontrados por Id; los que no existen no se incluyen.
+	 */
+	public Map<Long, Product> getAllById(Collection<Long> ids, Function<Set<Long>, Map<Long, Product>> loader) {
+		return byId.getAll(ids, missing -> loader.apply(Set.copyOf(missing)));
+	}
+
+	/**
+	 * Obtiene los productos con un nombre del caché, o los carga en caso de no
+	 * encontrarse.
+	 * @param name El nombre de los productos.
+	 * @param loader La función que obtiene los productos de la Base de Datos.
+	 * @return Los productos con el nombre recibido.
+	 */
+	public List<Product> getByName(String name, Function<String, List<Product>> loader) {
+		return byName.get(name, key -> {
+			List<Product> products = List.copyOf(loader.apply(key));
+			products.forEach(prod -> namesById.merge(prod.getId(), Set.of(key), ProductCache::union));
+			return products;
+		});
+	}
+
+	/**
+	 * Actualiza las entradas afectadas por un cambio sobre un producto.
+	 * @param event El cambio realizado.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChange(ProductChangeEvent event) {
+		namesById.getOrDefault(event.getId(), Set.of()).forEach(this::evictName);
+		if (event.getType() == ProductChangeEvent.Type.DELETED) {
+			byId.invalidate(event.getId());
+		} else {
+			byId.put(event.getId(), event.getProduct());
+			evictName(event.getProduct().getNombre());
+		}
+	}
+
+	/**
+	 * Elimina todas las entradas del caché.
+	 */
+	public void clear() {
+		byId.invalidateAll();
+		byName.asMap().keySet().forEach(this::evictName);
+	}
+
+	/**
+	 * Obtiene las estadísticas de uso del caché.
+	 * @return Las estadísticas del caché por Id y del caché por nombre.
+	 */
+	public Map<String, CacheStatistics> getStatistics() {
+		return Map.of("porId", toStatistics(byId.stats(), byId.estimatedSize()), "porNombre",
+				toStatistics(byName.stats(), byName.estimatedSize()));
+	}
+
+	private void evictName(String name) {
+		byName.asMap().computeIfPresent(name, (key, products) -> {
+			unregister(key, products);
+			return null;
+		});
+	}
+
+	private void unregister(String name, List<Product> products) {
+		for (Product prod : products) {
+			namesById.computeIfPresent(prod.getId(), (id, names) -> {
+				Set<String> remaining = new HashSet<>(names);
+				remaining.remove(name);
+				return remaining.isEmpty() ? null : Set.copyOf(remaining);
+			});
+		}
+	}
+
+	private static Set<String> union(Set<String> names, Set<String> added) {
+		Set<String> all = new HashSet<>(names);
+		all.addAll(added);
+		return Set.copyOf(all);
+	}
+
+	private CacheStatistics toStatistics(CacheStats stats, long size) {
+		return new CacheStatistics(stats.hitCount(), stats.missCount(), stats.evictionCount(), size);
+	}
+}
@@ -0,0 +1,393 @@
+package com.PayGoal.Postulacion.Services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.PayGoal.Postulacion.Events.ProductChangeEvent;
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Models.ProductChange;
+import com.PayGoal.Postulacion.Models.ProductChangePage;
+import com.PayGoal.Postulacion.Repositories.ProductChangeRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Historial de cambios de productos, para que otros sistemas se sincronicen
+ * pidiendo solo los cambios posteriores al último que recibieron, en lugar de
+ * volver a leer el catálogo completo.
+ * <p>
+ * Cada cambio se guarda en la misma transacción que lo realiza, por lo que un
+ * cambio confirmado nunca falta en el historial, aunque el proceso termine de
+ * forma abrupta, y un cambio que no puede registrarse hace fallar la operación.
+ * Como las transacciones pueden confirmarse en otro orden que el de sus
+ * secuencias, los consumidores solo reciben los cambios hasta la última
+ * secuencia sin transacciones anteriores en curso, de forma que nunca reciben
+ * un cambio sin los anteriores. Las secuencias de las transacciones deshechas
+ * quedan sin cambio.
+ * <p>
+ * Los últimos "productos.cambios.memoria" cambios confirmados se conservan
+ * además en memoria, por lo que los consumidores al día no consultan la Base de
+ * Datos, y se avisan a los consumidores que esperan cambios.
+ * <p>
+ * Los cambios más antiguos que "productos.cambios.retencion" se eliminan
+ * periódicamente, conservando siempre el último.
+ */
+@Component
+public class ProductChangeLog {
+
+	/**
+	 * Cantidad máxima de cambios que se devuelven en una consulta.
+	 */
+	public static final int MAX_PAGE_SIZE = 1000;
+
+	/**
+	 * Cantidad máxima de segundos que una consulta puede esperar un cambio.
+	 */
+	public static final int MAX_WAIT_SECONDS = 30;
+
+	private static final Logger log = LoggerFactory.getLogger(ProductChangeLog.class);
+
+	// los últimos cambios confirmados, en orden de secuencia; su bloqueo protege también a las secuencias en curso
+	private final ArrayDeque<ProductChange> recent = new ArrayDeque<>();
+
+	// secuencias de los cambios cuya transacción todavía no terminó
+	private final NavigableSet<Long> inProgress = new TreeSet<>();
+
+	// cambios confirmados que esperan a que terminen las transacciones de secuencias anteriores
+	private final NavigableMap<Long, ProductChange> confirmed = new TreeMap<>();
+
+	// avisa la secuencia del último cambio guardado; cada consumidor busca los cambios que le faltan
+	private final Sinks.Many<Long> notifications = Sinks.many().multicast().directBestEffort();
+
+	private final Duration retention;
+
+	private final int memorySize;
+
+	// secuencia del último cambio visible para los consumidores, sin transacciones anteriores en curso
+	private volatile long lastSequence;
+
+	// secuencia del último cambio eliminado por la retención
+	private volatile long purgedUpTo;
+
+	private volatile int pending;
+
+	@Autowired
+	ProductChangeRepository changeRepo;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	public ProductChangeLog(@Value("${productos.cambios.retencion:7d}") Duration retention,
+			@Value("${productos.cambios.memoria:10000}") int memorySize, MeterRegistry meterRegistry) {
+		this.retention = retention;
+		this.memorySize = memorySize;
+		Gauge.builder("productos.cambios.pendientes", this, changeLog -> changeLog.pending)
+				.description("Cambios de productos sin confirmar o que esperan a transacciones anteriores")
+				.register(meterRegistry);
+		Gauge.builder("productos.cambios.suscriptores", notifications, Sinks.Many::currentSubscriberCount)
+				.description("Consumidores conectados al flujo de cambios de productos").register(meterRegistry);
+	}
+
+	/**
+	 * Obtiene la última secuencia guardada.
+	 */
+	@PostConstruct
+	void start() {
+		Long first = changeRepo.findFirstSequence();
+		Long last = changeRepo.findLastSequence();
+		purgedUpTo = first == null ? 0 : first - 1;
+		lastSequence = last == null ? 0 : last;
+	}
+
+	/**
+	 * Avisa el fin del flujo a los consumidores conectados al detener la aplicación.
+	 */
+	@EventListener(ContextClosedEvent.class)
+	public void stop() {
+		notifications.tryEmitComplete();
+	}
+
+	/**
+	 * Guarda un cambio sobre un producto en la transacción que lo realiza. Los
+	 * cambios realizados fuera de una transacción se guardan en una propia.
+	 * @param event El cambio realizado.
+	 */
+	@EventListener
+	public void onProductChange(ProductChangeEvent event) {
+		ProductChange change = toChange(event, Instant.now());
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			save(change);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					completed(change, status);
+				}
+			});
+			return;
+		}
+		try {
+			new TransactionTemplate(transactionManager).executeWithoutResult(status -> save(change));
+		} catch (RuntimeException e) {
+			completed(change, TransactionSynchronization.STATUS_ROLLED_BACK);
+			throw e;
+		}
+		completed(change, TransactionSynchronization.STATUS_COMMITTED);
+	}
+
+	/**
+	 * Obtiene los cambios posteriores a una secuencia.
+	 * @param since La secuencia del último cambio recibido, o 0 para obtener el historial desde el principio.
+	 * @param limit La cantidad máxima de cambios, como máximo {@value #MAX_PAGE_SIZE}.
+	 * @return Los cambios en orden de secuencia y el valor a enviar en la consulta siguiente.
+	 * @throws ResponseStatusException - Con el código 410 si los cambios posteriores a la secuencia ya no se conservan
+	 *                                   o si la secuencia es posterior al último cambio, por ejemplo luego de
+	 *                                   reiniciar una Base de Datos en memoria.
+	 */
+	public ProductChangePage getChangesSince(long since, int limit) throws ResponseStatusException {
+		checkSequence(since);
+		int size = Math.min(limit, MAX_PAGE_SIZE);
+		long last = lastSequence;
+		List<ProductChange> changes = since >= last ? List.of() : recentChangesSince(since, size);
+		if (changes == null) {
+			changes = changeRepo.findAllBetween(since, last, PageRequest.of(0, size));
+		}
+		return new ProductChangePage(changes, changes.isEmpty() ? since : changes.get(changes.size() - 1).getSecuencia());
+	}
+
+	/**
+	 * Obtiene los cambios posteriores a una secuencia, esperando hasta un tiempo
+	 * máximo a que ocurra alguno si todavía no hay cambios.
+	 * @param since La secuencia del último cambio recibido.
+	 * @param limit La cantidad máxima de cambios, como máximo {@value #MAX_PAGE_SIZE}.
+	 * @param wait El tiempo máximo de espera.
+	 * @return Los cambios obtenidos, vacíos si no ocurrió ninguno durante la espera.
+	 * @throws ResponseStatusException - Con el código 410 en los mismos casos que {@link #getChangesSince(long, int)}.
+	 */
+	public Mono<ProductChangePage> awaitChangesSince(long since, int limit, Duration wait)
+			throws ResponseStatusException {
+		checkSequence(since);
+		if (wait.isZero() || since < lastSequence) {
+			return Mono.fromCallable(() -> getChangesSince(since, limit)).subscribeOn(Schedulers.boundedElastic());
+		}
+		// se suscribe a los avisos antes de leer la última secuencia, para no perder un cambio entre ambos
+		return Flux.merge(notifications.asFlux(), Mono.fromSupplier(() -> lastSequence))
+				.filter(sequence -> sequence > since).next()
+				.timeout(wait, Mono.just(since))
+				.publishOn(Schedulers.boundedElastic())
+				.map(sequence -> getChangesSince(since, limit));
+	}
+
+	/**
+	 * Transmite los cambios posteriores a una secuencia: primero los ya guardados y
+	 * luego cada cambio nuevo a medida que se guarda. Los cambios se buscan en
+	 * otro hilo, por lo que un consumidor lento no demora a los demás ni a las
+	 * escrituras.
+	 * @param since La secuencia del último cambio recibido, o null para recibir solo los cambios nuevos.
+	 * @return Los cambios en orden de secuencia. El flujo termina con un error si el consumidor se atrasa
+	 *         hasta que sus cambios dejan de conservarse.
+	 * @throws ResponseStatusException - Con el código 410 en los mismos casos que {@link #getChangesSince(long, int)}.
+	 */
+	public Flux<ProductChange> streamChangesSince(Long since) throws ResponseStatusException {
+		long start = since == null ? lastSequence : since;
+		checkSequence(start);
+		return Flux.defer(() -> {
+			ChangeCursor cursor = new ChangeCursor(start);
+			// el primer aviso envía los cambios ya guardados, los siguientes se combinan si el consumidor está ocupado
+			return Flux.merge(notifications.asFlux(), Mono.just(start))
+					.onBackpressureLatest()
+					.publishOn(Schedulers.boundedElastic(), 1)
+					.concatMap(sequence -> cursor.pending(), 1);
+		});
+	}
+
+	/**
+	 * Obtiene la secuencia del último cambio guardado.
+	 */
+	public long getLastSequence() {
+		return lastSequence;
+	}
+
+	/**
+	 * Elimina los cambios más antiguos que la retención configurada.
+	 * @return La cantidad de cambios eliminados.
+	 */
+	@Scheduled(initialDelayString = "${productos.cambios.limpieza:3600000}", fixedDelayString = "${productos.cambios.limpieza:3600000}")
+	public int purgeExpiredChanges() {
+		int deleted = changeRepo.deleteOlderThan(Instant.now().minus(retention), lastSequence);
+		if (deleted > 0) {
+			Long first = changeRepo.findFirstSequence();
+			if (first != null) {
+				purgedUpTo = first - 1;
+			}
+			log.info("Se eliminaron {} cambios de productos del historial", deleted);
+		}
+		return deleted;
+	}
+
+	private void checkSequence(long since) throws ResponseStatusException {
+		if (since < purgedUpTo) {
+			throw new ResponseStatusException(HttpStatus.GONE,
+					"Los cambios posteriores a la secuencia recibida ya no se conservan, vuelva a obtener el catalogo");
+		}
+		if (since > lastSequence) {
+			throw new ResponseStatusException(HttpStatus.GONE,
+					"La secuencia recibida es posterior al ultimo cambio, vuelva a obtener el catalogo");
+		}
+	}
+
+	/**
+	 * Obtiene de memoria los cambios posteriores a una secuencia.
+	 * @return Los cambios, o null si alguno de ellos ya no está en memoria.
+	 */
+	private List<ProductChange> recentChangesSince(long since, int size) {
+		synchronized (recent) {
+			if (recent.isEmpty() || since < recent.peekFirst().getSecuencia()) {
+				return null;
+			}
+			List<ProductChange> changes = new ArrayList<>();
+			// los consumidores al día piden los últimos cambios, por lo que se recorren desde el final
+			Iterator<ProductChange> it = recent.descendingIterator();
+			while (it.hasNext()) {
+				ProductChange change = it.next();
+				if (change.getSecuencia() <= since) {
+					break;
+				}
+				changes.add(change);
+			}
+			Collections.reverse(changes);
+			return changes.size() > size ? new ArrayList<>(changes.subList(0, size)) : changes;
+		}
+	}
+
+	/**
+	 * Guarda un cambio, asignándole la secuencia siguiente, y lo registra como en
+	 * curso. La secuencia se asigna con el bloqueo tomado, para que ninguna
+	 * secuencia anterior quede fuera de las transacciones en curso.
+	 */
+	private void save(ProductChange change) {
+		synchronized (recent) {
+			changeRepo.save(change);
+			inProgress.add(change.getSecuencia());
+			pending = inProgress.size() + confirmed.size();
+		}
+	}
+
+	/**
+	 * Registra el fin de la transacción de un cambio. Los cambios confirmados sin
+	 * transacciones anteriores en curso pasan a estar visibles, se agregan a los
+	 * cambios en memoria y se avisan a los consumidores.
+	 */
+	private void completed(ProductChange change, int status) {
+		long visible;
+		synchronized (recent) {
+			// un cambio que no llegó a guardarse no tiene transacción en curso
+			if (change.getSecuencia() == null || !inProgress.remove(change.getSecuencia())) {
+				return;
+			}
+			if (status == TransactionSynchronization.STATUS_COMMITTED) {
+				confirmed.put(change.getSecuencia(), change);
+			} else if (status == TransactionSynchronization.STATUS_UNKNOWN) {
+				// el cambio puede haberse guardado, por lo que los cambios en memoria ya no están completos
+				recent.clear();
+			}
+			Map<Long, ProductChange> ready = inProgress.isEmpty() ? confirmed
+					: confirmed.headMap(inProgress.first(), false);
+			visible = lastSequence;
+			for (Iterator<ProductChange> it = ready.values().iterator(); it.hasNext();) {
+				ProductChange next = it.next();
+				it.remove();
+				if (recent.size() == memorySize) {
+					recent.pollFirst();
+				}
+				if (memorySize > 0) {
+					recent.addLast(next);
+				}
+				visible = next.getSecuencia();
+			}
+			pending = inProgress.size() + confirmed.size();
+			if (visible == lastSequence) {
+				return;
+			}
+			lastSequence = visible;
+		}
+		notifications.tryEmitNext(visible);
+	}
+
+	private static ProductChange toChange(ProductChangeEvent event, Instant date) {
+		ProductChange change = new ProductChange();
+		change.setTipo(switch (event.getType()) {
+		case CREATED -> ProductChange.Tipo.CREADO;
+		case UPDATED -> ProductChange.Tipo.ACTUALIZADO;
+		case DELETED -> ProductChange.Tipo.ELIMINADO;
+		});
+		change.setIdProducto(event.getId());
+		change.setFecha(date);
+		Product prod = event.getProduct();
+		if (prod != null) {
+			change.setNombre(prod.getNombre());
+			change.setDescripcion(prod.getDescripcion());
+			change.setPrecio(prod.getPrecio());
+			change.setCantidad(prod.getCantidad());
+			change.setVersion(prod.getVersion());
+		}
+		return change;
+	}
+
+	/**
+	 * Posición de un consumidor del flujo de cambios.
+	 */
+	private final class ChangeCursor {
+
+		private long last;
+
+		private boolean more;
+
+		ChangeCursor(long last) {
+			this.last = last;
+		}
+
+		/**
+		 * Obtiene los cambios que el consumidor todavía no recibió, de a páginas.
+		 */
+		Flux<ProductChange> pending() {
+			return Flux.defer(() -> {
+				ProductChangePage page = getChangesSince(last, MAX_PAGE_SIZE);
+				last = page.getSiguiente();
+				more = page.getCambios().size() == MAX_PAGE_SIZE;
+				return Flux.fromIterable(page.getCambios());
+			}).repeat(() -> more);
+		}
+	}
+}
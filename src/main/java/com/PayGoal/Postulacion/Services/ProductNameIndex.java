@@ -0,0 +1,243 @@
+package com.PayGoal.Postulacion.Services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.PayGoal.Postulacion.Events.ProductChangeEvent;
+import com.PayGoal.Postulacion.Repositories.ProductRepository;
+import com.PayGoal.Postulacion.Utilities.TextNormalizer;
+
+/**
+ * Índice en memoria de los nombres normalizados de los productos. Permite
+ * buscar por prefijo, recorriendo los nombres en orden, y por contenido,
+ * utilizando un índice de trigramas cuyas listas de productos también están
+ * ordenadas por nombre, para cortar la búsqueda al completar el límite. Se construye al iniciar la aplicación y se
+ * mantiene actualizado a partir de los eventos de cambio publicados por
+ * {@link ProductService}.
+ */
+@Component
+public class ProductNameIndex {
+
+	private static final int GRAM_LENGTH = 3;
+
+	// cada producto tiene una única entrada, compartida por las listas de todos sus trigramas
+	private final Map<Long, Entry> entriesById = new ConcurrentHashMap<>();
+
+	private final NavigableMap<String, Set<Long>> idsByName = new ConcurrentSkipListMap<>();
+
+	private final Map<String, Postings> postingsByGram = new ConcurrentHashMap<>();
+
+	@Autowired
+	ProductRepository productRepo;
+
+	/**
+	 * Reconstruye el índice a partir de los nombres guardados en la Base de Datos.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public synchronized void rebuild() {
+		entriesById.clear();
+		idsByName.clear();
+		postingsByGram.clear();
+		try (Stream<Object[]> names = productRepo.streamAllNormalizedNames()) {
+			names.forEach(row -> add((Long) row[0], (String) row[1]));
+		}
+	}
+
+	/**
+	 * Actualiza el índice a partir de un cambio sobre un producto.
+	 * @param event El cambio realizado.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public synchronized void onProductChange(ProductChangeEvent event) {
+		remove(event.getId());
+		if (event.getType() != ProductChangeEvent.Type.DELETED) {
+			add(event.getId(), TextNormalizer.normalize(event.getProduct().getNombre()));
+		}
+	}
+
+	/**
+	 * Busca los productos cuyo nombre normalizado comienza con el texto recibido.
+	 * @param text El texto a buscar.
+	 * @param limit La cantidad máxima de resultados.
+	 * @return Los ids de los productos encontrados, ordenados por nombre.
+	 */
+	public List<Long> findByPrefix(String text, int limit) {
+		String prefix = TextNormalizer.normalize(text);
+		List<Long> ids = new ArrayList<>();
+		for (Set<Long> sameName : idsByName.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+			for (Long id : sameName) {
+				if (ids.size() == limit) {
+					return ids;
+				}
+				ids.add(id);
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * Busca los productos cuyo nombre normalizado contiene el texto recibido. Los
+	 * textos más cortos que un trigrama recorren los nombres en orden hasta
+	 * completar el límite. Los demás intersectan las listas de sus trigramas,
+	 * ordenadas por nombre, desde la menos frecuente: cada lista salta al primer
+	 * producto no anterior al candidato, por lo que se recorren solo los productos
+	 * hasta completar el límite y no las listas completas.
+	 * @param text El texto a buscar.
+	 * @param limit La cantidad máxima de resultados.
+	 * @return Los ids de los productos encontrados, ordenados por nombre.
+	 */
+	public List<Long> findByContent(String text, int limit) {
+		String query = TextNormalizer.normalize(text);
+		if (query.length() < GRAM_LENGTH) {
+			return findInOrder(query, limit);
+		}
+		List<Postings> lists = new ArrayList<>();
+		for (String gram : grams(query)) {
+			Postings postings = postingsByGram.get(gram);
+			if (postings == null) {
+				return List.of();
+			}
+			lists.add(postings);
+		}
+		// la lista menos frecuente propone los candidatos y las demás los confirman o los adelantan
+		lists.sort(Comparator.comparingInt(postings -> postings.size));
+		NavigableSet<Entry> rarest = lists.get(0).entries;
+		List<Long> ids = new ArrayList<>();
+		Iterator<Entry> first = rarest.iterator();
+		Entry candidate = first.hasNext() ? first.next() : null;
+		while (candidate != null && ids.size() < limit) {
+			Entry next = candidate;
+			for (int i = 1; i < lists.size() && next.equals(candidate); i++) {
+				next = lists.get(i).entries.ceiling(candidate);
+				if (next == null) {
+					return ids;
+				}
+			}
+			if (!next.equals(candidate)) {
+				candidate = rarest.ceiling(next);
+				continue;
+			}
+			// los trigramas pueden estar en otro orden, por lo que se verifica el texto completo
+			if (candidate.name.contains(query)) {
+				ids.add(candidate.id);
+			}
+			candidate = rarest.higher(candidate);
+		}
+		return ids;
+	}
+
+	private List<Long> findInOrder(String query, int limit) {
+		List<Long> ids = new ArrayList<>();
+		for (Map.Entry<String, Set<Long>> sameName : idsByName.entrySet()) {
+			if (!sameName.getKey().contains(query)) {
+				continue;
+			}
+			for (Long id : sameName.getValue()) {
+				if (ids.size() == limit) {
+					return ids;
+				}
+				ids.add(id);
+			}
+		}
+		return ids;
+	}
+
+	private void add(Long id, String name) {
+		if (name == null) {
+			return;
+		}
+		Entry entry = new Entry(name, id);
+		entriesById.put(id, entry);
+		idsByName.computeIfAbsent(name, key -> new ConcurrentSkipListSet<>()).add(id);
+		for (String gram : grams(name)) {
+			postingsByGram.computeIfAbsent(gram, key -> new Postings()).add(entry);
+		}
+	}
+
+	private void remove(Long id) {
+		Entry entry = entriesById.remove(id);
+		if (entry == null) {
+			return;
+		}
+		Set<Long> ids = idsByName.get(entry.name);
+		if (ids != null) {
+			ids.remove(id);
+			if (ids.isEmpty()) {
+				idsByName.remove(entry.name);
+			}
+		}
+		for (String gram : grams(entry.name)) {
+			Postings postings = postingsByGram.get(gram);
+			if (postings != null && postings.remove(entry)) {
+				postingsByGram.remove(gram);
+			}
+		}
+	}
+
+	private static Set<String> grams(String text) {
+		Set<String> grams = new HashSet<>();
+		for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+			grams.add(text.substring(i, i + GRAM_LENGTH));
+		}
+		return grams;
+	}
+
+	/**
+	 * Nombre normalizado e id de un producto, ordenados por nombre y luego por id.
+	 */
+	private record Entry(String name, Long id) implements Comparable<Entry> {
+
+		@Override
+		public int compareTo(Entry other) {
+			int byName = name.compareTo(other.name);
+			return byName != 0 ? byName : id.compareTo(other.id);
+		}
+	}
+
+	/**
+	 * Productos que contienen un trigrama, ordenados por nombre. Se lleva la
+	 * cantidad aparte, ya que contar los elementos de la lista la recorre entera.
+	 * Solo se modifica con el bloqueo del índice tomado.
+	 */
+	private static final class Postings {
+
+		private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>();
+
+		private volatile int size;
+
+		void add(Entry entry) {
+			if (entries.add(entry)) {
+				size++;
+			}
+		}
+
+		/**
+		 * @return true si la lista quedó vacía.
+		 */
+		boolean remove(Entry entry) {
+			if (entries.remove(entry)) {
+				size--;
+			}
+			return size == 0;
+		}
+	}
+}
@@ -0,0 +1,412 @@
+package com.PayGoal.Postulacion.Services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.PayGoal.Postulacion.Events.ProductChangeEvent;
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Repositories.ProductRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Índice en memoria de los productos ordenados por (precio, id). Permite
+ * obtener el listado completo, páginas, rangos de precio y los productos más
+ * baratos o más caros sin consultar la Base de Datos. Se construye al iniciar
+ * la aplicación, se mantiene actualizado a partir de los eventos de cambio
+ * publicados por {@link ProductService} y se verifica periódicamente contra la
+ * Base de Datos, reconstruyéndose si difiere. Las reconstrucciones recorren la
+ * Base de Datos sin bloquear el índice, que sigue respondiendo con su estado
+ * anterior hasta reemplazarse.
+ * <p>
+ * Mientras no esté construido, o si se deshabilita con la propiedad
+ * "productos.indice-precios.habilitado", las consultas se resuelven en la Base
+ * de Datos.
+ */
+@Component
+public class ProductPriceIndex {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductPriceIndex.class);
+
+	// cantidad máxima de productos que difieren durante una verificación y se vuelven a comparar
+	private static final int MAX_RECHECKED = 1000;
+
+	private NavigableMap<PriceKey, Product> byPrice = new TreeMap<>();
+
+	private Map<Long, Product> byId = new HashMap<>();
+
+	/**
+	 * Los cambios recibidos mientras se reconstruye el índice, que se aplican
+	 * sobre el resultado antes de reemplazar el actual.
+	 */
+	private List<ProductChangeEvent> pendingChanges;
+
+	// las lecturas comparten el lock para devolver siempre un estado completo del índice
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final boolean enabled;
+
+	private final Counter inconsistencies;
+
+	private volatile boolean ready;
+
+	@Autowired
+	ProductRepository productRepo;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	public ProductPriceIndex(@Value("${productos.indice-precios.habilitado:true}") boolean enabled,
+			MeterRegistry meterRegistry) {
+		this.enabled = enabled;
+		this.inconsistencies = Counter.builder("productos.indice.precios.inconsistencias")
+				.description("Productos del indice de precios que no coincidian con la Base de Datos")
+				.register(meterRegistry);
+		Gauge.builder("productos.indice.precios.tamano", this, ProductPriceIndex::size)
+				.description("Cantidad de productos en el indice de precios").register(meterRegistry);
+	}
+
+	/**
+	 * Indica si el índice está construido y puede utilizarse en lugar de la Base de
+	 * Datos.
+	 * @return true si el índice está disponible.
+	 */
+	public boolean isReady() {
+		return ready;
+	}
+
+	/**
+	 * Reconstruye el índice a partir de los productos guardados en la Base de
+	 * Datos. Los productos se recorren sin bloquear el índice y los cambios
+	 * recibidos mientras tanto se vuelven a aplicar sobre el resultado. Aplicar
+	 * un cambio reemplaza el producto, por lo que repetir uno ya incluido en el
+	 * recorrido no altera el resultado.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		if (!enabled) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			pendingChanges = new ArrayList<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		NavigableMap<PriceKey, Product> newByPrice = new TreeMap<>();
+		Map<Long, Product> newById = new HashMap<>();
+		try {
+			readOnly().executeWithoutResult(status -> {
+				try (Stream<Product> products = productRepo.streamAllBy(Sort.by("id"))) {
+					products.forEach(prod -> add(newByPrice, newById, prod.copy()));
+				}
+			});
+		} catch (RuntimeException e) {
+			lock.writeLock().lock();
+			pendingChanges = null;
+			lock.writeLock().unlock();
+			throw e;
+		}
+		lock.writeLock().lock();
+		try {
+			pendingChanges.forEach(event -> apply(newByPrice, newById, event));
+			byPrice = newByPrice;
+			byId = newById;
+			pendingChanges = null;
+			ready = true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Actualiza el índice a partir de un cambio sobre un producto.
+	 * @param event El cambio realizado.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChange(ProductChangeEvent event) {
+		if (!enabled) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			if (pendingChanges != null) {
+				pendingChanges.add(event);
+			}
+			apply(byPrice, byId, event);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Verifica que el precio y la versión de cada producto del índice coincidan con
+	 * la Base de Datos, y reconstruye el índice en caso contrario. Los productos
+	 * que difieren se vuelven a comparar al terminar el recorrido, para no contar
+	 * los cambios confirmados que el índice todavía no había recibido.
+	 * @return La cantidad de productos que no coincidían.
+	 */
+	@Scheduled(initialDelayString = "${productos.indice-precios.verificacion:600000}", fixedDelayString = "${productos.indice-precios.verificacion:600000}")
+	public long verify() {
+		if (!ready) {
+			return 0;
+		}
+		long[] indexedIds = indexedIds();
+		// ambos recorridos están ordenados por Id, los productos del índice que no se recorren ya no existen
+		int[] next = { 0 };
+		long[] found = { 0 };
+		List<Long> differing = new ArrayList<>();
+		Consumer<Long> differs = id -> {
+			if (found[0]++ < MAX_RECHECKED) {
+				differing.add(id);
+			}
+		};
+		readOnly().executeWithoutResult(status -> {
+			try (Stream<Object[]> prices = productRepo.streamAllPrices()) {
+				prices.forEach(row -> {
+					Long id = (Long) row[0];
+					while (next[0] < indexedIds.length && indexedIds[next[0]] < id) {
+						differs.accept(indexedIds[next[0]++]);
+					}
+					if (next[0] < indexedIds.length && indexedIds[next[0]] == id) {
+						next[0]++;
+					}
+					if (!matches(id, (Long) row[1], (Long) row[2])) {
+						differs.accept(id);
+					}
+				});
+			}
+		});
+		while (next[0] < indexedIds.length) {
+			differs.accept(indexedIds[next[0]++]);
+		}
+		// si difieren demasiados productos no se vuelven a comparar
+		long total = found[0] > MAX_RECHECKED ? found[0] : recheck(differing);
+		if (total > 0) {
+			log.warn("El indice de precios difiere de la Base de Datos en {} productos, se reconstruye", total);
+			inconsistencies.increment(total);
+			rebuild();
+		}
+		return total;
+	}
+
+	/**
+	 * Vuelve a comparar con la Base de Datos los productos que diferían.
+	 * @return La cantidad de productos que siguen sin coincidir.
+	 */
+	private long recheck(List<Long> ids) {
+		if (ids.isEmpty()) {
+			return 0;
+		}
+		Map<Long, Product> saved = readOnly().execute(status -> productRepo.findAllById(ids).stream()
+				.collect(Collectors.toMap(Product::getId, Function.identity())));
+		return ids.stream().filter(id -> {
+			Product prod = saved.get(id);
+			return prod == null ? contains(id) : !matches(id, prod.getPrecioCentavos(), prod.getVersion());
+		}).count();
+	}
+
+	private long[] indexedIds() {
+		lock.readLock().lock();
+		long[] ids;
+		try {
+			ids = byId.keySet().stream().mapToLong(Long::longValue).toArray();
+		} finally {
+			lock.readLock().unlock();
+		}
+		Arrays.sort(ids);
+		return ids;
+	}
+
+	private boolean contains(Long id) {
+		lock.readLock().lock();
+		try {
+			return byId.containsKey(id);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private boolean matches(Long id, Long price, Long version) {
+		lock.readLock().lock();
+		try {
+			Product indexed = byId.get(id);
+			return indexed != null && Objects.equals(indexed.getPrecioCentavos(), price)
+					&& Objects.equals(indexed.getVersion(), version);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private TransactionTemplate readOnly() {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.setReadOnly(true);
+		return transaction;
+	}
+
+	/**
+	 * Obtiene todos los productos ordenados por (precio, id).
+	 * @param direction La dirección de ordenamiento.
+	 * @return Los productos ordenados.
+	 */
+	public List<Product> findAll(Direction direction) {
+		lock.readLock().lock();
+		try {
+			return new ArrayList<>(ordered(byPrice, direction).values());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene los productos ordenados por (precio, id) que siguen a una posición.
+	 * @param direction La dirección de ordenamiento.
+	 * @param price El precio de la posición en centavos, o null para comenzar desde el primero.
+	 * @param id El Id de la posición.
+	 * @param limit La cantidad máxima de productos.
+	 * @return Los productos siguientes a la posición, sin incluirla.
+	 */
+	public List<Product> findAfter(Direction direction, Long price, Long id, int limit) {
+		lock.readLock().lock();
+		try {
+			NavigableMap<PriceKey, Product> after = ordered(byPrice, direction);
+			if (price != null) {
+				after = after.tailMap(new PriceKey(price, id), false);
+			}
+			return first(after, limit);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene los productos cuyo precio se encuentra dentro de un rango, ordenados
+	 * por (precio, id). Sin límites de precio devuelve los productos más baratos o
+	 * más caros según la dirección.
+	 * @param min El precio mínimo en centavos, inclusive, o null para no limitarlo.
+	 * @param max El precio máximo en centavos, inclusive, o null para no limitarlo.
+	 * @param direction La dirección de ordenamiento.
+	 * @param limit La cantidad máxima de productos.
+	 * @return Los productos del rango.
+	 */
+	public List<Product> findInRange(Long min, Long max, Direction direction, int limit) {
+		lock.readLock().lock();
+		try {
+			NavigableMap<PriceKey, Product> range = byPrice;
+			if (min != null) {
+				range = range.tailMap(new PriceKey(min, Long.MIN_VALUE), true);
+			}
+			if (max != null) {
+				range = range.headMap(new PriceKey(max, Long.MAX_VALUE), true);
+			}
+			return first(ordered(range, direction), limit);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Recorre todos los productos ordenados por (precio, id). Los productos se
+	 * obtienen del índice antes de recorrerlos, por lo que la acción puede demorar
+	 * sin bloquear las actualizaciones del índice.
+	 * @param direction La dirección de ordenamiento.
+	 * @param consumer La acción a ejecutar sobre cada producto, en orden.
+	 */
+	public void forEach(Direction direction, Consumer<Product> consumer) {
+		findAll(direction).forEach(consumer);
+	}
+
+	/**
+	 * Obtiene la cantidad de productos del índice.
+	 * @return La cantidad de productos.
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return byId.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private static void apply(NavigableMap<PriceKey, Product> byPrice, Map<Long, Product> byId,
+			ProductChangeEvent event) {
+		Product prod = byId.remove(event.getId());
+		if (prod != null) {
+			byPrice.remove(new PriceKey(prod.getPrecioCentavos(), prod.getId()));
+		}
+		if (event.getType() != ProductChangeEvent.Type.DELETED) {
+			add(byPrice, byId, event.getProduct());
+		}
+	}
+
+	private static void add(NavigableMap<PriceKey, Product> byPrice, Map<Long, Product> byId, Product prod) {
+		byId.put(prod.getId(), prod);
+		byPrice.put(new PriceKey(prod.getPrecioCentavos(), prod.getId()), prod);
+	}
+
+	private static NavigableMap<PriceKey, Product> ordered(NavigableMap<PriceKey, Product> map, Direction direction) {
+		return direction.isAscending() ? map : map.descendingMap();
+	}
+
+	private static List<Product> first(NavigableMap<PriceKey, Product> map, int limit) {
+		List<Product> products = new ArrayList<>();
+		for (Product prod : map.values()) {
+			if (products.size() == limit) {
+				break;
+			}
+			products.add(prod);
+		}
+		return products;
+	}
+
+	/**
+	 * Clave de ordenamiento del índice, equivalente al índice (precio, id) de la
+	 * Base de Datos. El precio se compara en centavos.
+	 */
+	private static final class PriceKey implements Comparable<PriceKey> {
+
+		private final long price;
+
+		private final long id;
+
+		PriceKey(long price, long id) {
+			this.price = price;
+			this.id = id;
+		}
+
+		@Override
+		public int compareTo(PriceKey other) {
+			int byPrice = Long.compare(price, other.price);
+			return byPrice != 0 ? byPrice : Long.compare(id, other.id);
+		}
+	}
+}
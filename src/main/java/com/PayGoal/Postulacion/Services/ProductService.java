@@ -1,54 +1,449 @@
 package com.PayGoal.Postulacion.Services;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.PayGoal.Postulacion.Events.ProductChangeEvent;
+import com.PayGoal.Postulacion.Models.CacheStatistics;
+import com.PayGoal.Postulacion.Models.CatalogStatistics;
 import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Models.ProductBatchResult;
+import com.PayGoal.Postulacion.Models.ProductChange;
+import com.PayGoal.Postulacion.Models.ProductChangePage;
+import com.PayGoal.Postulacion.Models.ProductFilter;
+import com.PayGoal.Postulacion.Models.ProductLookup;
+import com.PayGoal.Postulacion.Models.ProductPage;
+import com.PayGoal.Postulacion.Models.ProductSlice;
+import com.PayGoal.Postulacion.Models.StockReservation;
 import com.PayGoal.Postulacion.Repositories.ProductRepository;
+import com.PayGoal.Postulacion.Repositories.ProductSpecifications;
+import com.PayGoal.Postulacion.Utilities.NotFoundException;
+import com.PayGoal.Postulacion.Utilities.PriceCursor;
+import com.PayGoal.Postulacion.Utilities.Prices;
+import com.PayGoal.Postulacion.Utilities.ProductFields;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Service
 public class ProductService {
 
+	/**
+	 * Cantidad máxima de productos que se devuelven en una página del listado
+	 * ordenado por precio.
+	 */
+	public static final int MAX_PAGE_SIZE = 100;
+
+	/**
+	 * Cantidad máxima de productos que se aceptan en una carga por lotes.
+	 */
+	public static final int MAX_BATCH_SIZE = 10000;
+
+	/**
+	 * Cantidad máxima de Ids que se aceptan en una consulta de varios productos.
+	 */
+	public static final int MAX_LOOKUP_SIZE = 1000;
+
+	/**
+	 * Cantidad de Ids que se envían en cada consulta "in" a la Base de Datos, para
+	 * no armar sentencias con miles de parámetros.
+	 */
+	private static final int LOOKUP_CHUNK_SIZE = 500;
+
+	/**
+	 * Campos por los que se pueden ordenar los productos filtrados.
+	 */
+	public static final Set<String> FILTER_SORT_FIELDS = Set.of("precio", "cantidad", "nombre", "id");
+
 	@Autowired
 	ProductRepository productRepo;
 
+	@PersistenceContext
+	EntityManager entityManager;
+
+	@Autowired
+	Validator validator;
+
+	@Autowired
+	ProductCache productCache;
+
+	@Autowired
+	ProductNameIndex productNameIndex;
+
+	@Autowired
+	ProductPriceIndex productPriceIndex;
+
+	@Autowired
+	FlashSaleStock flashSaleStock;
+
+	@Autowired
+	ProductSnapshot productSnapshot;
+
+	@Autowired
+	ProductWriteBehind writeBehind;
+
+	@Autowired
+	ProductChangeLog changeLog;
+
+	@Autowired
+	ProductStatistics productStatistics;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+	int jdbcBatchSize;
+
+	// evita que el stock en memoria del modo ráfaga se devuelva a la Base de Datos mientras se reemplaza
+	private final Object flashSaleLock = new Object();
+
+	// distribuciones del tamaño de los resultados por operación, para no buscarlas en el registro en cada consulta
+	private final ConcurrentMap<String, DistributionSummary> resultSizes = new ConcurrentHashMap<>();
+
 	/**
-	 * Obtiene todos los productos de la Base de datos ordenados según su precio.
+	 * Obtiene todos los productos de la Base de datos ordenados según su precio (y
+	 * su Id en caso de empate). Se resuelve sobre el índice de precios en memoria
+	 * mientras esté disponible.
 	 * @param direction la dirección en la cual ordenar los productos.
 	 * @return Una Lista con todos los productos ordenados de la Base de Datos.
 	 * @throws ResponseStatusException - En caso de que no se encuentre ningún producto.
 	 */
 	public List<Product> getAllProductsOrderedByPrice(Direction direction) throws ResponseStatusException {
-		List<Product> products = new ArrayList<Product>();
-		productRepo.findAll(Sort.by(direction, "precio")).forEach(products::add);
+		List<Product> products;
+		if (productPriceIndex.isReady()) {
+			products = productPriceIndex.findAll(direction);
+		} else {
+			products = new ArrayList<Product>();
+			productRepo.findAll(Sort.by(direction, "precio", "id")).forEach(products::add);
+		}
+		recordResultSize("listado", products.size());
+		if (products.isEmpty()) {
+			throw new NotFoundException("No se ha encontrado ningun producto en la base de datos");
+		}
+		return products;
+	}
+
+	/**
+	 * Obtiene solo algunos campos de todos los productos ordenados según su precio
+	 * (y su Id en caso de empate). Se resuelve sobre el índice de precios en
+	 * memoria mientras esté disponible; si no, la consulta a la Base de Datos
+	 * selecciona solo las columnas de esos campos.
+	 * @param direction la dirección en la cual ordenar los productos.
+	 * @param fields Los campos a obtener, de {@link ProductFields#ALL}.
+	 * @return Los valores de los campos de cada producto, ordenados.
+	 * @throws ResponseStatusException - En caso de que no se encuentre ningún producto.
+	 */
+	public List<Map<String, Object>> getProductFieldsOrderedByPrice(Direction direction, List<String> fields)
+			throws ResponseStatusException {
+		List<Map<String, Object>> products = productPriceIndex.isReady()
+				? ProductFields.project(productPriceIndex.findAll(direction), fields)
+				: productRepo.findFieldsMatching(null, fields, Sort.by(direction, "precio", "id"), 0,
+						Integer.MAX_VALUE);
+		recordResultSize("listado", products.size());
+		if (products.isEmpty()) {
+			throw new NotFoundException("No se ha encontrado ningun producto en la base de datos");
+		}
+		return products;
+	}
+
+	/**
+	 * Obtiene una página de productos ordenados según su precio (y su Id en caso de
+	 * empate), comenzando después de la posición indicada por el cursor. El costo
+	 * de cada página es el mismo sin importar su profundidad, ya que la consulta
+	 * busca directamente sobre el índice (precio, id), en memoria mientras esté
+	 * disponible o en la Base de Datos.
+	 * @param direction la dirección en la cual ordenar los productos.
+	 * @param cursor el cursor devuelto por la página anterior, o null para obtener la primera.
+	 * @param pageSize la cantidad de productos de la página, como máximo {@value #MAX_PAGE_SIZE}.
+	 * @return Una página de productos junto al cursor de la página siguiente.
+	 * @throws ResponseStatusException - En caso de que el cursor sea inválido o de que no se encuentre ningún producto.
+	 */
+	public ProductPage getProductsPageOrderedByPrice(Direction direction, String cursor, int pageSize)
+			throws ResponseStatusException {
+		int size = Math.min(pageSize, MAX_PAGE_SIZE);
+		// se pide un producto extra para saber si existe una página siguiente
+		PageRequest pageRequest = PageRequest.of(0, size + 1, Sort.by(direction, "precio", "id"));
+		PriceCursor position = cursor == null ? null : decodeCursor(cursor, direction);
+		List<Product> products;
+		if (productPriceIndex.isReady()) {
+			products = position == null ? productPriceIndex.findAfter(direction, null, null, size + 1)
+					: productPriceIndex.findAfter(direction, position.getPrecio(), position.getId(), size + 1);
+		} else if (position == null) {
+			products = productRepo.findAllBy(pageRequest);
+		} else {
+			products = direction.isAscending()
+					? productRepo.findAllAfterPrice(position.getPrecio(), position.getId(), pageRequest)
+					: productRepo.findAllBeforePrice(position.getPrecio(), position.getId(), pageRequest);
+		}
+		if (position == null && products.isEmpty()) {
+			throw new NotFoundException("No se ha encontrado ningun producto en la base de datos");
+		}
+		recordResultSize("pagina", Math.min(products.size(), size));
+		if (products.size() <= size) {
+			return new ProductPage(products, null);
+		}
+		List<Product> page = products.subList(0, size);
+		Product last = page.get(size - 1);
+		return new ProductPage(new ArrayList<Product>(page),
+				new PriceCursor(direction, last.getPrecioCentavos(), last.getId()).encode());
+	}
+
+	/**
+	 * Recorre todos los productos de la Base de Datos ordenados según su precio. Si
+	 * el índice de precios está disponible se recorre el índice; si no, los
+	 * productos se leen por bloques desde el cursor de la Base de Datos, sin
+	 * cargarlos en memoria, y se desvinculan del contexto de persistencia una vez
+	 * entregados.
+	 * @param direction la dirección en la cual ordenar los productos.
+	 * @param consumer la acción a ejecutar sobre cada producto, en orden.
+	 */
+	@Transactional(readOnly = true)
+	public void exportAllProductsOrderedByPrice(Direction direction, Consumer<Product> consumer) {
+		long[] exported = { 0 };
+		if (productPriceIndex.isReady()) {
+			try {
+				productPriceIndex.forEach(direction, prod -> {
+					consumer.accept(prod);
+					exported[0]++;
+				});
+			} finally {
+				recordResultSize("exportacion", exported[0]);
+			}
+			return;
+		}
+		try (Stream<Product> products = productRepo.streamAllBy(Sort.by(direction, "precio", "id"))) {
+			products.forEach(prod -> {
+				entityManager.detach(prod);
+				consumer.accept(prod);
+				exported[0]++;
+			});
+		} finally {
+			recordResultSize("exportacion", exported[0]);
+		}
+	}
+
+	/**
+	 * Obtiene los productos cuyo precio se encuentra dentro de un rango, ordenados
+	 * según su precio (y su Id en caso de empate). Sin límites de precio devuelve
+	 * los productos más baratos, o los más caros en orden descendente. Se resuelve
+	 * sobre el índice de precios en memoria mientras esté disponible.
+	 * @param min El precio mínimo, inclusive, o null para no limitarlo.
+	 * @param max El precio máximo, inclusive, o null para no limitarlo.
+	 * @param direction la dirección en la cual ordenar los productos.
+	 * @param limit La cantidad máxima de resultados, como máximo {@value #MAX_PAGE_SIZE}.
+	 * @return Los productos del rango.
+	 * @throws ResponseStatusException - En caso de que el rango sea inválido o de que no se encuentre ningún producto.
+	 */
+	public List<Product> getProductsInPriceRange(BigDecimal min, BigDecimal max, Direction direction, int limit)
+			throws ResponseStatusException {
+		checkPriceRange(min, max);
+		int size = Math.min(limit, MAX_PAGE_SIZE);
+		// los precios guardados tienen dos decimales, por lo que redondear los límites hacia adentro no cambia el rango
+		Long minCents = Prices.toCentsCeiling(min);
+		Long maxCents = Prices.toCentsFloor(max);
+		List<Product> products = productPriceIndex.isReady()
+				? productPriceIndex.findInRange(minCents, maxCents, direction, size)
+				: productRepo.findAllInPriceRange(minCents, maxCents,
+						PageRequest.of(0, size, Sort.by(direction, "precio", "id")));
+		recordResultSize("rango", products.size());
 		if (products.isEmpty()) {
-			throw new ResponseStatusException(HttpStatus.NOT_FOUND,
-					"No se ha encontrado ningun producto en la base de datos");
+			throw new NotFoundException("No se ha encontrado ningun producto en el rango de precios solicitado");
 		}
 		return products;
 	}
 
 	/**
-	 * Obtiene un producto de la Base de Datos por su Id.
+	 * Obtiene una página de los productos que cumplen todos los criterios de un
+	 * filtro, ordenados por el campo recibido (y su Id en caso de empate). La
+	 * consulta se resuelve en la Base de Datos sobre los índices de precio y
+	 * cantidad, y no cuenta el total de coincidencias. Si se indican campos, solo
+	 * se seleccionan sus columnas.
+	 * @param filter Los criterios de filtrado.
+	 * @param sortField El campo por el cual ordenar, uno de {@link #FILTER_SORT_FIELDS}.
+	 * @param direction la dirección en la cual ordenar los productos.
+	 * @param page El número de página, comenzando en 0.
+	 * @param pageSize la cantidad de productos de la página, como máximo {@value #MAX_PAGE_SIZE}.
+	 * @param fields Los campos a obtener, de {@link ProductFields#ALL}, o null para obtener los productos completos.
+	 * @return Una página de productos junto al número de la página siguiente.
+	 * @throws ResponseStatusException - En caso de que los criterios sean inválidos o de que no se encuentre ningún producto.
+	 */
+	public ProductSlice getFilteredProducts(ProductFilter filter, String sortField, Direction direction, int page,
+			int pageSize, List<String> fields) throws ResponseStatusException {
+		checkPriceRange(filter.getPrecioMinimo(), filter.getPrecioMaximo());
+		String field = sortField.toLowerCase(Locale.ROOT);
+		if (!FILTER_SORT_FIELDS.contains(field)) {
+			throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+					"El campo de ordenamiento solicitado no existe");
+		}
+		int size = Math.min(pageSize, MAX_PAGE_SIZE);
+		Sort sort = field.equals("id") ? Sort.by(direction, "id") : Sort.by(direction, field, "id");
+		// se pide un producto extra para saber si existe una página siguiente
+		Specification<Product> spec = ProductSpecifications.matching(filter);
+		List<?> products = fields == null ? productRepo.findAllMatching(spec, sort, (long) page * size, size + 1)
+				: productRepo.findFieldsMatching(spec, fields, sort, (long) page * size, size + 1);
+		recordResultSize("filtro", Math.min(products.size(), size));
+		if (page == 0 && products.isEmpty()) {
+			throw new NotFoundException("No se ha encontrado ningun producto que cumpla con los filtros solicitados");
+		}
+		if (products.size() <= size) {
+			return new ProductSlice(products, page, null);
+		}
+		return new ProductSlice(new ArrayList<>(products.subList(0, size)), page, page + 1);
+	}
+
+	private void checkPriceRange(BigDecimal min, BigDecimal max) throws ResponseStatusException {
+		if (min != null && max != null && min.compareTo(max) > 0) {
+			throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+					"El precio minimo no puede ser mayor al precio maximo");
+		}
+	}
+
+	/**
+	 * Escribe un snapshot CSV de todos los productos, ordenados por Id.
+	 * @param writer El destino del snapshot.
+	 * @return La cantidad de productos escritos.
+	 * @throws IOException - En caso de que no se pueda escribir en el destino.
+	 */
+	public long exportSnapshot(Writer writer) throws IOException {
+		return productSnapshot.exportTo(writer);
+	}
+
+	/**
+	 * Importa un snapshot CSV de productos en la Base de Datos, conservando sus Ids.
+	 * Solo debe utilizarse al iniciar la aplicación con la Base de Datos vacía.
+	 * @param file El archivo del snapshot, comprimido con gzip si su nombre termina en ".gz".
+	 * @return La cantidad de productos importados.
+	 * @throws IOException - En caso de que no se pueda leer el archivo o de que su formato sea inválido.
+	 */
+	public long importSnapshot(Path file) throws IOException {
+		return productSnapshot.importFrom(file);
+	}
+
+	/**
+	 * Cuenta los productos de la Base de Datos.
+	 * @return La cantidad de productos.
+	 */
+	public long countProducts() {
+		return productRepo.count();
+	}
+
+	private PriceCursor decodeCursor(String cursor, Direction direction) throws ResponseStatusException {
+		try {
+			PriceCursor position = PriceCursor.decode(cursor);
+			if (position.getDirection() == direction) {
+				return position;
+			}
+		} catch (IllegalArgumentException e) {
+			// se informa igual que un cursor de otra dirección
+		}
+		throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "El cursor recibido es invalido");
+	}
+
+	/**
+	 * Obtiene un producto de la Base de Datos por su Id. Con la escritura diferida
+	 * habilitada incluye los cambios del producto que todavía no se guardaron.
 	 * @param productId El parámetro de búsqueda.
 	 * @return El producto obtenido.
 	 * @throws ResponseStatusException - En caso de que no se encuentre un producto con ese Id.
 	 */
 	public Product getProductById(Long productId) throws ResponseStatusException {
-		Optional<Product> prod = productRepo.findById(productId);
-		if (prod.isEmpty()) {
-			throw new ResponseStatusException(HttpStatus.NOT_FOUND,
-					"No se ha encontrado un producto con el id: '" + productId + "'");
+		Product prod = writeBehind.read(productId, this::findProduct);
+		if (prod == null) {
+			throw NotFoundException.forProduct(productId);
 		}
-		return prod.get();
+		return prod;
+	}
+
+	private Product findProduct(Long productId) {
+		return productCache.getById(productId, id -> productRepo.findById(id).orElse(null));
+	}
+
+	/**
+	 * Obtiene varios productos de la Base de Datos por sus Ids. Los productos que
+	 * no están en el caché se buscan con consultas "in" de hasta
+	 * {@value #LOOKUP_CHUNK_SIZE} Ids, en lugar de una consulta por producto. Con
+	 * la escritura diferida habilitada incluye los cambios que todavía no se
+	 * guardaron.
+	 * @param productIds Los Ids a buscar, como máximo {@value #MAX_LOOKUP_SIZE}. Los repetidos se buscan una sola vez.
+	 * @return Los productos encontrados, en el orden de los Ids recibidos, y los Ids que no existen.
+	 */
+	public ProductLookup getProductsByIds(List<Long> productIds) {
+		Set<Long> ids = productIds.stream().filter(Objects::nonNull)
+				.collect(Collectors.toCollection(LinkedHashSet::new));
+		Map<Long, Product> found = productCache.getAllById(ids, this::findProducts);
+		ProductLookup lookup = new ProductLookup();
+		for (Long id : ids) {
+			Product prod = writeBehind.read(id, found::get);
+			if (prod == null) {
+				lookup.getFaltantes().add(id);
+			} else {
+				lookup.getProductos().add(prod);
+			}
+		}
+		recordResultSize("ids", lookup.getProductos().size());
+		return lookup;
+	}
+
+	private Map<Long, Product> findProducts(Set<Long> productIds) {
+		List<Long> ids = new ArrayList<>(productIds);
+		Map<Long, Product> found = new HashMap<>(ids.size() * 2);
+		for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK_SIZE) {
+			productRepo.findAllById(ids.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, ids.size())))
+					.forEach(prod -> found.put(prod.getId(), prod));
+		}
+		return found;
 	}
 
 	/**
@@ -58,48 +453,459 @@ public class ProductService {
 	 * @throws ResponseStatusException - En caso de que no se encuentre ningún producto con ese nombre.
 	 */
 	public List<Product> getProductsByName(String productName) throws ResponseStatusException{
-		List<Product> products = new ArrayList<Product>();
-		productRepo.findAllByNombre(productName).forEach(products::add);
+		List<Product> products = productCache.getByName(productName, name -> {
+			List<Product> found = new ArrayList<Product>();
+			productRepo.findAllByNombre(name).forEach(found::add);
+			return found;
+		});
+		recordResultSize("nombre", products.size());
+		if (products.isEmpty()) {
+			throw new NotFoundException("No se ha encontrado ningun producto con el nombre '"+productName+"'");
+		}
+		return products;
+	}
+
+	/**
+	 * Busca productos cuyo nombre comience con, o contenga, el texto recibido, sin
+	 * distinguir mayúsculas ni acentos. La búsqueda se resuelve sobre el índice de
+	 * nombres en memoria y solo se consultan en la Base de Datos los productos
+	 * encontrados.
+	 * @param text El texto a buscar.
+	 * @param prefixOnly true para buscar por prefijo, false para buscar por contenido.
+	 * @param limit La cantidad máxima de resultados, como máximo {@value #MAX_PAGE_SIZE}.
+	 * @return Los productos encontrados, ordenados por nombre.
+	 * @throws ResponseStatusException - En caso de que no se encuentre ningún producto.
+	 */
+	public List<Product> searchProductsByName(String text, boolean prefixOnly, int limit)
+			throws ResponseStatusException {
+		int size = Math.min(limit, MAX_PAGE_SIZE);
+		List<Long> ids = prefixOnly ? productNameIndex.findByPrefix(text, size)
+				: productNameIndex.findByContent(text, size);
+		Map<Long, Product> found = productRepo.findAllById(ids).stream()
+				.collect(Collectors.toMap(Product::getId, Function.identity()));
+		List<Product> products = ids.stream().map(found::get).filter(prod -> prod != null).toList();
+		recordResultSize(prefixOnly ? "busqueda-prefijo" : "busqueda-contenido", products.size());
 		if (products.isEmpty()) {
-			throw new ResponseStatusException(HttpStatus.NOT_FOUND,
-					"No se ha encontrado ningun producto con el nombre '"+productName+"'");
+			throw new NotFoundException("No se ha encontrado ningun producto que coincida con '" + text + "'");
 		}
 		return products;
 	}
 
 	/**
-	 * Guarda un producto en la Base de Datos.
+	 * Guarda un producto en la Base de Datos, o lo agrega a la escritura diferida
+	 * si está habilitada.
 	 * @param prod El producto a Guardar.
 	 * @return Una copia del producto guardado.
+	 * @throws ResponseStatusException - En caso de que la cola de escritura diferida esté llena.
+	 */
+	public Product createProduct(Product prod) throws ResponseStatusException {
+		if (writeBehind.isEnabled()) {
+			return writeBehind.create(prod);
+		}
+		prod.setId(null);
+		// el cambio se registra en el historial en la misma transacción
+		return new TransactionTemplate(transactionManager).execute(status -> {
+			Product saved = productRepo.save(prod);
+			publishChange(ProductChangeEvent.Type.CREATED, saved);
+			return saved;
+		});
+	}
+
+	/**
+	 * Guarda o actualiza un lote de productos en la Base de Datos en una única
+	 * transacción. Los productos sin Id, o cuyo Id no existe, se crean y se validan
+	 * como en {@link #createProduct(Product)}; los productos con un Id existente se
+	 * actualizan como en {@link #updateProduct(Long, Product)}. Los productos
+	 * inválidos o nulos se descartan y se informan en el resultado sin afectar al
+	 * resto del lote. Las sentencias se envían en bloques del tamaño de lote de JDBC.
+	 * <p>
+	 * Con la escritura diferida habilitada, los cambios pendientes de los productos
+	 * del lote se guardan antes, para que al guardarse no sobrescriban el lote.
+	 * @param prods Los productos a guardar.
+	 * @return Los ids de los productos creados y actualizados, y los errores de validación por posición.
 	 */
-	public Product createProduct(Product prod) {
-		return productRepo.save(prod);
+	public ProductBatchResult createProducts(List<Product> prods) {
+		prods.forEach(prod -> {
+			if (prod != null && prod.getId() != null) {
+				writeBehind.flush(prod.getId());
+			}
+		});
+		// la transacción se abre luego, para que las escrituras diferidas se guarden en la suya
+		return new TransactionTemplate(transactionManager).execute(status -> createProductsNow(prods));
+	}
+
+	private ProductBatchResult createProductsNow(List<Product> prods) {
+		ProductBatchResult result = new ProductBatchResult();
+		for (int from = 0; from < prods.size(); from += jdbcBatchSize) {
+			List<Product> chunk = prods.subList(from, Math.min(from + jdbcBatchSize, prods.size()));
+			Set<Long> ids = chunk.stream().filter(Objects::nonNull).map(Product::getId).filter(id -> id != null)
+					.collect(Collectors.toSet());
+			Map<Long, Product> existing = productRepo.findAllById(ids).stream()
+					.collect(Collectors.toMap(Product::getId, Function.identity()));
+			List<Product> updated = new ArrayList<>();
+			for (int i = 0; i < chunk.size(); i++) {
+				Product prod = chunk.get(i);
+				if (prod == null) {
+					result.getErrores().put(from + i, Map.of("producto", "El producto no puede ser nulo"));
+					continue;
+				}
+				Product oldProd = prod.getId() == null ? null : existing.get(prod.getId());
+				Map<String, String> errors = validate(prod,
+						oldProd == null ? Product.OnCreateValidation.class : Product.OnUpdateValidation.class);
+				if (!errors.isEmpty()) {
+					result.getErrores().put(from + i, errors);
+				} else if (oldProd == null) {
+					prod.setId(null);
+					Product saved = productRepo.save(prod);
+					publishChange(ProductChangeEvent.Type.CREATED, saved);
+					result.getCreados().add(saved.getId());
+				} else {
+					oldProd.updateData(prod);
+					updated.add(oldProd);
+					result.getActualizados().add(oldProd.getId());
+				}
+			}
+			// se envía el bloque y se liberan las entidades para no acumular el lote en memoria
+			entityManager.flush();
+			// los cambios se publican luego del envío, cuando ya tienen su nueva versión
+			updated.forEach(prod -> publishChange(ProductChangeEvent.Type.UPDATED, prod));
+			// se envían también los cambios registrados en el historial antes de liberarlos
+			entityManager.flush();
+			entityManager.clear();
+		}
+		recordResultSize("lote", prods.size());
+		return result;
+	}
+
+	private Map<String, String> validate(Product prod, Class<?> group) {
+		Map<String, String> errors = new HashMap<>();
+		for (ConstraintViolation<Product> violation : validator.validate(prod, group)) {
+			errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+		}
+		return errors;
 	}
 
 	/**
-	 * Busca y actualiza un producto en la Base de Datos por su Id.
+	 * Busca y actualiza un producto en la Base de Datos por su Id. La actualización
+	 * se realiza de forma condicional sobre la versión leída, por lo que una
+	 * modificación concurrente del mismo producto hace fallar la operación en lugar
+	 * de ser sobrescrita.
+	 * <p>
+	 * Con la escritura diferida habilitada, las actualizaciones sin versión esperada
+	 * se agregan a la cola; las que verifican la versión se guardan en el momento y
+	 * fallan si el producto tiene cambios sin guardar, ya que su versión todavía no
+	 * se conoce.
+	 * <p>
+	 * Si se modifica la cantidad de un producto en modo ráfaga, su stock en memoria
+	 * se descarta, ya que la nueva cantidad lo reemplaza.
 	 * @param productId El parámetro de búsqueda.
 	 * @param newProd un objeto con los nuevos valores de los parámetros a actualizar.
+	 * @param expectedVersion la versión que se espera que tenga el producto, o null para no verificarla.
 	 * @return Una copia del producto actualizado.
-	 * @throws ResponseStatusException - En caso de que no se encuentre un producto con ese Id.
+	 * @throws ResponseStatusException - En caso de que no se encuentre un producto con ese Id, o de que su versión no sea la esperada.
+	 * @throws OptimisticLockingFailureException - En caso de que el producto sea modificado en simultáneo por otra operación.
 	 */
-	public Product updateProduct(Long productId, Product newProd) throws ResponseStatusException {
-		Product oldProd = getProductById(productId);
-		oldProd.updateData(newProd);
-		return productRepo.save(oldProd);
+	public Product updateProduct(Long productId, Product newProd, Long expectedVersion)
+			throws ResponseStatusException, OptimisticLockingFailureException {
+		if (newProd.getCantidad() == null) {
+			return updateProductData(productId, newProd, expectedVersion);
+		}
+		return replacingFlashSaleStock(productId, () -> updateProductData(productId, newProd, expectedVersion));
+	}
 
+	private Product updateProductData(Long productId, Product newProd, Long expectedVersion) {
+		if (writeBehind.isEnabled() && expectedVersion == null) {
+			return writeBehind.update(productId, newProd, this::findProduct);
+		}
+		if (writeBehind.hasPendingWrites(productId)) {
+			throw versionMismatch(productId);
+		}
+		// la transacción se abre solo aquí, para que las escrituras diferidas no ocupen una conexión
+		return new TransactionTemplate(transactionManager)
+				.execute(status -> updateProductNow(productId, newProd, expectedVersion));
+	}
+
+	private Product updateProductNow(Long productId, Product newProd, Long expectedVersion) {
+		// se lee de la Base de Datos y no del caché, ya que el producto va a ser modificado
+		Optional<Product> oldProd = productRepo.findById(productId);
+		if (oldProd.isEmpty()) {
+			throw NotFoundException.forProduct(productId);
+		}
+		if (expectedVersion != null && !expectedVersion.equals(oldProd.get().getVersion())) {
+			throw versionMismatch(productId);
+		}
+		oldProd.get().updateData(newProd);
+		Product saved = productRepo.saveAndFlush(oldProd.get());
+		publishChange(ProductChangeEvent.Type.UPDATED, saved);
+		return saved;
 	}
 
 	/**
-	 * Busca y elimina un producto por su Id.
+	 * Elimina un producto por su Id mediante una única sentencia condicional. Con
+	 * la escritura diferida habilitada se aplican las mismas reglas que en
+	 * {@link #updateProduct(Long, Product, Long)}, y el stock en memoria de un
+	 * producto en modo ráfaga se descarta.
 	 * @param productId El parámetro de búsqueda.
+	 * @param expectedVersion la versión que se espera que tenga el producto, o null para no verificarla.
 	 * @return true si se encuentra y elimina el producto. false si no hay ninguno con ese Id en la Base de Datos. 
+	 * @throws ResponseStatusException - En caso de que el producto exista pero su versión no sea la esperada.
 	 */
-	public boolean deleteProduct(Long productId) {
-		if (productRepo.findById(productId).isEmpty()) {
+	public boolean deleteProduct(Long productId, Long expectedVersion) throws ResponseStatusException {
+		return replacingFlashSaleStock(productId, () -> deleteProductData(productId, expectedVersion));
+	}
+
+	private boolean deleteProductData(Long productId, Long expectedVersion) {
+		if (writeBehind.isEnabled() && expectedVersion == null) {
+			return writeBehind.delete(productId, this::findProduct);
+		}
+		if (writeBehind.hasPendingWrites(productId)) {
+			throw versionMismatch(productId);
+		}
+		return new TransactionTemplate(transactionManager)
+				.execute(status -> deleteProductNow(productId, expectedVersion));
+	}
+
+	private boolean deleteProductNow(Long productId, Long expectedVersion) {
+		int deleted = expectedVersion == null ? productRepo.deleteProductById(productId)
+				: productRepo.deleteProductByIdAndVersion(productId, expectedVersion);
+		if (deleted == 0) {
+			if (expectedVersion != null && productRepo.existsById(productId)) {
+				throw versionMismatch(productId);
+			}
 			return false;
 		}
-		productRepo.deleteById(productId);
+		eventPublisher.publishEvent(new ProductChangeEvent(ProductChangeEvent.Type.DELETED, productId, null));
 		return true;
 	}
+
+	private ResponseStatusException versionMismatch(Long productId) {
+		return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+				"El producto con el id '" + productId + "' fue modificado y no coincide con la version esperada");
+	}
+
+	/**
+	 * Reserva stock de un producto descontándolo de forma atómica, sin permitir que
+	 * la cantidad disponible quede negativa. Para los productos en modo ráfaga la
+	 * reserva se resuelve en memoria y solo se accede a la Base de Datos para
+	 * retirar un nuevo bloque de stock, o para completar la reserva con el stock
+	 * de la Base de Datos cuando no queda para un bloque.
+	 * <p>
+	 * Con la escritura diferida habilitada, los cambios pendientes del producto se
+	 * guardan antes de reservar, para que un alta todavía no guardada exista y una
+	 * actualización de la cantidad no sobrescriba la reserva.
+	 * @param productId El Id del producto.
+	 * @param quantity La cantidad a reservar.
+	 * @return La reserva realizada junto al stock disponible.
+	 * @throws ResponseStatusException - En caso de que no se encuentre el producto o de que no haya stock suficiente.
+	 */
+	public StockReservation reserveStock(Long productId, long quantity) throws ResponseStatusException {
+		writeBehind.flush(productId);
+		return new TransactionTemplate(transactionManager).execute(status -> reserveStockNow(productId, quantity));
+	}
+
+	private StockReservation reserveStockNow(Long productId, long quantity) {
+		if (flashSaleStock.isEnabled(productId)) {
+			if (!flashSaleStock.tryReserve(productId, quantity)) {
+				reserveFlashSaleStock(productId, quantity);
+			}
+			return new StockReservation(productId, quantity, null);
+		}
+		if (productRepo.decrementStock(productId, quantity) == 0) {
+			throw insufficientStock(productId);
+		}
+		Product prod = productRepo.findById(productId).get();
+		publishChange(ProductChangeEvent.Type.UPDATED, prod);
+		return new StockReservation(productId, quantity, prod.getCantidad());
+	}
+
+	/**
+	 * Libera stock reservado de un producto sumándolo de forma atómica. Para los
+	 * productos en modo ráfaga el stock se devuelve a la memoria. Al igual que al
+	 * reservar, primero se guardan los cambios diferidos del producto.
+	 * @param productId El Id del producto.
+	 * @param quantity La cantidad a liberar.
+	 * @return La liberación realizada junto al stock disponible.
+	 * @throws ResponseStatusException - En caso de que no se encuentre el producto.
+	 */
+	public StockReservation releaseStock(Long productId, long quantity) throws ResponseStatusException {
+		writeBehind.flush(productId);
+		return new TransactionTemplate(transactionManager).execute(status -> releaseStockNow(productId, quantity));
+	}
+
+	private StockReservation releaseStockNow(Long productId, long quantity) {
+		if (flashSaleStock.isEnabled(productId)) {
+			if (!productRepo.existsById(productId)) {
+				throw NotFoundException.forProduct(productId);
+			}
+			afterCompletion(() -> addFlashSaleStock(productId, quantity, flashSaleStock.generation(productId)), null);
+			return new StockReservation(productId, quantity, null);
+		}
+		if (productRepo.incrementStock(productId, quantity) == 0) {
+			throw NotFoundException.forProduct(productId);
+		}
+		Product prod = productRepo.findById(productId).get();
+		publishChange(ProductChangeEvent.Type.UPDATED, prod);
+		return new StockReservation(productId, quantity, prod.getCantidad());
+	}
+
+	/**
+	 * Cubre una reserva en modo ráfaga que el stock en memoria no alcanza a cubrir.
+	 * Se retira un bloque de la Base de Datos, o si no queda stock para un bloque,
+	 * se junta el stock en memoria con el de la Base de Datos. El sobrante del
+	 * bloque pasa a memoria recién al confirmarse la transacción, y el stock
+	 * tomado de memoria se devuelve si no se confirma, salvo que mientras tanto se
+	 * haya reemplazado la cantidad del producto.
+	 */
+	private void reserveFlashSaleStock(Long productId, long quantity) {
+		long lease = flashSaleStock.leaseSize(quantity);
+		// se lee antes de retirar el bloque, para descartar el sobrante si luego se reemplaza la cantidad
+		long generation = flashSaleStock.generation(productId);
+		if (productRepo.decrementStock(productId, lease) > 0) {
+			afterCompletion(() -> addFlashSaleStock(productId, lease - quantity, generation), null);
+		} else {
+			long fromMemory = flashSaleStock.takeUpTo(productId, quantity);
+			afterCompletion(null, () -> addFlashSaleStock(productId, fromMemory, generation));
+			if (fromMemory == quantity) {
+				return;
+			}
+			if (productRepo.decrementStock(productId, quantity - fromMemory) == 0) {
+				throw insufficientStock(productId);
+			}
+		}
+		publishChange(ProductChangeEvent.Type.UPDATED, productRepo.findById(productId).get());
+	}
+
+	/**
+	 * Devuelve stock a la memoria de un producto en modo ráfaga, o a la Base de
+	 * Datos si la aplicación se está deteniendo.
+	 */
+	private void addFlashSaleStock(Long productId, long quantity, long generation) {
+		if (quantity > 0 && !flashSaleStock.add(productId, quantity, generation)) {
+			// puede ejecutarse al terminar otra transacción, por lo que se guarda en una nueva
+			TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+			transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+			transaction.executeWithoutResult(status -> flushFlashSaleStock());
+		}
+	}
+
+	/**
+	 * Realiza una operación que reemplaza la cantidad de un producto o lo elimina.
+	 * Si el producto está en modo ráfaga, antes se descarta su stock en memoria,
+	 * que se agrega nuevamente si la operación falla.
+	 */
+	private <T> T replacingFlashSaleStock(Long productId, Supplier<T> operation) {
+		if (!flashSaleStock.isEnabled(productId)) {
+			return operation.get();
+		}
+		synchronized (flashSaleLock) {
+			long discarded = flashSaleStock.reset(productId);
+			try {
+				return operation.get();
+			} catch (RuntimeException e) {
+				addFlashSaleStock(productId, discarded, flashSaleStock.generation(productId));
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Ejecuta una acción al confirmarse o al deshacerse la transacción actual.
+	 */
+	private static void afterCompletion(Runnable onCommit, Runnable onRollback) {
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				Runnable action = status == STATUS_COMMITTED ? onCommit : onRollback;
+				if (action != null) {
+					action.run();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Devuelve a la Base de Datos el stock en memoria de los productos en modo
+	 * ráfaga, con una sentencia por producto.
+	 */
+	@Scheduled(fixedDelayString = "${productos.stock.rafaga.intervalo:1000}")
+	public void flushFlashSaleStock() {
+		synchronized (flashSaleLock) {
+			TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+			flashSaleStock.drain().forEach((productId, quantity) -> transaction.executeWithoutResult(status -> {
+				if (productRepo.incrementStock(productId, quantity) > 0) {
+					productRepo.findById(productId)
+							.ifPresent(prod -> publishChange(ProductChangeEvent.Type.UPDATED, prod));
+				}
+			}));
+		}
+	}
+
+	/**
+	 * Devuelve a la Base de Datos el stock en memoria de los productos en modo
+	 * ráfaga al detener la aplicación, antes de que se cierre la Base de Datos.
+	 * Las reservas posteriores se resuelven directamente en la Base de Datos.
+	 */
+	@EventListener(ContextClosedEvent.class)
+	public void returnFlashSaleStock() {
+		flashSaleStock.close();
+		flushFlashSaleStock();
+	}
+
+	private ResponseStatusException insufficientStock(Long productId) {
+		if (!productRepo.existsById(productId)) {
+			return NotFoundException.forProduct(productId);
+		}
+		return new ResponseStatusException(HttpStatus.CONFLICT,
+				"No hay stock suficiente del producto con el id: '" + productId + "'");
+	}
+
+	/**
+	 * Obtiene las estadísticas de uso del caché de lectura de productos.
+	 * @return Las estadísticas del caché por Id y del caché por nombre.
+	 */
+	public Map<String, CacheStatistics> getCacheStatistics() {
+		return productCache.getStatistics();
+	}
+
+	/**
+	 * Obtiene las estadísticas del catálogo, mantenidas en memoria a medida que
+	 * los productos cambian.
+	 * @return La cantidad de productos y unidades, el valor del inventario y la distribución de precios.
+	 */
+	public CatalogStatistics getCatalogStatistics() {
+		return productStatistics.getStatistics();
+	}
+
+	/**
+	 * @see ProductChangeLog#awaitChangesSince(long, int, Duration)
+	 */
+	public Mono<ProductChangePage> awaitChangesSince(long since, int limit, Duration wait)
+			throws ResponseStatusException {
+		return changeLog.awaitChangesSince(since, limit, wait);
+	}
+
+	/**
+	 * @see ProductChangeLog#streamChangesSince(Long)
+	 */
+	public Flux<ProductChange> streamChangesSince(Long since) throws ResponseStatusException {
+		return changeLog.streamChangesSince(since);
+	}
+
+	/**
+	 * Registra la cantidad de productos devueltos o procesados por una operación,
+	 * para conocer la distribución del tamaño de las respuestas.
+	 */
+	private void recordResultSize(String operation, long size) {
+		resultSizes.computeIfAbsent(operation, key -> DistributionSummary.builder("productos.resultados")
+				.description("Cantidad de productos devueltos o procesados por operacion")
+				.baseUnit("productos")
+				.tag("operacion", key)
+				.publishPercentileHistogram()
+				.register(meterRegistry))
+				.record(size);
+	}
+
+	private void publishChange(ProductChangeEvent.Type type, Product prod) {
+		eventPublisher.publishEvent(new ProductChangeEvent(type, prod.getId(), prod.copy()));
+	}
 }
@@ -0,0 +1,143 @@
+package com.PayGoal.Postulacion.Services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Utilities.ProductCsv;
+import com.PayGoal.Postulacion.Utilities.TextNormalizer;
+
+/**
+ * Exportación e importación de snapshots CSV de todos los productos. La
+ * importación inserta las filas directamente por JDBC en lotes, sin pasar por
+ * JPA, por lo que sirve para iniciar rápidamente una Base de Datos vacía con un
+ * catálogo grande.
+ */
+@Component
+public class ProductSnapshot {
+
+	/**
+	 * Cantidad de filas que se envían en cada lote de la importación.
+	 */
+	private static final int IMPORT_BATCH_SIZE = 5000;
+
+	private static final String INSERT = "insert into product (id, nombre, descripcion, precio, cantidad, version, nombre_normalizado) values (?, ?, ?, ?, ?, ?, ?)";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Escribe todos los productos ordenados por Id en formato CSV, con su versión.
+	 * @param writer El destino del snapshot.
+	 * @return La cantidad de productos escritos.
+	 * @throws IOException - En caso de que no se pueda escribir en el destino.
+	 */
+	@Transactional(readOnly = true)
+	public long exportTo(Writer writer) throws IOException {
+		writer.write(ProductCsv.HEADER);
+		writer.write('\n');
+		long[] exported = { 0 };
+		try {
+			jdbcTemplate.query("select id, nombre, descripcion, precio, cantidad, version from product order by id",
+					rs -> {
+						try {
+							ProductCsv.writeRecord(writer, rs.getLong(1), rs.getString(2), rs.getString(3),
+									rs.getBigDecimal(4), rs.getObject(5), rs.getObject(6));
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+						exported[0]++;
+					});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		return exported[0];
+	}
+
+	/**
+	 * Importa un snapshot desde un archivo, descomprimiéndolo si su nombre termina
+	 * en ".gz".
+	 * @param file El archivo del snapshot.
+	 * @return La cantidad de productos importados.
+	 * @throws IOException - En caso de que no se pueda leer el archivo o de que su formato sea inválido.
+	 * @see #importFrom(Reader)
+	 */
+	@Transactional
+	public long importFrom(Path file) throws IOException {
+		try (InputStream in = Files.newInputStream(file)) {
+			InputStream data = file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in, 1 << 16) : in;
+			return importFrom(new InputStreamReader(data, StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * Importa un snapshot CSV conservando los Ids y versiones de los productos, y
+	 * ajusta la secuencia de Ids para que los productos creados luego no los
+	 * repitan. Está pensado para cargar una Base de Datos vacía antes de atender
+	 * peticiones: no publica eventos de cambio, por lo que el índice de nombres y
+	 * el caché deben construirse después de la importación.
+	 * @param reader El origen del snapshot, con el encabezado {@value ProductCsv#HEADER}.
+	 * @return La cantidad de productos importados.
+	 * @throws IOException - En caso de que no se pueda leer el origen o de que su formato sea inválido.
+	 */
+	@Transactional
+	public long importFrom(Reader reader) throws IOException {
+		BufferedReader in = new BufferedReader(reader, 1 << 16);
+		List<String> header = ProductCsv.readRecord(in);
+		if (header == null || !String.join(",", header).equals(ProductCsv.HEADER)) {
+			throw new IOException("El snapshot debe comenzar con el encabezado '" + ProductCsv.HEADER + "'");
+		}
+		List<Object[]> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+		long imported = 0;
+		long maxId = 0;
+		for (List<String> record = ProductCsv.readRecord(in); record != null; record = ProductCsv.readRecord(in)) {
+			Object[] row = toRow(record, imported + 1);
+			maxId = Math.max(maxId, (Long) row[0]);
+			batch.add(row);
+			if (batch.size() == IMPORT_BATCH_SIZE) {
+				jdbcTemplate.batchUpdate(INSERT, batch);
+				batch.clear();
+			}
+			imported++;
+		}
+		if (!batch.isEmpty()) {
+			jdbcTemplate.batchUpdate(INSERT, batch);
+		}
+		// Hibernate toma el valor de la secuencia como el último Id del bloque reservado
+		jdbcTemplate.execute("alter sequence producto_seq restart with " + (maxId + Product.ID_ALLOCATION_SIZE));
+		return imported;
+	}
+
+	private Object[] toRow(List<String> record, long position) throws IOException {
+		if (record.size() != 6 || record.get(0) == null) {
+			throw new IOException("El registro N°" + position + " del snapshot es invalido");
+		}
+		try {
+			String nombre = record.get(1);
+			return new Object[] { Long.valueOf(record.get(0)), nombre, record.get(2),
+					record.get(3) == null ? null : new BigDecimal(record.get(3)),
+					record.get(4) == null ? null : Long.valueOf(record.get(4)),
+					record.get(5) == null ? Long.valueOf(0) : Long.valueOf(record.get(5)),
+					TextNormalizer.normalize(nombre) };
+		} catch (NumberFormatException e) {
+			throw new IOException("El registro N°" + position + " del snapshot es invalido", e);
+		}
+	}
+}
@@ -0,0 +1,386 @@
+package com.PayGoal.Postulacion.Services;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.PayGoal.Postulacion.Events.ProductChangeEvent;
+import com.PayGoal.Postulacion.Models.CatalogStatistics;
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Repositories.ProductRepository;
+import com.PayGoal.Postulacion.Utilities.Prices;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Estadísticas del catálogo (cantidad de productos, unidades, valor del
+ * inventario y distribución de precios) mantenidas en memoria a partir de los
+ * eventos de cambio publicados por {@link ProductService}, por lo que
+ * consultarlas no recorre la tabla de productos. Se calculan al iniciar la
+ * aplicación y se recalculan periódicamente desde la Base de Datos,
+ * reemplazando las mantenidas en memoria e informando si diferían.
+ */
+@Component
+public class ProductStatistics {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductStatistics.class);
+
+	/**
+	 * Percentiles informados del precio de los productos, por nombre.
+	 */
+	static final Map<String, Integer> PERCENTILES = percentiles(50, 90, 95, 99);
+
+	// las lecturas comparten el lock para devolver siempre estadísticas de un mismo estado
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final Counter inconsistencies;
+
+	private Accumulator current = new Accumulator();
+
+	/**
+	 * Los cambios recibidos mientras se recalculan las estadísticas, que se
+	 * aplican sobre el resultado antes de reemplazar las actuales.
+	 */
+	private List<ProductChangeEvent> pendingChanges;
+
+	private volatile boolean ready;
+
+	@Autowired
+	ProductRepository productRepo;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	public ProductStatistics(MeterRegistry meterRegistry) {
+		this.inconsistencies = Counter.builder("productos.estadisticas.inconsistencias")
+				.description("Productos cuyas estadisticas no coincidian con la Base de Datos")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Indica si las estadísticas están calculadas y se leen de memoria.
+	 * @return true si las estadísticas están disponibles.
+	 */
+	public boolean isReady() {
+		return ready;
+	}
+
+	/**
+	 * Obtiene las estadísticas del catálogo. Mientras no estén calculadas se
+	 * calculan recorriendo la Base de Datos.
+	 * @return Las estadísticas del catálogo.
+	 */
+	public CatalogStatistics getStatistics() {
+		if (!ready) {
+			return scan().statistics();
+		}
+		lock.readLock().lock();
+		try {
+			return current.statistics();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Actualiza las estadísticas a partir de un cambio sobre un producto.
+	 * @param event El cambio realizado.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChange(ProductChangeEvent event) {
+		lock.writeLock().lock();
+		try {
+			if (pendingChanges != null) {
+				pendingChanges.add(event);
+			}
+			current.apply(event);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Calcula las estadísticas al iniciar la aplicación.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		reconcile();
+	}
+
+	/**
+	 * Recalcula las estadísticas desde la Base de Datos y las compara con las
+	 * mantenidas en memoria.
+	 * @return La cantidad de productos que no coincidían.
+	 */
+	@Scheduled(initialDelayString = "${productos.estadisticas.verificacion:600000}", fixedDelayString = "${productos.estadisticas.verificacion:600000}")
+	public long verify() {
+		if (!ready) {
+			return 0;
+		}
+		long differences = reconcile();
+		if (differences > 0) {
+			log.warn("Las estadisticas del catalogo difieren de la Base de Datos en {} productos, se reemplazan",
+					differences);
+			inconsistencies.increment(differences);
+		}
+		return differences;
+	}
+
+	/**
+	 * Recorre la Base de Datos sin bloquear los cambios, que se registran
+	 * mientras tanto y se vuelven a aplicar sobre el resultado. Aplicar un
+	 * cambio reemplaza los valores del producto, por lo que repetir uno ya
+	 * incluido en el recorrido no altera el resultado.
+	 */
+	private long reconcile() {
+		lock.writeLock().lock();
+		try {
+			pendingChanges = new ArrayList<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		Accumulator recomputed;
+		try {
+			recomputed = scan();
+		} catch (RuntimeException e) {
+			lock.writeLock().lock();
+			pendingChanges = null;
+			lock.writeLock().unlock();
+			throw e;
+		}
+		lock.writeLock().lock();
+		try {
+			pendingChanges.forEach(recomputed::apply);
+			long differences = current.differences(recomputed);
+			current = recomputed;
+			pendingChanges = null;
+			ready = true;
+			return differences;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private Accumulator scan() {
+		Accumulator accumulator = new Accumulator();
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.setReadOnly(true);
+		transaction.executeWithoutResult(status -> {
+			try (Stream<Object[]> rows = productRepo.streamAllPricesAndQuantities()) {
+				rows.forEach(row -> accumulator.add((Long) row[0], (Long) row[1], (Long) row[2]));
+			}
+		});
+		return accumulator;
+	}
+
+	private static Map<String, Integer> percentiles(int... values) {
+		Map<String, Integer> percentiles = new LinkedHashMap<>();
+		for (int value : values) {
+			percentiles.put("p" + value, value);
+		}
+		return percentiles;
+	}
+
+	/**
+	 * Acumula los valores de cada producto. Los precios se cuentan además en un
+	 * histograma de tamaño fijo, con un intervalo por centavo hasta $10 y luego
+	 * 900 intervalos por cada potencia de 10 (tres cifras significativas), para
+	 * encontrar el intervalo de cada percentil sin recorrer todos los precios.
+	 */
+	static final class Accumulator {
+
+		private static final int EXACT_BUCKETS = 1000;
+
+		private static final int BUCKETS_PER_DECADE = 900;
+
+		// un long tiene como máximo 19 dígitos, 16 más que los intervalos exactos
+		private static final int BUCKETS = EXACT_BUCKETS + 16 * BUCKETS_PER_DECADE;
+
+		private final Map<Long, Entry> byId = new HashMap<>();
+
+		// cantidad de productos por precio, en centavos
+		private final NavigableMap<Long, Integer> prices = new TreeMap<>();
+
+		private final long[] buckets = new long[BUCKETS];
+
+		private long units;
+
+		private long priceSum;
+
+		private BigInteger inventoryValue = BigInteger.ZERO;
+
+		void apply(ProductChangeEvent event) {
+			remove(event.getId());
+			if (event.getType() != ProductChangeEvent.Type.DELETED) {
+				Product prod = event.getProduct();
+				add(prod.getId(), prod.getPrecioCentavos(), prod.getCantidad());
+			}
+		}
+
+		void add(Long id, Long price, Long quantity) {
+			Entry entry = new Entry(price == null ? 0 : price, quantity == null ? 0 : quantity);
+			Entry previous = byId.put(id, entry);
+			if (previous != null) {
+				subtract(previous);
+			}
+			units += entry.quantity;
+			priceSum += entry.price;
+			inventoryValue = inventoryValue.add(entry.value());
+			prices.merge(entry.price, 1, Integer::sum);
+			buckets[bucket(entry.price)]++;
+		}
+
+		void remove(Long id) {
+			Entry entry = byId.remove(id);
+			if (entry != null) {
+				subtract(entry);
+			}
+		}
+
+		private void subtract(Entry entry) {
+			units -= entry.quantity;
+			priceSum -= entry.price;
+			inventoryValue = inventoryValue.subtract(entry.value());
+			prices.computeIfPresent(entry.price, (price, count) -> count == 1 ? null : count - 1);
+			buckets[bucket(entry.price)]--;
+		}
+
+		/**
+		 * Cuenta los productos cuyos valores difieren de los de otro acumulador,
+		 * incluyendo los que solo existen en uno de ellos.
+		 */
+		long differences(Accumulator other) {
+			long differences = 0;
+			for (Map.Entry<Long, Entry> entry : byId.entrySet()) {
+				if (!entry.getValue().equals(other.byId.get(entry.getKey()))) {
+					differences++;
+				}
+			}
+			for (Long id : other.byId.keySet()) {
+				if (!byId.containsKey(id)) {
+					differences++;
+				}
+			}
+			return differences;
+		}
+
+		CatalogStatistics statistics() {
+			long count = byId.size();
+			if (count == 0) {
+				return new CatalogStatistics(0, 0, BigDecimal.ZERO.setScale(Prices.SCALE), null, null, null, null);
+			}
+			Map<String, BigDecimal> percentiles = new LinkedHashMap<>();
+			PERCENTILES.forEach((name, percentile) -> percentiles.put(name, Prices.toDecimal(percentile(percentile))));
+			return new CatalogStatistics(count, units, new BigDecimal(inventoryValue, Prices.SCALE),
+					Prices.toDecimal(prices.firstKey()), Prices.toDecimal(prices.lastKey()),
+					BigDecimal.valueOf(priceSum, Prices.SCALE).divide(BigDecimal.valueOf(count), RoundingMode.HALF_EVEN),
+					percentiles);
+		}
+
+		/**
+		 * Obtiene el precio del percentil por el método del rango más cercano: el
+		 * menor precio tal que al menos ese porcentaje de los productos cuesta lo
+		 * mismo o menos. Se busca el intervalo del histograma que lo contiene y luego
+		 * el precio exacto dentro del intervalo.
+		 */
+		long percentile(int percentile) {
+			long rank = Math.max(1, (byId.size() * (long) percentile + 99) / 100);
+			int index = 0;
+			while (rank > buckets[index]) {
+				rank -= buckets[index++];
+			}
+			long upperBound = index + 1 < BUCKETS ? lowerBound(index + 1) : Long.MAX_VALUE;
+			NavigableMap<Long, Integer> bucketPrices = upperBound == Long.MAX_VALUE
+					? prices.tailMap(lowerBound(index), true)
+					: prices.subMap(lowerBound(index), true, upperBound, false);
+			for (Map.Entry<Long, Integer> price : bucketPrices.entrySet()) {
+				rank -= price.getValue();
+				if (rank <= 0) {
+					return price.getKey();
+				}
+			}
+			throw new IllegalStateException("El histograma de precios no coincide con los precios");
+		}
+
+		static int bucket(long price) {
+			if (price < EXACT_BUCKETS) {
+				// los precios negativos no se admiten, pero se cuentan en el primer intervalo
+				return (int) Math.max(price, 0);
+			}
+			int decade = 0;
+			long significant = price;
+			while (significant >= EXACT_BUCKETS) {
+				significant /= 10;
+				decade++;
+			}
+			return EXACT_BUCKETS + (decade - 1) * BUCKETS_PER_DECADE + (int) (significant - EXACT_BUCKETS / 10);
+		}
+
+		static long lowerBound(int bucket) {
+			if (bucket == 0) {
+				return Long.MIN_VALUE;
+			}
+			if (bucket < EXACT_BUCKETS) {
+				return bucket;
+			}
+			int decade = (bucket - EXACT_BUCKETS) / BUCKETS_PER_DECADE + 1;
+			long bound = (bucket - EXACT_BUCKETS) % BUCKETS_PER_DECADE + EXACT_BUCKETS / 10;
+			for (int i = 0; i < decade; i++) {
+				// los últimos intervalos superan el mayor long y quedan siempre vacíos
+				bound = bound > Long.MAX_VALUE / 10 ? Long.MAX_VALUE : bound * 10;
+			}
+			return bound;
+		}
+	}
+
+	/**
+	 * Los valores de un producto que intervienen en las estadísticas.
+	 */
+	private static final class Entry {
+
+		private final long price;
+
+		private final long quantity;
+
+		Entry(long price, long quantity) {
+			this.price = price;
+			this.quantity = quantity;
+		}
+
+		BigInteger value() {
+			return BigInteger.valueOf(price).multiply(BigInteger.valueOf(quantity));
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof Entry entry && entry.price == price && entry.quantity == quantity;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(price) * 31 + Long.hashCode(quantity);
+		}
+	}
+}
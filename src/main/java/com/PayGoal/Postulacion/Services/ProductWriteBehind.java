@@ -0,0 +1,569 @@
+package com.PayGoal.Postulacion.Services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.PayGoal.Postulacion.Events.ProductChangeEvent;
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Repositories.ProductRepository;
+import com.PayGoal.Postulacion.Services.PendingProductWrites.Operation;
+import com.PayGoal.Postulacion.Services.PendingProductWrites.Write;
+import com.PayGoal.Postulacion.Utilities.NotFoundException;
+import com.PayGoal.Postulacion.Utilities.RetryLaterException;
+import com.PayGoal.Postulacion.Utilities.TextNormalizer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Escritura diferida de las altas, modificaciones y bajas de productos. En lugar
+ * de una transacción por petición, los cambios se responden apenas se reciben y
+ * se guardan en segundo plano, en lotes de una única transacción cada vez que se
+ * acumulan "productos.escritura-diferida.lote" cambios o pasa
+ * "productos.escritura-diferida.intervalo". Los cambios sucesivos de un mismo
+ * producto se combinan en una sola escritura, conservando el último valor de
+ * cada campo.
+ * <p>
+ * Las lecturas por Id incluyen los cambios todavía no guardados, mientras que
+ * los listados y búsquedas los reflejan recién al guardarse. Si la cola llega a
+ * "productos.escritura-diferida.capacidad" productos, las nuevas escrituras
+ * esperan lugar hasta "productos.escritura-diferida.espera" y luego se rechazan
+ * con un 503. Con "productos.escritura-diferida.confirmacion" cada petición
+ * espera a que su lote se guarde, compartiendo el commit con las peticiones
+ * concurrentes.
+ * <p>
+ * Se habilita con la propiedad "productos.escritura-diferida.habilitado"; los
+ * cambios no guardados se pierden si el proceso termina de forma abrupta.
+ */
+@Component
+public class ProductWriteBehind {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductWriteBehind.class);
+
+	private static final String INSERT = "insert into product (id, nombre, descripcion, precio, cantidad, version, nombre_normalizado) values (?, ?, ?, ?, ?, ?, ?)";
+
+	private static final String UPDATE = "update product set nombre = coalesce(?, nombre), descripcion = coalesce(?, descripcion), "
+			+ "precio = coalesce(?, precio), cantidad = coalesce(?, cantidad), "
+			+ "nombre_normalizado = coalesce(?, nombre_normalizado), version = version + 1 where id = ?";
+
+	private static final String DELETE = "delete from product where id = ?";
+
+	private final PendingProductWrites writes = new PendingProductWrites();
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition notFull = lock.newCondition();
+
+	private final Condition batchReady = lock.newCondition();
+
+	// un único lote se guarda a la vez, para que los cambios de un producto lleguen en orden
+	private final ReentrantLock flushLock = new ReentrantLock();
+
+	private final boolean enabled;
+
+	private final int capacity;
+
+	private final int batchSize;
+
+	private final Duration interval;
+
+	private final Duration maxWait;
+
+	private final boolean durable;
+
+	private final DistributionSummary batchSizes;
+
+	private final Counter rejected;
+
+	private final Counter failed;
+
+	// cantidad de productos con escrituras pendientes o en curso, para no bloquear las lecturas sin cambios
+	private volatile int tracked;
+
+	private volatile boolean running;
+
+	private long nextId;
+
+	private long lastId;
+
+	private Thread flusher;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	ProductRepository productRepo;
+
+	@Autowired
+	ApplicationEventPublisher eventPublisher;
+
+	public ProductWriteBehind(@Value("${productos.escritura-diferida.habilitado:false}") boolean enabled,
+			@Value("${productos.escritura-diferida.capacidad:10000}") int capacity,
+			@Value("${productos.escritura-diferida.lote:500}") int batchSize,
+			@Value("${productos.escritura-diferida.intervalo:100ms}") Duration interval,
+			@Value("${productos.escritura-diferida.espera:1s}") Duration maxWait,
+			@Value("${productos.escritura-diferida.confirmacion:false}") boolean durable,
+			MeterRegistry meterRegistry) {
+		this.enabled = enabled;
+		this.capacity = capacity;
+		this.batchSize = batchSize;
+		this.interval = interval;
+		this.maxWait = maxWait;
+		this.durable = durable;
+		this.batchSizes = DistributionSummary.builder("productos.escritura.diferida.lote")
+				.description("Cantidad de productos guardados en cada lote de la escritura diferida")
+				.baseUnit("productos").register(meterRegistry);
+		this.rejected = Counter.builder("productos.escritura.diferida.rechazadas")
+				.description("Escrituras rechazadas por tener la cola de escritura diferida llena")
+				.register(meterRegistry);
+		this.failed = Counter.builder("productos.escritura.diferida.fallidas")
+				.description("Escrituras diferidas descartadas por no poder guardarse en la Base de Datos")
+				.register(meterRegistry);
+		Gauge.builder("productos.escritura.diferida.pendientes", this, ProductWriteBehind::pendingCount)
+				.description("Productos con escrituras diferidas pendientes de guardarse").register(meterRegistry);
+	}
+
+	/**
+	 * Indica si las escrituras de productos se difieren.
+	 * @return true si la escritura diferida está habilitada y en funcionamiento.
+	 */
+	public boolean isEnabled() {
+		return enabled && running;
+	}
+
+	/**
+	 * Inicia el hilo que guarda los lotes de escrituras.
+	 */
+	@PostConstruct
+	void start() {
+		if (!enabled) {
+			return;
+		}
+		running = true;
+		flusher = new Thread(this::flushLoop, "productos-escritura-diferida");
+		flusher.setDaemon(true);
+		flusher.start();
+	}
+
+	/**
+	 * Detiene el hilo de escritura y guarda los cambios pendientes antes de que se
+	 * cierren la Base de Datos y los demás componentes. Las escrituras recibidas
+	 * luego se guardan en el momento.
+	 */
+	@EventListener(ContextClosedEvent.class)
+	public void stop() throws InterruptedException {
+		if (!running) {
+			return;
+		}
+		running = false;
+		lock.lock();
+		try {
+			batchReady.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		flusher.join();
+		flushAll();
+	}
+
+	/**
+	 * Difiere la creación de un producto. El Id se reserva en el momento de la
+	 * secuencia de Ids de la Base de Datos.
+	 * @param prod El producto a crear.
+	 * @return Una copia del producto creado, con su Id y sin versión hasta que se guarde.
+	 * @throws ResponseStatusException - En caso de que la cola esté llena.
+	 */
+	public Product create(Product prod) {
+		Product created = prod.copy();
+		created.setId(allocateId());
+		created.setVersion(null);
+		Write write;
+		lock.lock();
+		try {
+			awaitCapacity();
+			write = writes.create(created);
+			enqueued();
+		} finally {
+			lock.unlock();
+		}
+		if (awaitCommit(write)) {
+			// los productos se crean con la versión inicial
+			created.setVersion(Long.valueOf(0));
+		}
+		return created;
+	}
+
+	/**
+	 * Difiere la actualización de un producto.
+	 * @param productId El Id del producto.
+	 * @param changes Los campos a modificar; los campos nulos no se modifican.
+	 * @param loader La función que obtiene el producto guardado, o null si no existe.
+	 * @return El producto con los cambios aplicados, sin versión hasta que se guarde.
+	 * @throws ResponseStatusException - En caso de que el producto no exista o de que la cola esté llena.
+	 */
+	public Product update(Long productId, Product changes, Function<Long, Product> loader) {
+		Product updated = read(productId, loader);
+		if (updated == null) {
+			throw NotFoundException.forProduct(productId);
+		}
+		updated = updated.copy();
+		Write write;
+		lock.lock();
+		try {
+			if (!writes.isPending(productId)) {
+				awaitCapacity();
+			}
+			write = writes.update(productId, changes);
+			if (write == null) {
+				throw NotFoundException.forProduct(productId);
+			}
+			enqueued();
+		} finally {
+			lock.unlock();
+		}
+		PendingProductWrites.merge(updated, changes);
+		updated.setVersion(null);
+		if (awaitCommit(write)) {
+			Product saved = read(productId, loader);
+			return saved != null ? saved : updated;
+		}
+		return updated;
+	}
+
+	/**
+	 * Difiere la eliminación de un producto.
+	 * @param productId El Id del producto.
+	 * @param loader La función que obtiene el producto guardado, o null si no existe.
+	 * @return true si el producto existía, false en caso contrario.
+	 * @throws ResponseStatusException - En caso de que la cola esté llena.
+	 */
+	public boolean delete(Long productId, Function<Long, Product> loader) {
+		if (read(productId, loader) == null) {
+			return false;
+		}
+		Write write;
+		lock.lock();
+		try {
+			if (!writes.isPending(productId)) {
+				awaitCapacity();
+			}
+			write = writes.delete(productId);
+			if (write == null) {
+				return false;
+			}
+			enqueued();
+		} finally {
+			lock.unlock();
+		}
+		awaitCommit(write);
+		return true;
+	}
+
+	/**
+	 * Obtiene un producto incluyendo sus cambios todavía no guardados.
+	 * @param productId El Id del producto.
+	 * @param loader La función que obtiene el producto guardado, o null si no existe.
+	 * @return El producto, sin versión si tiene cambios sin guardar, o null si no existe.
+	 */
+	public Product read(Long productId, Function<Long, Product> loader) {
+		if (tracked == 0) {
+			return loader.apply(productId);
+		}
+		List<Write> productWrites;
+		lock.lock();
+		try {
+			productWrites = writes.writesOf(productId);
+		} finally {
+			lock.unlock();
+		}
+		if (productWrites.isEmpty()) {
+			return loader.apply(productId);
+		}
+		Product state = null;
+		if (productWrites.get(0).getOperation() == Operation.UPDATE) {
+			Product saved = loader.apply(productId);
+			state = saved == null ? null : saved.copy();
+		}
+		for (Write write : productWrites) {
+			state = write.applyTo(state);
+		}
+		return state;
+	}
+
+	/**
+	 * Indica si un producto tiene cambios que todavía no se guardaron.
+	 * @param productId El Id del producto.
+	 * @return true si la Base de Datos todavía no refleja todos los cambios del producto.
+	 */
+	public boolean hasPendingWrites(Long productId) {
+		if (tracked == 0) {
+			return false;
+		}
+		lock.lock();
+		try {
+			return writes.contains(productId);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Guarda los cambios pendientes de un producto, junto a los anteriores de la
+	 * cola, antes de una operación que lo modifica directamente en la Base de
+	 * Datos y no debe ser sobrescrita por ellos.
+	 * @param productId El Id del producto.
+	 */
+	public void flush(Long productId) {
+		while (hasPendingWrites(productId)) {
+			flushBatch();
+		}
+	}
+
+	/**
+	 * Guarda todos los cambios pendientes.
+	 */
+	public void flushAll() {
+		while (flushBatch() > 0) {
+			// se guardan lotes hasta vaciar la cola
+		}
+	}
+
+	private int pendingCount() {
+		return tracked;
+	}
+
+	private void flushLoop() {
+		while (running) {
+			lock.lock();
+			try {
+				if (running && writes.size() < batchSize && (!durable || writes.size() == 0)) {
+					batchReady.await(interval.toNanos(), TimeUnit.NANOSECONDS);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} finally {
+				lock.unlock();
+			}
+			try {
+				flushBatch();
+			} catch (RuntimeException e) {
+				log.error("No se pudo guardar un lote de la escritura diferida", e);
+			}
+		}
+	}
+
+	/**
+	 * Guarda el lote de cambios pendientes más antiguo. Si el lote falla, sus
+	 * cambios se reintentan uno por uno y se descartan solo los que vuelven a
+	 * fallar.
+	 * @return La cantidad de productos del lote.
+	 */
+	private int flushBatch() {
+		flushLock.lock();
+		try {
+			Map<Long, Write> batch;
+			lock.lock();
+			try {
+				batch = writes.take(batchSize);
+				notFull.signalAll();
+			} finally {
+				lock.unlock();
+			}
+			if (batch.isEmpty()) {
+				return 0;
+			}
+			batchSizes.record(batch.size());
+			try {
+				save(batch);
+			} catch (RuntimeException e) {
+				log.warn("No se pudo guardar un lote de {} productos de la escritura diferida, se reintenta por producto",
+						batch.size(), e);
+				batch.forEach((id, write) -> {
+					try {
+						save(Map.of(id, write));
+					} catch (RuntimeException ex) {
+						log.error("Se descarta la escritura diferida del producto con el id '{}'", id, ex);
+						failed.increment();
+						write.getCommitted().completeExceptionally(ex);
+					}
+				});
+			} finally {
+				lock.lock();
+				try {
+					writes.completed(batch);
+					tracked = writes.tracked();
+				} finally {
+					lock.unlock();
+				}
+				// las confirmaciones se completan cuando el caché ya tiene el producto guardado
+				batch.values().forEach(write -> write.getCommitted().complete(null));
+			}
+			return batch.size();
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	/**
+	 * Guarda un lote de cambios en una única transacción y publica los eventos de
+	 * cambio, que se procesan al confirmarse la transacción.
+	 */
+	private void save(Map<Long, Write> batch) {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			List<Object[]> inserts = new ArrayList<>();
+			List<Object[]> updates = new ArrayList<>();
+			List<Object[]> deletes = new ArrayList<>();
+			List<Product> created = new ArrayList<>();
+			List<Long> updatedIds = new ArrayList<>();
+			List<Long> deletedIds = new ArrayList<>();
+			batch.forEach((id, write) -> {
+				Product prod = write.getProduct();
+				switch (write.getOperation()) {
+				case CREATE:
+					// se guarda una copia, ya que las lecturas siguen obteniendo la escritura hasta confirmarse
+					prod = prod.copy();
+					prod.setVersion(Long.valueOf(0));
+					prod.setNombreNormalizado(TextNormalizer.normalize(prod.getNombre()));
+					inserts.add(new Object[] { id, prod.getNombre(), prod.getDescripcion(), prod.getPrecio(),
+							prod.getCantidad(), prod.getVersion(), prod.getNombreNormalizado() });
+					created.add(prod);
+					break;
+				case UPDATE:
+					updates.add(new Object[] { prod.getNombre(), prod.getDescripcion(), prod.getPrecio(),
+							prod.getCantidad(), prod.getNombre() == null ? null : TextNormalizer.normalize(prod.getNombre()),
+							id });
+					updatedIds.add(id);
+					break;
+				default:
+					deletes.add(new Object[] { id });
+					deletedIds.add(id);
+				}
+			});
+			if (!inserts.isEmpty()) {
+				jdbcTemplate.batchUpdate(INSERT, inserts);
+			}
+			// los productos eliminados por otra operación antes de guardarse no generan eventos
+			List<Long> updatedRows = affected(updatedIds, updates.isEmpty() ? null : jdbcTemplate.batchUpdate(UPDATE, updates));
+			List<Long> deletedRows = affected(deletedIds, deletes.isEmpty() ? null : jdbcTemplate.batchUpdate(DELETE, deletes));
+			created.forEach(prod -> publishChange(ProductChangeEvent.Type.CREATED, prod.getId(), prod));
+			if (!updatedRows.isEmpty()) {
+				productRepo.findAllById(updatedRows)
+						.forEach(prod -> publishChange(ProductChangeEvent.Type.UPDATED, prod.getId(), prod));
+			}
+			deletedRows.forEach(id -> publishChange(ProductChangeEvent.Type.DELETED, id, null));
+		});
+	}
+
+	private static List<Long> affected(List<Long> ids, int[] rows) {
+		List<Long> affected = new ArrayList<>();
+		for (int i = 0; rows != null && i < rows.length; i++) {
+			if (rows[i] != 0) {
+				affected.add(ids.get(i));
+			}
+		}
+		return affected;
+	}
+
+	private void publishChange(ProductChangeEvent.Type type, Long id, Product prod) {
+		eventPublisher.publishEvent(new ProductChangeEvent(type, id, prod == null ? null : prod.copy()));
+	}
+
+	/**
+	 * Reserva un Id de la secuencia de la Base de Datos. Se toman bloques como los
+	 * que reserva Hibernate, que interpreta cada valor de la secuencia como el
+	 * último Id de un bloque de {@link Product#ID_ALLOCATION_SIZE} Ids.
+	 */
+	private synchronized long allocateId() {
+		if (nextId == 0 || nextId > lastId) {
+			lastId = jdbcTemplate.queryForObject("call next value for producto_seq", Long.class);
+			nextId = Math.max(1, lastId - Product.ID_ALLOCATION_SIZE + 1);
+		}
+		return nextId++;
+	}
+
+	/**
+	 * Espera a que la cola tenga lugar para un nuevo producto. Debe llamarse con el
+	 * bloqueo tomado.
+	 */
+	private void awaitCapacity() {
+		long nanos = maxWait.toNanos();
+		try {
+			while (writes.size() >= capacity) {
+				batchReady.signal();
+				if (nanos <= 0) {
+					rejected.increment();
+					throw new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE,
+							"Hay demasiados cambios pendientes de guardarse, vuelva a intentarlo", 1);
+				}
+				nanos = notFull.awaitNanos(nanos);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			rejected.increment();
+			throw new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE,
+					"Hay demasiados cambios pendientes de guardarse, vuelva a intentarlo", 1);
+		}
+	}
+
+	/**
+	 * Actualiza el contador de escrituras y avisa al hilo de escritura si el lote
+	 * está completo, o si hay peticiones esperando la confirmación. Debe llamarse
+	 * con el bloqueo tomado.
+	 */
+	private void enqueued() {
+		tracked = writes.tracked();
+		if (durable || writes.size() >= batchSize) {
+			batchReady.signal();
+		}
+	}
+
+	/**
+	 * Con la confirmación habilitada espera a que se guarde la escritura. Si la
+	 * escritura diferida ya se detuvo, la guarda en el momento.
+	 * @return true si la escritura ya se guardó.
+	 */
+	private boolean awaitCommit(Write write) {
+		if (!running) {
+			flushAll();
+		} else if (!durable) {
+			return false;
+		}
+		try {
+			write.getCommitted().join();
+			return true;
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,230 @@
+package com.PayGoal.Postulacion.Services;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.PayGoal.Postulacion.Models.CacheStatistics;
+import com.PayGoal.Postulacion.Models.CatalogStatistics;
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Models.ProductBatchResult;
+import com.PayGoal.Postulacion.Models.ProductChange;
+import com.PayGoal.Postulacion.Models.ProductChangePage;
+import com.PayGoal.Postulacion.Models.ProductFilter;
+import com.PayGoal.Postulacion.Models.ProductLookup;
+import com.PayGoal.Postulacion.Models.ProductPage;
+import com.PayGoal.Postulacion.Models.ProductSlice;
+import com.PayGoal.Postulacion.Models.StockReservation;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Variante no bloqueante de {@link ProductService} para el modo reactivo. Las
+ * operaciones sobre la Base de Datos siguen siendo bloqueantes (JDBC), por lo
+ * que se ejecutan en un pool de hilos propio del tamaño del pool de conexiones,
+ * dejando libres los hilos del servidor. Las operaciones que no entran en la
+ * cola del pool se rechazan con un 503.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductService implements DisposableBean {
+
+	@Autowired
+	ProductService productSv;
+
+	@Autowired
+	ProductStatistics productStatistics;
+
+	@Autowired
+	ProductPriceIndex productPriceIndex;
+
+	private final Scheduler jdbcScheduler;
+
+	public ReactiveProductService(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+			@Value("${productos.reactivo.cola:10000}") int queueSize) {
+		this.jdbcScheduler = Schedulers.newBoundedElastic(poolSize, queueSize, "productos-jdbc");
+	}
+
+	/**
+	 * Transmite todos los productos ordenados según su precio a medida que el
+	 * cliente los consume.
+	 * <p>
+	 * Con el índice de precios construido, se transmite la copia del índice
+	 * obtenida al comenzar, que refleja un único estado del catálogo y solo retiene
+	 * referencias a los productos del índice. Si no, los productos se leen de a una
+	 * página por vez, cada una en su propia consulta, por lo que un cliente lento
+	 * no mantiene ocupada una conexión a la Base de Datos; pero si un precio cambia
+	 * durante la transmisión, el producto puede omitirse o enviarse dos veces.
+	 * @param direction la dirección en la cual ordenar los productos.
+	 * @return Los productos ordenados, o un error si no se encuentra ninguno.
+	 */
+	public Flux<Product> streamAllProductsOrderedByPrice(Direction direction) {
+		if (productPriceIndex.isReady()) {
+			return blocking(() -> productSv.getAllProductsOrderedByPrice(direction)).flatMapIterable(products -> products);
+		}
+		return getProductsPageOrderedByPrice(direction, null, ProductService.MAX_PAGE_SIZE)
+				.expand(page -> page.getSiguiente() == null ? Mono.empty()
+						: getProductsPageOrderedByPrice(direction, page.getSiguiente(), ProductService.MAX_PAGE_SIZE))
+				// se pide la página siguiente recién cuando se empieza a consumir la actual
+				.concatMapIterable(ProductPage::getProductos, 1);
+	}
+
+	/**
+	 * @see ProductService#getProductsPageOrderedByPrice(Direction, String, int)
+	 */
+	public Mono<ProductPage> getProductsPageOrderedByPrice(Direction direction, String cursor, int pageSize) {
+		return blocking(() -> productSv.getProductsPageOrderedByPrice(direction, cursor, pageSize));
+	}
+
+	/**
+	 * @see ProductService#getProductById(Long)
+	 */
+	public Mono<Product> getProductById(Long productId) {
+		return blocking(() -> productSv.getProductById(productId));
+	}
+
+	/**
+	 * @see ProductService#getProductsByIds(List)
+	 */
+	public Mono<ProductLookup> getProductsByIds(List<Long> productIds) {
+		return blocking(() -> productSv.getProductsByIds(productIds));
+	}
+
+	/**
+	 * @see ProductService#getProductsByName(String)
+	 */
+	public Mono<List<Product>> getProductsByName(String productName) {
+		return blocking(() -> productSv.getProductsByName(productName));
+	}
+
+	/**
+	 * @see ProductService#searchProductsByName(String, boolean, int)
+	 */
+	public Mono<List<Product>> searchProductsByName(String text, boolean prefixOnly, int limit) {
+		return blocking(() -> productSv.searchProductsByName(text, prefixOnly, limit));
+	}
+
+	/**
+	 * @see ProductService#getProductsInPriceRange(BigDecimal, BigDecimal, Direction, int)
+	 */
+	public Mono<List<Product>> getProductsInPriceRange(BigDecimal min, BigDecimal max, Direction direction,
+			int limit) {
+		return blocking(() -> productSv.getProductsInPriceRange(min, max, direction, limit));
+	}
+
+	/**
+	 * @see ProductService#getFilteredProducts(ProductFilter, String, Direction, int, int, List)
+	 */
+	public Mono<ProductSlice> getFilteredProducts(ProductFilter filter, String sortField, Direction direction,
+			int page, int pageSize, List<String> fields) {
+		return blocking(() -> productSv.getFilteredProducts(filter, sortField, direction, page, pageSize, fields));
+	}
+
+	/**
+	 * @see ProductService#getProductFieldsOrderedByPrice(Direction, List)
+	 */
+	public Mono<List<Map<String, Object>>> getProductFieldsOrderedByPrice(Direction direction, List<String> fields) {
+		return blocking(() -> productSv.getProductFieldsOrderedByPrice(direction, fields));
+	}
+
+	/**
+	 * @see ProductService#createProduct(Product)
+	 */
+	public Mono<Product> createProduct(Product prod) {
+		return blocking(() -> productSv.createProduct(prod));
+	}
+
+	/**
+	 * @see ProductService#createProducts(List)
+	 */
+	public Mono<ProductBatchResult> createProducts(List<Product> prods) {
+		return blocking(() -> productSv.createProducts(prods));
+	}
+
+	/**
+	 * @see ProductService#updateProduct(Long, Product, Long)
+	 */
+	public Mono<Product> updateProduct(Long productId, Product newProd, Long expectedVersion) {
+		return blocking(() -> productSv.updateProduct(productId, newProd, expectedVersion));
+	}
+
+	/**
+	 * @see ProductService#deleteProduct(Long, Long)
+	 */
+	public Mono<Boolean> deleteProduct(Long productId, Long expectedVersion) {
+		return blocking(() -> productSv.deleteProduct(productId, expectedVersion));
+	}
+
+	/**
+	 * @see ProductService#reserveStock(Long, long)
+	 */
+	public Mono<StockReservation> reserveStock(Long productId, long quantity) {
+		return blocking(() -> productSv.reserveStock(productId, quantity));
+	}
+
+	/**
+	 * @see ProductService#releaseStock(Long, long)
+	 */
+	public Mono<StockReservation> releaseStock(Long productId, long quantity) {
+		return blocking(() -> productSv.releaseStock(productId, quantity));
+	}
+
+	/**
+	 * @see ProductService#getCacheStatistics()
+	 */
+	public Mono<Map<String, CacheStatistics>> getCacheStatistics() {
+		return Mono.fromSupplier(productSv::getCacheStatistics);
+	}
+
+	/**
+	 * Las estadísticas se leen de memoria; solo mientras no están calculadas se
+	 * recorre la Base de Datos, fuera del hilo de la petición.
+	 * @see ProductService#getCatalogStatistics()
+	 */
+	public Mono<CatalogStatistics> getCatalogStatistics() {
+		return productStatistics.isReady() ? Mono.fromSupplier(productSv::getCatalogStatistics)
+				: blocking(productSv::getCatalogStatistics);
+	}
+
+	/**
+	 * Los cambios se buscan fuera del hilo de la petición; la secuencia recibida
+	 * se valida en el momento, sin consultar la Base de Datos.
+	 * @see ProductService#awaitChangesSince(long, int, Duration)
+	 */
+	public Mono<ProductChangePage> awaitChangesSince(long since, int limit, Duration wait) {
+		return productSv.awaitChangesSince(since, limit, wait);
+	}
+
+	/**
+	 * @see ProductService#streamChangesSince(Long)
+	 */
+	public Flux<ProductChange> streamChangesSince(Long since) {
+		return productSv.streamChangesSince(since);
+	}
+
+	private <T> Mono<T> blocking(Callable<T> operation) {
+		return Mono.fromCallable(operation).subscribeOn(jdbcScheduler).onErrorMap(RejectedExecutionException.class,
+				e -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+						"El servidor esta atendiendo demasiadas peticiones, vuelva a intentarlo"));
+	}
+
+	@Override
+	public void destroy() {
+		jdbcScheduler.dispose();
+	}
+}
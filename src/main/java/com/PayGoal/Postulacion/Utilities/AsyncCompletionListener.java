@@ -0,0 +1,38 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+
+/**
+ * Ejecuta una acción cuando termina una respuesta asincrónica, ya sea de forma
+ * normal, por error o por tiempo de espera. La acción puede ejecutarse más de
+ * una vez, por lo que debe ser idempotente.
+ */
+class AsyncCompletionListener implements AsyncListener {
+
+	private final Runnable action;
+
+	AsyncCompletionListener(Runnable action) {
+		this.action = action;
+	}
+
+	@Override
+	public void onComplete(AsyncEvent event) {
+		action.run();
+	}
+
+	@Override
+	public void onTimeout(AsyncEvent event) {
+		action.run();
+	}
+
+	@Override
+	public void onError(AsyncEvent event) {
+		action.run();
+	}
+
+	@Override
+	public void onStartAsync(AsyncEvent event) {
+		// la acción se ejecuta recién al terminar la respuesta
+	}
+}
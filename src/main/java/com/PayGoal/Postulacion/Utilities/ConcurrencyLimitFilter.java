@@ -0,0 +1,116 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Limita la cantidad de peticiones a la API que se atienden en simultáneo al
+ * tamaño del pool de conexiones a la Base de Datos. Las peticiones que superan
+ * el límite esperan su turno durante un tiempo máximo y luego se rechazan con
+ * un 503, en lugar de acumularse sobre el pool de conexiones hasta agotar su
+ * tiempo de espera. Es necesario al atender las peticiones con hilos virtuales,
+ * ya que la cantidad de peticiones en curso deja de estar acotada por el pool
+ * de hilos del servidor.
+ * <p>
+ * Se ejecuta después de {@link LoadSheddingFilter}, por lo que solo esperan un
+ * turno las peticiones que no fueron descartadas.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "productos.concurrencia.habilitado", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+	private final Semaphore permits;
+
+	private final long maxWaitNanos;
+
+	private final ObjectMapper objectMapper;
+
+	private final Counter rejections;
+
+	public ConcurrencyLimitFilter(@Value("${productos.concurrencia.limite:10}") int limit,
+			@Value("${productos.concurrencia.espera:2s}") Duration maxWait, ObjectMapper objectMapper,
+			MeterRegistry meterRegistry) {
+		this.permits = new Semaphore(limit, true);
+		this.maxWaitNanos = maxWait.toNanos();
+		this.objectMapper = objectMapper;
+		this.rejections = Counter.builder("productos.concurrencia.rechazos")
+				.description("Peticiones rechazadas por superar el limite de peticiones en simultaneo")
+				.register(meterRegistry);
+		Gauge.builder("productos.concurrencia.disponibles", permits, Semaphore::availablePermits)
+				.description("Peticiones que pueden comenzar a atenderse sin esperar").register(meterRegistry);
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		// el flujo de cambios se mantiene abierto sin ocupar la Base de Datos
+		return !request.getRequestURI().startsWith("/api/")
+				|| request.getRequestURI().startsWith("/api/productos/cambios");
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		if (!acquire()) {
+			rejections.increment();
+			response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+			response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+			response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+			objectMapper.writeValue(response.getOutputStream(),
+					Map.of("message", "El servidor esta atendiendo demasiadas peticiones, vuelva a intentarlo"));
+			return;
+		}
+		AtomicBoolean released = new AtomicBoolean();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			if (request.isAsyncStarted()) {
+				// la respuesta se sigue escribiendo en otro hilo, el permiso se libera al terminar
+				request.getAsyncContext().addListener(new AsyncCompletionListener(() -> release(released)));
+			} else {
+				release(released);
+			}
+		}
+	}
+
+	private boolean acquire() throws ServletException {
+		try {
+			return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ServletException(e);
+		}
+	}
+
+	private void release(AtomicBoolean released) {
+		if (released.compareAndSet(false, true)) {
+			permits.release();
+		}
+	}
+}
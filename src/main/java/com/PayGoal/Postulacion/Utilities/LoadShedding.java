@@ -0,0 +1,391 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import com.PayGoal.Postulacion.Services.ProductService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Admisión de las peticiones a la API ante picos de tráfico, utilizada por
+ * {@link LoadSheddingFilter} en el modo servlet y por
+ * {@link ReactiveLoadSheddingFilter} en el modo reactivo. Aplica dos controles
+ * independientes, que rechazan la petición en el momento en lugar de dejarla
+ * esperar:
+ * <ul>
+ * <li>Límite de peticiones ("productos.limite-peticiones"): cada cliente tiene
+ * un balde de fichas por grupo de endpoints, que se repone a una tasa fija. Cada
+ * petición consume las fichas del costo de su grupo, de forma que el listado
+ * completo consume más que una consulta por Id, y agotar un grupo no impide usar
+ * los demás. Las páginas del listado consumen del mismo balde una parte del
+ * costo proporcional a su límite. Sin fichas suficientes se responde 429.</li>
+ * <li>Límite de concurrencia adaptativo ("productos.descarte"): la cantidad de
+ * peticiones en curso se limita a un valor que se ajusta una vez por cada
+ * período de la latencia objetivo: crece de a uno si la latencia promedio del
+ * período no la superó y se reduce un 10% si la superó. Las peticiones que
+ * superan el límite se responden 503.</li>
+ * </ul>
+ * Ambos rechazos incluyen el encabezado Retry-After. Los clientes se identifican
+ * por el encabezado "productos.limite-peticiones.encabezado-cliente" o, si no se
+ * configura o no se envía, por su dirección IP.
+ */
+@Component
+@ConditionalOnExpression("${productos.limite-peticiones.habilitado:false} or ${productos.descarte.habilitado:false}")
+public class LoadShedding {
+
+	/**
+	 * Grupos de endpoints, cada uno con su costo en fichas y su propio balde por
+	 * cliente.
+	 */
+	public enum EndpointGroup {
+		CONSULTA, BUSQUEDA, LISTADO, EXPORTACION, ESCRITURA, LOTE, SUSCRIPCION;
+
+		String tag() {
+			return name().toLowerCase(Locale.ROOT);
+		}
+	}
+
+	private static final String API_PATH = "/api/productos";
+
+	private static final double BACKOFF_RATIO = 0.9;
+
+	private final boolean rateLimitEnabled;
+
+	private final String clientHeader;
+
+	private final double bucketCapacity;
+
+	private final double refillPerNano;
+
+	private final Map<EndpointGroup, Integer> costs = new EnumMap<>(EndpointGroup.class);
+
+	private final Cache<String, TokenBucket> buckets;
+
+	private final boolean adaptiveEnabled;
+
+	private final long targetLatencyNanos;
+
+	private final int minLimit;
+
+	private final int maxLimit;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	// el límite es fraccionario para poder reducirlo de forma proporcional
+	private volatile double limit;
+
+	// muestras del período en curso, protegidas por el bloqueo de la instancia
+	private long windowStart;
+
+	private long windowLatency;
+
+	private int windowSamples;
+
+	private int windowMaxInFlight;
+
+	private final LongSupplier clock;
+
+	private final MeterRegistry meterRegistry;
+
+	private final Map<EndpointGroup, Counter> rateRejections = new EnumMap<>(EndpointGroup.class);
+
+	private final Map<EndpointGroup, Counter> concurrencyRejections = new EnumMap<>(EndpointGroup.class);
+
+	@Autowired
+	public LoadShedding(@Value("${productos.limite-peticiones.habilitado:false}") boolean rateLimitEnabled,
+			@Value("${productos.limite-peticiones.encabezado-cliente:}") String clientHeader,
+			@Value("${productos.limite-peticiones.capacidad:100}") int bucketCapacity,
+			@Value("${productos.limite-peticiones.tasa:50}") int refillPerSecond,
+			@Value("${productos.limite-peticiones.costo.consulta:1}") int queryCost,
+			@Value("${productos.limite-peticiones.costo.busqueda:5}") int searchCost,
+			@Value("${productos.limite-peticiones.costo.listado:20}") int listingCost,
+			@Value("${productos.limite-peticiones.costo.exportacion:50}") int exportCost,
+			@Value("${productos.limite-peticiones.costo.escritura:2}") int writeCost,
+			@Value("${productos.limite-peticiones.costo.lote:50}") int batchCost,
+			@Value("${productos.limite-peticiones.costo.suscripcion:5}") int subscriptionCost,
+			@Value("${productos.descarte.habilitado:false}") boolean adaptiveEnabled,
+			@Value("${productos.descarte.latencia-objetivo:250ms}") Duration targetLatency,
+			@Value("${productos.descarte.limite-inicial:20}") int initialLimit,
+			@Value("${productos.descarte.limite-minimo:2}") int minLimit,
+			@Value("${productos.descarte.limite-maximo:200}") int maxLimit, MeterRegistry meterRegistry) {
+		this(rateLimitEnabled, clientHeader, bucketCapacity, refillPerSecond,
+				Map.of(EndpointGroup.CONSULTA, queryCost, EndpointGroup.BUSQUEDA, searchCost, EndpointGroup.LISTADO,
+						listingCost, EndpointGroup.EXPORTACION, exportCost, EndpointGroup.ESCRITURA, writeCost,
+						EndpointGroup.LOTE, batchCost, EndpointGroup.SUSCRIPCION, subscriptionCost),
+				adaptiveEnabled, targetLatency, initialLimit, minLimit, maxLimit, meterRegistry, System::nanoTime);
+	}
+
+	LoadShedding(boolean rateLimitEnabled, String clientHeader, int bucketCapacity, int refillPerSecond,
+			Map<EndpointGroup, Integer> costs, boolean adaptiveEnabled, Duration targetLatency, int initialLimit, int minLimit, int maxLimit,
+			MeterRegistry meterRegistry, LongSupplier clock) {
+		this.rateLimitEnabled = rateLimitEnabled;
+		this.clientHeader = clientHeader;
+		this.bucketCapacity = bucketCapacity;
+		this.refillPerNano = refillPerSecond / 1e9;
+		this.costs.putAll(costs);
+		this.buckets = Caffeine.newBuilder().maximumSize(100_000).expireAfterAccess(Duration.ofMinutes(10)).build();
+		this.adaptiveEnabled = adaptiveEnabled;
+		this.targetLatencyNanos = targetLatency.toNanos();
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.limit = initialLimit;
+		this.clock = clock;
+		this.windowStart = clock.getAsLong();
+		this.meterRegistry = meterRegistry;
+		Gauge.builder("productos.descarte.limite", this, LoadShedding::getLimit)
+				.description("Peticiones a la API que pueden atenderse en simultaneo").register(meterRegistry);
+		Gauge.builder("productos.descarte.en.curso", inFlight, AtomicInteger::get)
+				.description("Peticiones a la API en curso").register(meterRegistry);
+	}
+
+	/**
+	 * Obtiene el identificador del cliente de una petición.
+	 * @param header La función que obtiene un encabezado de la petición, o null si no se envió.
+	 * @param remoteAddress La dirección IP del cliente.
+	 * @return El valor del encabezado que identifica a los clientes, o la dirección IP.
+	 */
+	public String clientOf(Function<String, String> header, String remoteAddress) {
+		String client = clientHeader.isEmpty() ? null : header.apply(clientHeader);
+		return client != null ? client : remoteAddress;
+	}
+
+	/**
+	 * Admite una petición a la API o la rechaza.
+	 * @param client El identificador del cliente.
+	 * @param method El método HTTP.
+	 * @param path La ruta de la petición.
+	 * @param parameter La función que obtiene un parámetro de consulta de la petición, o null si no se envió.
+	 * @return La admisión, que debe liberarse al terminar la respuesta.
+	 * @throws RetryLaterException - Con el código 429 si el cliente agotó sus fichas, o 503 si se superó el límite de concurrencia.
+	 */
+	public Admission admit(String client, String method, String path, Function<String, String> parameter)
+			throws RetryLaterException {
+		EndpointGroup group = classify(method, path, name -> parameter.apply(name) != null);
+		if (rateLimitEnabled) {
+			long waitNanos = buckets.get(client + '|' + group, key -> new TokenBucket(bucketCapacity, clock.getAsLong()))
+					.tryConsume(cost(group, parameter.apply("limite")), clock.getAsLong());
+			if (waitNanos > 0) {
+				rejection(rateRejections, group, "tasa").increment();
+				throw new RetryLaterException(HttpStatus.TOO_MANY_REQUESTS,
+						"Se supero el limite de peticiones, vuelva a intentarlo", retryAfterSeconds(waitNanos));
+			}
+		}
+		// los cambios se esperan sin ocupar la Base de Datos, por lo que no cuentan para el límite de concurrencia
+		boolean holdsPermit = adaptiveEnabled && group != EndpointGroup.SUSCRIPCION;
+		if (holdsPermit && !tryAcquire()) {
+			rejection(concurrencyRejections, group, "concurrencia").increment();
+			throw new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE,
+					"El servidor esta atendiendo demasiadas peticiones, vuelva a intentarlo", 1);
+		}
+		return new Admission(group, holdsPermit, clock.getAsLong());
+	}
+
+	/**
+	 * Clasifica una petición según su costo.
+	 * @param method El método HTTP.
+	 * @param path La ruta de la petición.
+	 * @param hasParameter Indica si la petición tiene un parámetro de consulta.
+	 * @return El grupo de endpoints de la petición.
+	 */
+	static EndpointGroup classify(String method, String path, Predicate<String> hasParameter) {
+		String subPath = path.startsWith(API_PATH) ? path.substring(API_PATH.length()) : path;
+		if (!method.equals("GET") && !method.equals("HEAD")) {
+			switch (subPath) {
+			case "/lote":
+				return EndpointGroup.LOTE;
+			case "/ids":
+				// la consulta de varios productos por Id no modifica datos
+				return EndpointGroup.BUSQUEDA;
+			default:
+				return EndpointGroup.ESCRITURA;
+			}
+		}
+		switch (subPath) {
+		case "/exportar", "/snapshot":
+			return EndpointGroup.EXPORTACION;
+		case "/cambios", "/cambios/stream":
+			return EndpointGroup.SUSCRIPCION;
+		case "/buscar", "/precios", "/filtrar":
+			return EndpointGroup.BUSQUEDA;
+		case "", "/":
+			// las páginas del listado se cobran según su límite en el balde del listado completo
+			if (hasParameter.test("orden")) {
+				return EndpointGroup.LISTADO;
+			}
+			return hasParameter.test("nombre") || hasParameter.test("ids") ? EndpointGroup.BUSQUEDA
+					: EndpointGroup.CONSULTA;
+		default:
+			return EndpointGroup.CONSULTA;
+		}
+	}
+
+	/**
+	 * Obtiene el costo de una petición. Las páginas del listado cuestan una parte
+	 * del listado completo proporcional a su límite, de forma que una página de
+	 * {@value ProductService#MAX_PAGE_SIZE} productos cuesta lo mismo que el
+	 * listado completo y una página pequeña cuesta al menos una ficha.
+	 * @param group El grupo de endpoints de la petición.
+	 * @param limit El parámetro "limite" de la petición, o null si no se envió.
+	 * @return Las fichas que consume la petición.
+	 */
+	int cost(EndpointGroup group, String limit) {
+		int cost = costs.get(group);
+		if (group != EndpointGroup.LISTADO || limit == null) {
+			return cost;
+		}
+		int size;
+		try {
+			size = Math.max(1, Math.min(Integer.parseInt(limit.trim()), ProductService.MAX_PAGE_SIZE));
+		} catch (NumberFormatException e) {
+			// el controlador rechaza el límite inválido, por lo que se cobra como una página completa
+			size = ProductService.MAX_PAGE_SIZE;
+		}
+		return Math.max(1, (int) Math.ceil((double) cost * size / ProductService.MAX_PAGE_SIZE));
+	}
+
+	/**
+	 * Obtiene el límite actual de peticiones en simultáneo.
+	 * @return El límite, redondeado hacia abajo.
+	 */
+	public int getLimit() {
+		return (int) limit;
+	}
+
+	private boolean tryAcquire() {
+		int current;
+		do {
+			current = inFlight.get();
+			if (current >= (int) limit) {
+				return false;
+			}
+		} while (!inFlight.compareAndSet(current, current + 1));
+		return true;
+	}
+
+	/**
+	 * Libera el lugar de una petición y registra su latencia. Al terminar cada
+	 * período se ajusta el límite según la latencia promedio; solo crece si en el
+	 * período se usó al menos la mitad del límite, para no crecer sin carga.
+	 */
+	private void release(EndpointGroup group, long startNanos) {
+		int current = inFlight.getAndDecrement();
+		// las exportaciones se transmiten durante todo el recorrido del catálogo y no indican saturación
+		if (group == EndpointGroup.EXPORTACION) {
+			return;
+		}
+		long now = clock.getAsLong();
+		synchronized (this) {
+			windowLatency += now - startNanos;
+			windowSamples++;
+			windowMaxInFlight = Math.max(windowMaxInFlight, current);
+			if (now - windowStart < targetLatencyNanos) {
+				return;
+			}
+			if (windowLatency / windowSamples > targetLatencyNanos) {
+				limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+			} else if (windowMaxInFlight * 2 >= limit) {
+				limit = Math.min(maxLimit, limit + 1);
+			}
+			windowStart = now;
+			windowLatency = 0;
+			windowSamples = 0;
+			windowMaxInFlight = 0;
+		}
+	}
+
+	private Counter rejection(Map<EndpointGroup, Counter> counters, EndpointGroup group, String reason) {
+		Counter counter = counters.get(group);
+		if (counter == null) {
+			synchronized (counters) {
+				counter = counters.computeIfAbsent(group,
+						key -> Counter.builder("productos.peticiones.descartadas")
+								.description("Peticiones a la API rechazadas por el limite de peticiones o de concurrencia")
+								.tag("motivo", reason).tag("grupo", key.tag()).register(meterRegistry));
+			}
+		}
+		return counter;
+	}
+
+	private static long retryAfterSeconds(long waitNanos) {
+		return Math.max(1, (waitNanos + 999_999_999) / 1_000_000_000);
+	}
+
+	/**
+	 * Balde de fichas de un cliente para un grupo de endpoints.
+	 */
+	private final class TokenBucket {
+
+		private double tokens;
+
+		private long lastRefill;
+
+		TokenBucket(double tokens, long now) {
+			this.tokens = tokens;
+			this.lastRefill = now;
+		}
+
+		/**
+		 * Consume fichas del balde.
+		 * @return 0 si se consumieron, o el tiempo en nanosegundos hasta que haya fichas suficientes.
+		 */
+		synchronized long tryConsume(int cost, long now) {
+			tokens = Math.min(bucketCapacity, tokens + (now - lastRefill) * refillPerNano);
+			lastRefill = now;
+			if (tokens >= cost) {
+				tokens -= cost;
+				return 0;
+			}
+			return (long) Math.ceil((cost - tokens) / refillPerNano);
+		}
+	}
+
+	/**
+	 * Una petición admitida. Se libera una única vez, ya sea al terminar la
+	 * petición o al terminar su respuesta asincrónica.
+	 */
+	public final class Admission {
+
+		private final EndpointGroup group;
+
+		private final AtomicBoolean released;
+
+		private final long startNanos;
+
+		private Admission(EndpointGroup group, boolean holdsPermit, long startNanos) {
+			this.group = group;
+			this.released = new AtomicBoolean(!holdsPermit);
+			this.startNanos = startNanos;
+		}
+
+		public EndpointGroup getGroup() {
+			return group;
+		}
+
+		/**
+		 * Libera el lugar de la petición en el límite de concurrencia.
+		 */
+		public void release() {
+			if (released.compareAndSet(false, true)) {
+				LoadShedding.this.release(group, startNanos);
+			}
+		}
+	}
+}
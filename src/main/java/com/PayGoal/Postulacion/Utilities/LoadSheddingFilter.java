@@ -0,0 +1,71 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Aplica {@link LoadShedding} a las peticiones a la API en el modo servlet. Se
+ * ejecuta antes que los demás filtros de la API, salvo los de métricas, para
+ * rechazar las peticiones antes de que ocupen un hilo o una conexión.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnExpression("${productos.limite-peticiones.habilitado:false} or ${productos.descarte.habilitado:false}")
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+	private final LoadShedding loadShedding;
+
+	private final ObjectMapper objectMapper;
+
+	public LoadSheddingFilter(LoadShedding loadShedding, ObjectMapper objectMapper) {
+		this.loadShedding = loadShedding;
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !request.getRequestURI().startsWith("/api/");
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		LoadShedding.Admission admission;
+		try {
+			admission = loadShedding.admit(loadShedding.clientOf(request::getHeader, request.getRemoteAddr()),
+					request.getMethod(), request.getRequestURI(), request::getParameter);
+		} catch (RetryLaterException e) {
+			response.setStatus(e.getStatusCode().value());
+			e.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+			response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+			objectMapper.writeValue(response.getOutputStream(), Collections.singletonMap("message", e.getReason()));
+			return;
+		}
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			if (request.isAsyncStarted()) {
+				// la respuesta se sigue escribiendo en otro hilo, el lugar se libera al terminar
+				request.getAsyncContext().addListener(new AsyncCompletionListener(admission::release));
+			} else {
+				admission.release();
+			}
+		}
+	}
+}
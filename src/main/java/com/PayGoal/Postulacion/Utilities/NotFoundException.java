@@ -0,0 +1,35 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Error de un producto inexistente o de una consulta sin resultados, respondido
+ * por {@link RestHandler} con el código 404.
+ * <p>
+ * Es el error más frecuente de la API y su traza de ejecución nunca se informa,
+ * por lo que no se registra: recorrer la pila de la petición es la parte más
+ * costosa de crear la excepción.
+ */
+public class NotFoundException extends ResponseStatusException {
+
+	private static final long serialVersionUID = 1L;
+
+	public NotFoundException(String reason) {
+		super(HttpStatus.NOT_FOUND, reason);
+	}
+
+	/**
+	 * Crea el error de un producto inexistente.
+	 * @param productId El Id del producto buscado.
+	 * @return El error.
+	 */
+	public static NotFoundException forProduct(Long productId) {
+		return new NotFoundException("No se ha encontrado un producto con el id: '" + productId + "'");
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return this;
+	}
+}
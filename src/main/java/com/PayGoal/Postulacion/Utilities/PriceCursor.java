@@ -0,0 +1,58 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.springframework.data.domain.Sort.Direction;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Posición de un producto dentro del listado ordenado por (precio, id), usada
+ * como cursor en la paginación por clave.
+ */
+@Data
+@AllArgsConstructor
+public class PriceCursor {
+
+	private static final String SEPARATOR = ":";
+
+	private Direction direction;
+
+	/**
+	 * El precio en centavos.
+	 */
+	private Long precio;
+
+	private Long id;
+
+	/**
+	 * Codifica el cursor en un texto opaco apto para URLs.
+	 * @return El cursor codificado.
+	 */
+	public String encode() {
+		String raw = direction.name() + SEPARATOR + Prices.toDecimal(precio).toPlainString() + SEPARATOR + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Decodifica un cursor generado por {@link #encode()}.
+	 * @param token El cursor codificado.
+	 * @return El cursor decodificado.
+	 * @throws IllegalArgumentException - En caso de que el cursor no sea válido.
+	 */
+	public static PriceCursor decode(String token) throws IllegalArgumentException {
+		String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR);
+		if (parts.length != 3) {
+			throw new IllegalArgumentException("Cursor invalido: " + token);
+		}
+		try {
+			return new PriceCursor(Direction.fromString(parts[0]), Prices.toCents(new BigDecimal(parts[1])),
+					Long.valueOf(parts[2]));
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException("Cursor invalido: " + token, e);
+		}
+	}
+}
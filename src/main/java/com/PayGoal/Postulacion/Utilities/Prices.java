@@ -0,0 +1,175 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Conversiones de los precios, que se manejan en memoria como una cantidad
+ * entera de centavos y se exponen a los clientes y a la Base de Datos como
+ * decimales con {@value #SCALE} decimales.
+ */
+public final class Prices {
+
+	/**
+	 * Cantidad de decimales de los precios.
+	 */
+	public static final int SCALE = 2;
+
+	// "-" + 17 dígitos enteros + "." + 2 decimales alcanzan para cualquier long
+	private static final int MAX_LENGTH = 21;
+
+	private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[MAX_LENGTH]);
+
+	private Prices() {
+	}
+
+	/**
+	 * Convierte un precio decimal a centavos.
+	 * @param price El precio.
+	 * @return Los centavos, o null si el precio es null.
+	 * @throws ArithmeticException - En caso de que el precio tenga más de {@value #SCALE} decimales o no quepa en un long.
+	 */
+	public static Long toCents(BigDecimal price) throws ArithmeticException {
+		return price == null ? null : price.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+	}
+
+	/**
+	 * Convierte un precio decimal a centavos redondeando hacia arriba, para usarlo
+	 * como límite inferior de un rango.
+	 * @param price El precio.
+	 * @return Los centavos, o null si el precio es null.
+	 */
+	public static Long toCentsCeiling(BigDecimal price) {
+		return price == null ? null : price.setScale(SCALE, RoundingMode.CEILING).unscaledValue().longValueExact();
+	}
+
+	/**
+	 * Convierte un precio decimal a centavos redondeando hacia abajo, para usarlo
+	 * como límite superior de un rango.
+	 * @param price El precio.
+	 * @return Los centavos, o null si el precio es null.
+	 */
+	public static Long toCentsFloor(BigDecimal price) {
+		return price == null ? null : price.setScale(SCALE, RoundingMode.FLOOR).unscaledValue().longValueExact();
+	}
+
+	/**
+	 * Convierte centavos a un precio decimal.
+	 * @param cents Los centavos.
+	 * @return El precio con {@value #SCALE} decimales, o null si los centavos son null.
+	 */
+	public static BigDecimal toDecimal(Long cents) {
+		return cents == null ? null : BigDecimal.valueOf(cents, SCALE);
+	}
+
+	/**
+	 * Escribe los centavos como un precio decimal sin pasar por BigDecimal ni
+	 * String.
+	 * @param cents Los centavos.
+	 * @param buffer El destino, de al menos {@value #MAX_LENGTH} caracteres.
+	 * @return La cantidad de caracteres escritos al comienzo del destino.
+	 */
+	static int format(long cents, char[] buffer) {
+		int pos = MAX_LENGTH;
+		// se trabaja con valores negativos para no desbordar con Long.MIN_VALUE
+		long value = cents < 0 ? cents : -cents;
+		for (int i = 0; i < SCALE; i++) {
+			buffer[--pos] = (char) ('0' - value % 10);
+			value /= 10;
+		}
+		buffer[--pos] = '.';
+		do {
+			buffer[--pos] = (char) ('0' - value % 10);
+			value /= 10;
+		} while (value != 0);
+		if (cents < 0) {
+			buffer[--pos] = '-';
+		}
+		int length = MAX_LENGTH - pos;
+		System.arraycopy(buffer, pos, buffer, 0, length);
+		return length;
+	}
+
+	/**
+	 * Serializa los centavos como un número decimal. En los formatos de texto,
+	 * como JSON, el número se escribe directamente; en los binarios, como Smile,
+	 * que no aceptan números ya formateados, se escribe como BigDecimal.
+	 */
+	public static final class Serializer extends JsonSerializer<Long> {
+
+		@Override
+		public void serialize(Long cents, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+			if (!gen.canWriteFormattedNumbers()) {
+				gen.writeNumber(BigDecimal.valueOf(cents, SCALE));
+				return;
+			}
+			char[] buffer = BUFFER.get();
+			gen.writeNumber(buffer, 0, format(cents, buffer));
+		}
+	}
+
+	/**
+	 * Deserializa un número decimal como centavos, rechazando los precios con más
+	 * de {@value #SCALE} decimales.
+	 */
+	public static final class Deserializer extends JsonDeserializer<Long> {
+
+		@Override
+		public Long deserialize(JsonParser parser, DeserializationContext ctxt) throws IOException {
+			BigDecimal price = ctxt.readValue(parser, BigDecimal.class);
+			try {
+				return toCents(price);
+			} catch (ArithmeticException e) {
+				throw new InvalidPriceException(parser, price);
+			}
+		}
+	}
+
+	/**
+	 * Convierte los centavos de y a un número decimal con Gson, del mismo modo
+	 * que {@link Serializer} y {@link Deserializer} con Jackson.
+	 */
+	public static final class GsonAdapter extends TypeAdapter<Long> {
+
+		@Override
+		public void write(JsonWriter out, Long cents) throws IOException {
+			out.value(toDecimal(cents));
+		}
+
+		@Override
+		public Long read(JsonReader in) throws IOException {
+			BigDecimal price = new BigDecimal(in.nextString());
+			try {
+				return toCents(price);
+			} catch (ArithmeticException e) {
+				throw new JsonSyntaxException("El precio no puede tener mas de " + SCALE + " decimales");
+			}
+		}
+	}
+
+	/**
+	 * Error al leer un precio con más de {@value #SCALE} decimales, cuyo mensaje
+	 * se envía al cliente.
+	 */
+	public static final class InvalidPriceException extends InvalidFormatException {
+
+		private static final long serialVersionUID = 1L;
+
+		InvalidPriceException(JsonParser parser, BigDecimal price) {
+			super(parser, "El precio no puede tener mas de " + SCALE + " decimales", price, Long.class);
+		}
+	}
+}
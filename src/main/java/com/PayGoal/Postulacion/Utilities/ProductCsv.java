@@ -0,0 +1,104 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lectura y escritura de registros CSV (RFC 4180) para los snapshots de
+ * productos. Los campos que contienen comas, comillas o saltos de línea se
+ * escriben entre comillas, duplicando las comillas internas.
+ */
+public final class ProductCsv {
+
+	/**
+	 * Encabezado de los snapshots, con las columnas en el orden en que se escriben.
+	 */
+	public static final String HEADER = "id,nombre,descripcion,precio,cantidad,version";
+
+	private ProductCsv() {
+	}
+
+	/**
+	 * Escribe un registro seguido de un salto de línea. Los valores null se
+	 * escriben como campos vacíos.
+	 * @param out El destino del registro.
+	 * @param values Los valores del registro.
+	 * @throws IOException - En caso de que no se pueda escribir en el destino.
+	 */
+	public static void writeRecord(Appendable out, Object... values) throws IOException {
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				out.append(',');
+			}
+			if (values[i] != null) {
+				writeField(out, values[i].toString());
+			}
+		}
+		out.append('\n');
+	}
+
+	private static void writeField(Appendable out, String value) throws IOException {
+		boolean quoted = value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+				|| value.indexOf('\r') >= 0;
+		if (!quoted) {
+			out.append(value);
+			return;
+		}
+		out.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"') {
+				out.append('"');
+			}
+			out.append(c);
+		}
+		out.append('"');
+	}
+
+	/**
+	 * Lee el siguiente registro. Los campos vacíos se devuelven como null.
+	 * @param in El origen de los registros, preferentemente con buffer.
+	 * @return Los campos del registro, o null si no quedan registros.
+	 * @throws IOException - En caso de que no se pueda leer el origen o de que el registro esté incompleto.
+	 */
+	public static List<String> readRecord(Reader in) throws IOException {
+		int c = in.read();
+		if (c == -1) {
+			return null;
+		}
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		boolean wasQuoted = false;
+		while (true) {
+			if (quoted) {
+				if (c == -1) {
+					throw new IOException("Registro CSV incompleto: falta cerrar las comillas");
+				}
+				if (c == '"') {
+					c = in.read();
+					if (c != '"') {
+						quoted = false;
+						continue;
+					}
+				}
+				field.append((char) c);
+			} else if (c == '"' && field.length() == 0) {
+				quoted = true;
+				wasQuoted = true;
+			} else if (c == ',' || c == '\n' || c == -1) {
+				fields.add(field.length() == 0 && !wasQuoted ? null : field.toString());
+				if (c != ',') {
+					return fields;
+				}
+				field.setLength(0);
+				wasQuoted = false;
+			} else if (c != '\r') {
+				field.append((char) c);
+			}
+			c = in.read();
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.PayGoal.Postulacion.Models.Product;
+
+/**
+ * Selección de los campos de los productos que se incluyen en una respuesta.
+ * Los productos proyectados se representan como mapas de campo a valor, con
+ * los campos siempre en el mismo orden que en {@link Product}.
+ */
+public final class ProductFields {
+
+	/**
+	 * Campos de los productos que pueden seleccionarse, en el orden en que se
+	 * envían.
+	 */
+	public static final List<String> ALL = List.of("id", "nombre", "descripcion", "precio", "cantidad");
+
+	private ProductFields() {
+	}
+
+	/**
+	 * Interpreta una lista de campos separados por comas.
+	 * @param fields Los campos, por ejemplo "id,nombre,precio".
+	 * @return Los campos seleccionados, sin repetir y en el orden de {@link #ALL}.
+	 * @throws ResponseStatusException - En caso de que no se indique ningún campo o de que alguno no exista.
+	 */
+	public static List<String> parse(String fields) throws ResponseStatusException {
+		List<String> requested = new ArrayList<>();
+		for (String field : fields.split(",")) {
+			String name = field.trim().toLowerCase(Locale.ROOT);
+			if (name.isEmpty()) {
+				continue;
+			}
+			if (!ALL.contains(name)) {
+				throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+						"El campo '" + field.trim() + "' no existe");
+			}
+			requested.add(name);
+		}
+		if (requested.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Debe indicar al menos un campo");
+		}
+		return ALL.stream().filter(requested::contains).toList();
+	}
+
+	/**
+	 * Proyecta un producto sobre los campos seleccionados.
+	 * @param prod El producto.
+	 * @param fields Los campos seleccionados.
+	 * @return Los valores de los campos seleccionados.
+	 */
+	public static Map<String, Object> project(Product prod, List<String> fields) {
+		Map<String, Object> projected = new LinkedHashMap<>();
+		for (String field : fields) {
+			projected.put(field, switch (field) {
+			case "id" -> prod.getId();
+			case "nombre" -> prod.getNombre();
+			case "descripcion" -> prod.getDescripcion();
+			case "precio" -> prod.getPrecio();
+			case "cantidad" -> prod.getCantidad();
+			default -> throw new IllegalArgumentException(field);
+			});
+		}
+		return projected;
+	}
+
+	/**
+	 * Proyecta una lista de productos sobre los campos seleccionados.
+	 * @param prods Los productos.
+	 * @param fields Los campos seleccionados.
+	 * @return Los valores de los campos seleccionados de cada producto, en el mismo orden.
+	 */
+	public static List<Map<String, Object>> project(List<Product> prods, List<String> fields) {
+		List<Map<String, Object>> projected = new ArrayList<>(prods.size());
+		prods.forEach(prod -> projected.add(project(prod, fields)));
+		return projected;
+	}
+}
@@ -0,0 +1,77 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Aplica {@link LoadShedding} a las peticiones a la API en el modo reactivo. El
+ * lugar de la petición se libera cuando termina de escribirse la respuesta,
+ * incluso si el cliente cancela un listado transmitido.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnExpression("${productos.limite-peticiones.habilitado:false} or ${productos.descarte.habilitado:false}")
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ReactiveLoadSheddingFilter implements WebFilter {
+
+	private final LoadShedding loadShedding;
+
+	private final ObjectMapper objectMapper;
+
+	public ReactiveLoadSheddingFilter(LoadShedding loadShedding, ObjectMapper objectMapper) {
+		this.loadShedding = loadShedding;
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		ServerHttpRequest request = exchange.getRequest();
+		String path = request.getPath().value();
+		if (!path.startsWith("/api/")) {
+			return chain.filter(exchange);
+		}
+		LoadShedding.Admission admission;
+		try {
+			admission = loadShedding.admit(loadShedding.clientOf(request.getHeaders()::getFirst, remoteAddress(request)),
+					request.getMethod().name(), path, request.getQueryParams()::getFirst);
+		} catch (RetryLaterException e) {
+			return reject(exchange.getResponse(), e);
+		}
+		return chain.filter(exchange).doFinally(signal -> admission.release());
+	}
+
+	private Mono<Void> reject(ServerHttpResponse response, RetryLaterException e) {
+		byte[] body;
+		try {
+			body = objectMapper.writeValueAsBytes(Collections.singletonMap("message", e.getReason()));
+		} catch (JsonProcessingException ex) {
+			return Mono.error(ex);
+		}
+		response.setStatusCode(e.getStatusCode());
+		response.getHeaders().addAll(e.getHeaders());
+		response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+		return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+	}
+
+	private static String remoteAddress(ServerHttpRequest request) {
+		InetSocketAddress address = request.getRemoteAddress();
+		return address == null || address.getAddress() == null ? "" : address.getAddress().getHostAddress();
+	}
+}
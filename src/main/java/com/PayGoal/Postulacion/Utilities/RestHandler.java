@@ -1,21 +1,47 @@
 package com.PayGoal.Postulacion.Utilities;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.ResponseEntity.BodyBuilder;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.fasterxml.jackson.databind.JsonMappingException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.ConstraintViolationException;
 
 @ControllerAdvice
 public class RestHandler {
 
+	private static final ResponseEntity<?> CONFLICT_RESPONSE = handleMessageResponses(
+			"El producto fue modificado por otra peticion, vuelva a intentarlo", HttpStatus.CONFLICT);
+
+	// contadores de errores por código HTTP y tipo de excepción, para no buscarlos en el registro en cada error
+	private final ConcurrentMap<HttpStatus, ConcurrentMap<Class<?>, Counter>> errorCounters = new ConcurrentHashMap<>();
+
+	private final MeterRegistry meterRegistry;
+
+	public RestHandler(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
 	/**
 	 * Captura las excepciones lanzadas por el argumento de un método con la anotación @Valid y genera una respuesta HTTP.
 	 * 
@@ -30,6 +56,21 @@ public class RestHandler {
 			String errorMessage = error.getDefaultMessage();
 			jsonResponse.put(fieldName, errorMessage);
 		});
+		countError(e, HttpStatus.UNPROCESSABLE_ENTITY);
+		return new ResponseEntity<>(jsonResponse, HttpStatus.UNPROCESSABLE_ENTITY);
+	}
+
+	/**
+	 * Captura las excepciones lanzadas por el argumento de un método con la anotación @Valid en el modo reactivo y genera una respuesta HTTP.
+	 * 
+	 * @param e La excepción capturada.
+	 * @return Una respuesta en formato JSON indicando los errores encontrados.
+	 */
+	@ExceptionHandler(WebExchangeBindException.class)
+	public ResponseEntity<?> handleReactiveValidationExceptions(WebExchangeBindException e) {
+		Map<String, String> jsonResponse = new HashMap<>();
+		e.getBindingResult().getFieldErrors().forEach(error -> jsonResponse.put(error.getField(), error.getDefaultMessage()));
+		countError(e, HttpStatus.UNPROCESSABLE_ENTITY);
 		return new ResponseEntity<>(jsonResponse, HttpStatus.UNPROCESSABLE_ENTITY);
 	}
 
@@ -47,31 +88,89 @@ public class RestHandler {
 			String message = violation.getMessage();
 			jsonResponse.put(error, message);
 		});
+		countError(e, HttpStatus.UNPROCESSABLE_ENTITY);
 		return new ResponseEntity<>(jsonResponse, HttpStatus.UNPROCESSABLE_ENTITY);
 	}
 
 	/**
-	 * Captura las excepciones del tipo ResponseStatusException y genera una respuesta HTTP con la información recibida.
-	 * 
+	 * Captura las excepciones del tipo ResponseStatusException y genera una respuesta HTTP con la información recibida,
+	 * incluyendo los encabezados de la excepción, como el Retry-After de {@link RetryLaterException}.
+	 *
 	 * @param e La excepción capturada.
 	 * @return Una respuesta en formato JSON indicando el error de la excepción.
 	 */
 	@ExceptionHandler(ResponseStatusException.class)
 	public ResponseEntity<?> handleStatusExceptions(ResponseStatusException e) {
-		return handleMessageResponses(e.getReason(), HttpStatus.resolve(e.getStatusCode().value()));
+		HttpStatus status = HttpStatus.resolve(e.getStatusCode().value());
+		countError(e, status);
+		if (!e.getHeaders().isEmpty()) {
+			return new ResponseEntity<>(Collections.singletonMap("message", e.getReason()), e.getHeaders(), status);
+		}
+		return handleMessageResponses(e.getReason(), status);
 	}
 
+	/**
+	 * Captura las excepciones lanzadas al leer un cuerpo que no es un JSON válido o
+	 * cuyos valores no corresponden a sus campos, como un precio con demasiados decimales, y genera una respuesta HTTP.
+	 *
+	 * @param e La excepción capturada.
+	 * @return Una respuesta en formato JSON indicando el campo con el error, si se conoce.
+	 */
+	@ExceptionHandler(HttpMessageNotReadableException.class)
+	public ResponseEntity<?> handleUnreadableMessageExceptions(HttpMessageNotReadableException e) {
+		countError(e, HttpStatus.BAD_REQUEST);
+		if (e.getCause() instanceof Prices.InvalidPriceException cause) {
+			return handleMessageResponses(cause.getOriginalMessage(), HttpStatus.BAD_REQUEST);
+		}
+		if (e.getCause() instanceof JsonMappingException cause && !cause.getPath().isEmpty()) {
+			List<JsonMappingException.Reference> path = cause.getPath();
+			String field = path.get(path.size() - 1).getFieldName();
+			if (field != null) {
+				return handleMessageResponses("El valor del campo '" + field + "' no es valido", HttpStatus.BAD_REQUEST);
+			}
+		}
+		return handleMessageResponses("El cuerpo de la peticion no es un JSON valido", HttpStatus.BAD_REQUEST);
+	}
+
+	/**
+	 * Captura las excepciones lanzadas cuando un producto es modificado en simultáneo por otra operación y genera una respuesta HTTP.
+	 * 
+	 * @param e La excepción capturada.
+	 * @return Una respuesta en formato JSON indicando el conflicto.
+	 */
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ResponseEntity<?> handleOptimisticLockingExceptions(OptimisticLockingFailureException e) {
+		countError(e, HttpStatus.CONFLICT);
+		return CONFLICT_RESPONSE;
+	}
+
+	/**
+	 * Cuenta los errores respondidos según su código HTTP y el tipo de excepción.
+	 * @param e La excepción capturada.
+	 * @param status El código HTTP de la respuesta.
+	 */
+	private void countError(Exception e, HttpStatus status) {
+		ConcurrentMap<Class<?>, Counter> counters = errorCounters.computeIfAbsent(status,
+				key -> new ConcurrentHashMap<>());
+		Counter counter = counters.get(e.getClass());
+		if (counter == null) {
+			counter = counters.computeIfAbsent(e.getClass(), type -> Counter.builder("productos.errores")
+					.description("Errores respondidos por codigo HTTP y tipo de excepcion")
+					.tag("estado", String.valueOf(status.value())).tag("excepcion", type.getSimpleName())
+					.register(meterRegistry));
+		}
+		counter.increment();
+	}
 	
 	/**
-	 * Genera una respuesta HTTP con un mensaje.
+	 * Genera una respuesta HTTP con un mensaje. El cuerpo es un mapa inmutable de
+	 * un solo elemento, que no reserva una tabla como un HashMap.
 	 * @param message El mensaje a enviar.
 	 * @param status El código HTTP de la respuesta.
 	 * @return Una respuesta en formato JSON con el mensaje recibido.
 	 */
 	public static ResponseEntity<?> handleMessageResponses(String message, HttpStatus status) {
-		Map<String, String> jsonResponse = new HashMap<>();
-		jsonResponse.put("message", message);
-		return new ResponseEntity<>(jsonResponse, status);
+		return new ResponseEntity<>(Collections.singletonMap("message", message), status);
 	}
 
 	
@@ -84,4 +183,81 @@ public class RestHandler {
 	public static ResponseEntity<?> handleDataResponses(Object data, HttpStatus status) {
 		return new ResponseEntity<>(data, status);
 	}
+
+	/**
+	 * Genera el ETag de una versión de un producto. Es débil, ya que la misma
+	 * versión se envía en distintos formatos y comprimida o sin comprimir.
+	 * @param version La versión del producto.
+	 * @return El ETag débil, con comillas.
+	 */
+	private static String versionETag(Long version) {
+		return "W/\"" + version + "\"";
+	}
+
+	/*
+	 * Las respuestas que pueden almacenarse en caché o verificarse con su ETag
+	 * indican que su formato depende del encabezado Accept (JSON o Smile), para que
+	 * un caché compartido no entregue un formato a un cliente que pidió otro.
+	 */
+
+	/**
+	 * Genera una respuesta con un elemento versionado a una petición HTTP, informando su versión como ETag débil.
+	 * @param data El elemento a enviar.
+	 * @param version La versión del elemento, puede ser null.
+	 * @param status El código HTTP de la respuesta.
+	 * @return Una respuesta en formato JSON con el elemento recibido.
+	 */
+	public static ResponseEntity<?> handleVersionedDataResponses(Object data, Long version, HttpStatus status) {
+		if (version == null) {
+			return handleDataResponses(data, status);
+		}
+		return ResponseEntity.status(status).eTag(versionETag(version)).varyBy(HttpHeaders.ACCEPT).body(data);
+	}
+
+	/**
+	 * Genera una respuesta con un elemento versionado a una petición HTTP, informando su versión como ETag débil e
+	 * indicando cómo puede almacenarse en caché. Si el cliente ya tiene esa versión se responde 304 sin cuerpo.
+	 * @param data El elemento a enviar.
+	 * @param version La versión del elemento, puede ser null.
+	 * @param cacheControl La política de caché de la respuesta.
+	 * @param status El código HTTP de la respuesta.
+	 * @return Una respuesta en formato JSON con el elemento recibido.
+	 */
+	public static ResponseEntity<?> handleVersionedDataResponses(Object data, Long version, CacheControl cacheControl,
+			HttpStatus status) {
+		BodyBuilder response = ResponseEntity.status(status).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT);
+		if (version != null) {
+			response.eTag(versionETag(version));
+		}
+		return response.body(data);
+	}
+
+	/**
+	 * Genera una respuesta con un elemento del catálogo a una petición HTTP, informando la versión del catálogo
+	 * como ETag y fecha de modificación, e indicando cómo puede almacenarse en caché. La versión debe obtenerse
+	 * antes de consultar el elemento, y se informa solo en las respuestas exitosas o 304, no en los errores.
+	 * @param data El elemento a enviar, o null en una respuesta 304.
+	 * @param eTag El ETag de la versión del catálogo.
+	 * @param lastModified El momento del último cambio del catálogo, en milisegundos desde la época Unix.
+	 * @param cacheControl La política de caché de la respuesta.
+	 * @param status El código HTTP de la respuesta.
+	 * @return Una respuesta en formato JSON con el elemento recibido.
+	 */
+	public static <T> ResponseEntity<T> handleCacheableDataResponses(T data, String eTag, long lastModified,
+			CacheControl cacheControl, HttpStatus status) {
+		return ResponseEntity.status(status).eTag(eTag).lastModified(lastModified).cacheControl(cacheControl)
+				.varyBy(HttpHeaders.ACCEPT).body(data);
+	}
+
+	/**
+	 * Genera una respuesta con un elemento a una petición HTTP, indicando cómo puede almacenarse en caché.
+	 * @param data El elemento a enviar.
+	 * @param cacheControl La política de caché de la respuesta.
+	 * @param status El código HTTP de la respuesta.
+	 * @return Una respuesta en formato JSON con el elemento recibido.
+	 */
+	public static ResponseEntity<?> handleCacheableDataResponses(Object data, CacheControl cacheControl,
+			HttpStatus status) {
+		return ResponseEntity.status(status).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT).body(data);
+	}
 }
@@ -0,0 +1,40 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Error de una petición rechazada por sobrecarga, respondido por
+ * {@link RestHandler} con el encabezado Retry-After para indicar al cliente
+ * cuándo volver a intentarlo.
+ * <p>
+ * Se lanza justamente cuando el servidor está saturado, por lo que, como
+ * {@link NotFoundException}, no registra su traza de ejecución.
+ */
+public class RetryLaterException extends ResponseStatusException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final HttpHeaders headers = new HttpHeaders();
+
+	/**
+	 * @param status El código HTTP de la respuesta.
+	 * @param reason El mensaje de la respuesta.
+	 * @param retryAfterSeconds Los segundos que el cliente debería esperar antes de reintentar.
+	 */
+	public RetryLaterException(HttpStatus status, String reason, long retryAfterSeconds) {
+		super(status, reason);
+		headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+	}
+
+	@Override
+	public HttpHeaders getHeaders() {
+		return headers;
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return this;
+	}
+}
@@ -0,0 +1,33 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normaliza textos para búsquedas: elimina acentos y diacríticos, pasa a
+ * minúsculas y colapsa los espacios.
+ */
+public final class TextNormalizer {
+
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private TextNormalizer() {
+	}
+
+	/**
+	 * Normaliza un texto.
+	 * @param text El texto a normalizar.
+	 * @return El texto normalizado, o null si el texto recibido es null.
+	 */
+	public static String normalize(String text) {
+		if (text == null) {
+			return null;
+		}
+		String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+		String folded = DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+		return WHITESPACE.matcher(folded).replaceAll(" ").trim();
+	}
+}
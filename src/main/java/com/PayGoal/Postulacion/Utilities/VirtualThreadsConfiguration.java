@@ -0,0 +1,65 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+/**
+ * Modo de ejecución con hilos virtuales: cada petición HTTP, y cada tarea
+ * asíncrona como las exportaciones, se atiende en un hilo virtual en lugar de
+ * ocupar un hilo del pool del servidor mientras espera a la Base de Datos.
+ * <p>
+ * Requiere ejecutar la aplicación sobre Java 21 o superior. El proyecto se
+ * sigue compilando para Java 17, por lo que el ejecutor de hilos virtuales se
+ * obtiene en tiempo de ejecución.
+ */
+@Configuration
+@ConditionalOnProperty(name = "productos.hilos-virtuales.habilitado", havingValue = "true")
+public class VirtualThreadsConfiguration {
+
+	/**
+	 * Ejecutor que crea un hilo virtual por tarea.
+	 * @return El ejecutor de hilos virtuales.
+	 * @throws IllegalStateException - En caso de que la JVM no soporte hilos virtuales.
+	 */
+	@Bean
+	ExecutorService virtualThreadExecutor() throws IllegalStateException {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalStateException("Los hilos virtuales requieren Java 21 o superior, version actual: "
+					+ Runtime.version(), e);
+		}
+	}
+
+	/**
+	 * Reemplaza el pool de hilos de Tomcat por el ejecutor de hilos virtuales.
+	 * @param virtualThreadExecutor El ejecutor de hilos virtuales.
+	 * @return El configurador del conector de Tomcat.
+	 */
+	@Bean
+	TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+		return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+	}
+
+	/**
+	 * Ejecutor de las tareas asíncronas de la aplicación, incluidas las respuestas
+	 * de Spring MVC que se escriben fuera del hilo de la petición.
+	 * @param virtualThreadExecutor El ejecutor de hilos virtuales.
+	 * @return El ejecutor de tareas asíncronas.
+	 */
+	@Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+			AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME })
+	AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+		return new TaskExecutorAdapter(virtualThreadExecutor);
+	}
+}
@@ -1,38 +1,75 @@
 package com.PayGoal.Postulacion.Controllers;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Sort.Direction;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.PayGoal.Postulacion.Models.CacheStatistics;
+import com.PayGoal.Postulacion.Models.CatalogStatistics;
 import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Models.ProductBatchResult;
+import com.PayGoal.Postulacion.Models.ProductChange;
+import com.PayGoal.Postulacion.Models.ProductChangePage;
+import com.PayGoal.Postulacion.Models.ProductFilter;
+import com.PayGoal.Postulacion.Models.ProductLookup;
+import com.PayGoal.Postulacion.Models.ProductPage;
+import com.PayGoal.Postulacion.Models.ProductSlice;
+import com.PayGoal.Postulacion.Models.StockReservation;
+import com.PayGoal.Postulacion.Services.CatalogVersion;
 import com.PayGoal.Postulacion.Services.ProductService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
 
 @WebMvcTest(ProductController.class)
+@Import({ CatalogVersion.class, SimpleMeterRegistry.class })
 class ProductControllerIntegrationTest {
 
+	private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
 	@Autowired
 	private MockMvc mockMvc;
 
@@ -42,6 +79,12 @@ class ProductControllerIntegrationTest {
 	@Autowired
 	private ObjectMapper objectMapper;
 
+	@Autowired
+	private CatalogVersion catalogVersion;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
 	/**
 	 * Prueba que el servidor envíe una lista de productos ordenados según su precio
 	 * en orden ascendente en caso de que se encuentren al menos dos productos en la
@@ -70,6 +113,65 @@ class ProductControllerIntegrationTest {
 		verify(service).getAllProductsOrderedByPrice(Direction.ASC);
 	}
 
+	/**
+	 * Prueba que el servidor responda 304 sin consultar la Base de Datos en caso de
+	 * que el cliente ya tenga la versión actual del catálogo, y que vuelva a enviar
+	 * los productos luego de un cambio.
+	 */
+	@Test
+	void testGetProductsPriceOrderedNotModified() throws Exception {
+		String etag = catalogVersion.getETag();
+		this.mockMvc.perform(get("/api/productos?orden=ASC").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified()).andExpect(header().string(HttpHeaders.ETAG, etag))
+				.andExpect(content().string(""));
+		verify(service, Mockito.never()).getAllProductsOrderedByPrice(any());
+
+		catalogVersion.onProductChange(null);
+		Mockito.doReturn(List.of()).when(service).getAllProductsOrderedByPrice(Direction.ASC);
+		this.mockMvc.perform(get("/api/productos?orden=ASC").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, catalogVersion.getETag()))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+	}
+
+	/**
+	 * Prueba que el servidor responda 304 según la fecha de modificación del
+	 * catálogo, y que los errores no informen la versión del catálogo.
+	 */
+	@Test
+	void testCatalogVersionOnlyInSuccessfulResponses() throws Exception {
+		String lastModified = DateTimeFormatter.RFC_1123_DATE_TIME
+				.format(Instant.ofEpochMilli(catalogVersion.getLastModified()).atZone(ZoneOffset.UTC));
+		this.mockMvc.perform(get("/api/productos?nombre=producto").header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+				.andExpect(status().isNotModified());
+		Mockito.doThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "No encontrado")).when(service)
+				.getProductsByName("producto");
+		this.mockMvc.perform(get("/api/productos?nombre=producto")).andExpect(status().isNotFound())
+				.andExpect(header().doesNotExist(HttpHeaders.ETAG))
+				.andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+		this.mockMvc.perform(get("/api/productos?orden=ASC&campos=stock")).andExpect(status().isUnprocessableEntity())
+				.andExpect(header().doesNotExist(HttpHeaders.ETAG));
+		verify(service).getProductsByName("producto");
+	}
+
+	/**
+	 * Prueba que el servidor envíe solo los campos solicitados de los productos
+	 * ordenados según su precio, y que informe los campos inexistentes.
+	 */
+	@Test
+	void testGetProductFieldsPriceOrdered() throws Exception {
+		List<Map<String, Object>> products = List.of(Map.of("id", 2, "precio", 5), Map.of("id", 1, "precio", 10));
+		Mockito.doReturn(products).when(service).getProductFieldsOrderedByPrice(Direction.ASC,
+				List.of("id", "precio"));
+		this.mockMvc.perform(get("/api/productos?orden=ASC&campos=precio,id")).andExpect(status().isOk())
+				.andExpect(content().json(objectMapper.writeValueAsString(products), true));
+		this.mockMvc.perform(get("/api/productos?orden=ASC&campos=precio,stock"))
+				.andExpect(status().isUnprocessableEntity())
+				.andExpect(content().json(objectMapper.writeValueAsString(
+						Map.of("message", "El campo 'stock' no existe"))));
+		verify(service, Mockito.never()).getAllProductsOrderedByPrice(any());
+	}
+
 	/**
 	 * Prueba que el servidor envíe una lista de productos ordenados según su precio
 	 * en orden descendente en caso de que se encuentren al menos dos productos en
@@ -116,6 +218,102 @@ class ProductControllerIntegrationTest {
 		verify(service).getAllProductsOrderedByPrice(Direction.ASC);
 	}
 
+	/**
+	 * Prueba que el servidor envíe una página de productos ordenados según su
+	 * precio junto al cursor de la página siguiente.
+	 */
+	@Test
+	void testGetProductsPagePriceOrdered() throws Exception {
+		List<Product> products = List.of(
+				new Product(Long.valueOf(2), "producto B", "El producto N°2 de la base de datos",
+						BigDecimal.valueOf(5), Long.valueOf(250)),
+				new Product(Long.valueOf(1), "producto A", "El producto N°1 de la base de datos",
+						BigDecimal.valueOf(10), Long.valueOf(10)));
+		ProductPage page = new ProductPage(products, "QVNDOjEwOjE");
+		Mockito.doReturn(page).when(service).getProductsPageOrderedByPrice(Direction.ASC, "QVNDOjU6Mg", 2);
+		final String expectedResponseContent = objectMapper.writeValueAsString(page);
+		this.mockMvc.perform(get("/api/productos?orden=ASC&limite=2&cursor=QVNDOjU6Mg")).andExpect(status().isOk())
+				.andExpect(content().json(expectedResponseContent));
+		verify(service).getProductsPageOrderedByPrice(Direction.ASC, "QVNDOjU6Mg", 2);
+	}
+
+	/**
+	 * Prueba que el servidor rechace con un mensaje un precio con más de dos
+	 * decimales y un cuerpo que no es un JSON válido.
+	 */
+	@Test
+	void testCreateProductWithUnreadableBody() throws Exception {
+		this.mockMvc.perform(post("/api/productos/").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"nombre\":\"cafe\",\"descripcion\":\"molido\",\"precio\":1.234,\"cantidad\":1}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().json(objectMapper.writeValueAsString(
+						Map.of("message", "El precio no puede tener mas de 2 decimales")), true));
+		this.mockMvc.perform(post("/api/productos/").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"nombre\":\"cafe\",\"cantidad\":\"uno\"}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().json(objectMapper.writeValueAsString(
+						Map.of("message", "El valor del campo 'cantidad' no es valido")), true));
+		this.mockMvc.perform(post("/api/productos/").contentType(MediaType.APPLICATION_JSON).content("{\"nombre\":"))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().json(objectMapper.writeValueAsString(
+						Map.of("message", "El cuerpo de la peticion no es un JSON valido")), true));
+		verify(service, Mockito.never()).createProduct(any());
+	}
+
+	/**
+	 * Prueba que el servidor envíe un mensaje de error en caso de que se pida una
+	 * página más grande que el máximo permitido.
+	 */
+	@Test
+	void testGetProductsPageOverLimit() throws Exception {
+		this.mockMvc.perform(get("/api/productos?orden=ASC&limite=" + (ProductService.MAX_PAGE_SIZE + 1)))
+				.andExpect(status().isUnprocessableEntity());
+	}
+
+	/**
+	 * Prueba que el servidor exporte los productos ordenados según su precio en
+	 * formato NDJSON, un producto por línea.
+	 */
+	@Test
+	void testExportProducts() throws Exception {
+		List<Product> products = List.of(
+				new Product(Long.valueOf(2), "producto B", "El producto N°2 de la base de datos",
+						BigDecimal.valueOf(5), Long.valueOf(250)),
+				new Product(Long.valueOf(1), "producto A", "El producto N°1 de la base de datos",
+						BigDecimal.valueOf(10), Long.valueOf(10)));
+		Mockito.doAnswer(invocation -> {
+			Consumer<Product> consumer = invocation.getArgument(1);
+			products.forEach(consumer);
+			return null;
+		}).when(service).exportAllProductsOrderedByPrice(eq(Direction.ASC), any());
+		final String expectedResponseContent = objectMapper.writeValueAsString(products.get(0)) + "\n"
+				+ objectMapper.writeValueAsString(products.get(1)) + "\n";
+		MvcResult result = this.mockMvc.perform(get("/api/productos/exportar?orden=ASC"))
+				.andExpect(request().asyncStarted()).andReturn();
+		this.mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+				.andExpect(content().bytes(expectedResponseContent.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Prueba que el servidor transmita el snapshot CSV escrito por el servicio.
+	 */
+	@Test
+	void testExportSnapshot() throws Exception {
+		final String expectedResponseContent = "id,nombre,descripcion,precio,cantidad,version\n1,producto A,El producto N°1 de la base de datos,10,10,0\n";
+		Mockito.doAnswer(invocation -> {
+			Writer writer = invocation.getArgument(0);
+			writer.write(expectedResponseContent);
+			return 1L;
+		}).when(service).exportSnapshot(any());
+		MvcResult result = this.mockMvc.perform(get("/api/productos/snapshot")).andExpect(request().asyncStarted())
+				.andReturn();
+		this.mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+				.andExpect(content().contentType("text/csv;charset=UTF-8"))
+				.andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"productos.csv\""))
+				.andExpect(content().bytes(expectedResponseContent.getBytes(StandardCharsets.UTF_8)));
+	}
+
 	/**
 	 * Prueba que el servidor envíe el resultado esperado en caso de que se
 	 * encuentre un producto con el id recibido como parámetro en la Base de Datos.
@@ -132,6 +330,119 @@ class ProductControllerIntegrationTest {
 		verify(service).getProductById(Long.valueOf(1));
 	}
 
+	/**
+	 * Prueba que el servidor envíe los productos encontrados y los Ids faltantes en
+	 * caso de que se consulten varios productos por Id.
+	 */
+	@Test
+	void testGetProductsByIds() throws Exception {
+		ProductLookup lookup = new ProductLookup();
+		lookup.getProductos().add(new Product(Long.valueOf(1), "producto A", "El producto N°1 de la base de datos",
+				BigDecimal.valueOf(10), Long.valueOf(10)));
+		lookup.getFaltantes().add(Long.valueOf(9));
+		Mockito.doReturn(lookup).when(service).getProductsByIds(List.of(1L, 9L));
+		final String expectedResponseContent = objectMapper.writeValueAsString(lookup);
+		this.mockMvc.perform(get("/api/productos").param("ids", "1,9")).andExpect(status().isOk())
+				.andExpect(content().json(expectedResponseContent));
+		this.mockMvc
+				.perform(post("/api/productos/ids").content("[1,9]").contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk()).andExpect(content().json(expectedResponseContent));
+		verify(service, Mockito.times(2)).getProductsByIds(List.of(1L, 9L));
+	}
+
+	/**
+	 * Prueba que el servidor envíe un mensaje de error en caso de que se consulten
+	 * más productos por Id que los permitidos.
+	 */
+	@Test
+	void testGetProductsByIdsOverLimit() throws Exception {
+		List<Long> ids = new ArrayList<>();
+		for (long id = 1; id <= ProductService.MAX_LOOKUP_SIZE + 1; id++) {
+			ids.add(id);
+		}
+		this.mockMvc
+				.perform(post("/api/productos/ids").content(objectMapper.writeValueAsString(ids))
+						.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isUnprocessableEntity());
+		Mockito.verify(service, Mockito.never()).getProductsByIds(any());
+	}
+
+	/**
+	 * Prueba que el servidor envíe un mensaje de error en caso de que la búsqueda
+	 * por Ids se combine con otros criterios.
+	 */
+	@Test
+	void testGetProductsByIdsWithOtherCriteria() throws Exception {
+		this.mockMvc.perform(get("/api/productos").param("ids", "1").param("nombre", "producto"))
+				.andExpect(status().isUnprocessableEntity())
+				.andExpect(content().json(objectMapper.writeValueAsString(
+						Map.of("message", "La busqueda por Ids no puede combinarse con otros criterios"))));
+		this.mockMvc.perform(get("/api/productos").param("ids", "1").param("orden", "ASC"))
+				.andExpect(status().isUnprocessableEntity());
+		this.mockMvc.perform(get("/api/productos").param("ids", "1").param("orden", "ASC").param("limite", "5"))
+				.andExpect(status().isUnprocessableEntity());
+		Mockito.verify(service, Mockito.never()).getProductsByIds(any());
+	}
+
+	/**
+	 * Prueba que el servidor envíe un producto en formato Smile en caso de que el
+	 * cliente lo solicite.
+	 */
+	@Test
+	void testGetProductByIdSmile() throws Exception {
+		Product prod = new Product(Long.valueOf(1), "producto A", "El producto N°1 de la base de datos",
+				BigDecimal.valueOf(10), Long.valueOf(10));
+		Mockito.doReturn(prod).when(service).getProductById(Long.valueOf(1));
+		MvcResult result = this.mockMvc.perform(get("/api/productos/1").accept(SMILE))
+				.andExpect(status().isOk()).andExpect(content().contentType(SMILE))
+				.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT)).andReturn();
+		assertEquals(prod, new SmileMapper().readValue(result.getResponse().getContentAsByteArray(), Product.class));
+	}
+
+	/**
+	 * Prueba que el servidor responda 304 sin cuerpo en caso de que el cliente ya
+	 * tenga la versión actual del producto.
+	 */
+	@Test
+	void testGetProductByIdNotModified() throws Exception {
+		Product prod = new Product(Long.valueOf(1), "producto A", "El producto N°1 de la base de datos",
+				BigDecimal.valueOf(10), Long.valueOf(10));
+		prod.setVersion(Long.valueOf(3));
+		Mockito.doReturn(prod).when(service).getProductById(Long.valueOf(1));
+		this.mockMvc.perform(get("/api/productos/1").header(HttpHeaders.IF_NONE_MATCH, "W/\"3\""))
+				.andExpect(status().isNotModified()).andExpect(content().string(""))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+	}
+
+	/**
+	 * Prueba que el servidor envíe las estadísticas de uso del caché de productos.
+	 */
+	@Test
+	void testGetCacheStatistics() throws Exception {
+		Map<String, CacheStatistics> statistics = Map.of("porId", new CacheStatistics(10, 2, 0, 2), "porNombre",
+				new CacheStatistics(0, 1, 0, 1));
+		Mockito.doReturn(statistics).when(service).getCacheStatistics();
+		final String expectedResponseContent = objectMapper.writeValueAsString(statistics);
+		this.mockMvc.perform(get("/api/productos/cache")).andExpect(status().isOk())
+				.andExpect(content().json(expectedResponseContent));
+		verify(service).getCacheStatistics();
+	}
+
+	/**
+	 * Prueba que el servidor envíe las estadísticas del catálogo.
+	 */
+	@Test
+	void testGetCatalogStatistics() throws Exception {
+		CatalogStatistics statistics = new CatalogStatistics(2, 3, new BigDecimal("25.00"), new BigDecimal("5.00"),
+				new BigDecimal("10.00"), new BigDecimal("7.50"), Map.of("p50", new BigDecimal("5.00")));
+		Mockito.doReturn(statistics).when(service).getCatalogStatistics();
+		final String expectedResponseContent = objectMapper.writeValueAsString(statistics);
+		this.mockMvc.perform(get("/api/productos/estadisticas")).andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, catalogVersion.getETag()))
+				.andExpect(content().json(expectedResponseContent));
+		verify(service).getCatalogStatistics();
+	}
+
 	/**
 	 * Prueba que el servidor envíe un mensaje de error en caso de que no se
 	 * encuentre un producto con el id recibido como parámetro en la Base de Datos.
@@ -149,6 +460,52 @@ class ProductControllerIntegrationTest {
 		verify(service).getProductById(Long.valueOf(1));
 	}
 
+	/**
+	 * Prueba que el servidor envíe los cambios posteriores a la secuencia recibida.
+	 */
+	@Test
+	void testGetChanges() throws Exception {
+		ProductChange change = new ProductChange();
+		change.setSecuencia(Long.valueOf(4));
+		change.setTipo(ProductChange.Tipo.ELIMINADO);
+		change.setIdProducto(Long.valueOf(1));
+		ProductChangePage page = new ProductChangePage(List.of(change), 4);
+		Mockito.doReturn(Mono.just(page)).when(service).awaitChangesSince(3, 100, Duration.ZERO);
+		MvcResult result = this.mockMvc.perform(get("/api/productos/cambios").param("desde", "3"))
+				.andExpect(request().asyncStarted()).andReturn();
+		this.mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+				.andExpect(content().json(objectMapper.writeValueAsString(page)));
+	}
+
+	/**
+	 * Prueba que el servidor responda 410 en caso de que los cambios posteriores a
+	 * la secuencia recibida ya no se conserven.
+	 */
+	@Test
+	void testGetChangesNoLongerRetained() throws Exception {
+		Mockito.doThrow(new ResponseStatusException(HttpStatus.GONE,
+				"Los cambios posteriores a la secuencia recibida ya no se conservan, vuelva a obtener el catalogo"))
+				.when(service).awaitChangesSince(0, 100, Duration.ofSeconds(10));
+		this.mockMvc.perform(get("/api/productos/cambios").param("desde", "0").param("espera", "10"))
+				.andExpect(status().isGone());
+	}
+
+	/**
+	 * Prueba que los errores respondidos se cuenten según su código HTTP.
+	 */
+	@Test
+	void testErrorResponsesAreCounted() throws Exception {
+		Counter errors = meterRegistry.counter("productos.errores", "estado", "404", "excepcion",
+				"ResponseStatusException");
+		double previous = errors.count();
+		Mockito.doThrow(new ResponseStatusException(HttpStatus.NOT_FOUND,
+				"No se ha encontrado un producto con el id: '1'")).when(service).getProductById(Long.valueOf(1));
+		this.mockMvc.perform(get("/api/productos/1")).andExpect(status().isNotFound());
+		this.mockMvc.perform(get("/api/productos/1")).andExpect(status().isNotFound());
+		// el registro se comparte con las demás pruebas del contexto
+		assertEquals(previous + 2, errors.count());
+	}
+
 	/**
 	 * Prueba que el servidor envíe el resultado esperado en caso de que se
 	 * encuentre al menos un producto con el nombre recibido como parámetro en la
@@ -189,6 +546,82 @@ class ProductControllerIntegrationTest {
 		verify(service).getProductsByName("producto con copias");
 	}
 
+	/**
+	 * Prueba que el servidor envíe los productos cuyo nombre contiene el texto
+	 * buscado.
+	 */
+	@Test
+	void testSearchProducts() throws Exception {
+		List<Product> products = List.of(new Product(Long.valueOf(1), "Café molido", "El producto N°1 de la base de datos",
+				BigDecimal.valueOf(10), Long.valueOf(10)));
+		Mockito.doReturn(products).when(service).searchProductsByName("cafe", true, 5);
+		final String expectedResponseContent = objectMapper.writeValueAsString(products);
+		this.mockMvc.perform(get("/api/productos/buscar?texto=cafe&modo=prefijo&limite=5")).andExpect(status().isOk())
+				.andExpect(content().json(expectedResponseContent));
+		verify(service).searchProductsByName("cafe", true, 5);
+	}
+
+	/**
+	 * Prueba que el servidor envíe los productos más caros dentro de un rango de
+	 * precios.
+	 */
+	@Test
+	void testGetProductsInPriceRange() throws Exception {
+		List<Product> products = List.of(
+				new Product(Long.valueOf(3), "producto C", "El producto N°3 de la base de datos",
+						BigDecimal.valueOf(100), Long.valueOf(5)),
+				new Product(Long.valueOf(1), "producto A", "El producto N°1 de la base de datos",
+						BigDecimal.valueOf(10), Long.valueOf(10)));
+		Mockito.doReturn(products).when(service).getProductsInPriceRange(BigDecimal.valueOf(10), null,
+				Direction.DESC, 2);
+		final String expectedResponseContent = objectMapper.writeValueAsString(products);
+		this.mockMvc.perform(get("/api/productos/precios?minimo=10&orden=DESC&limite=2")).andExpect(status().isOk())
+				.andExpect(content().json(expectedResponseContent));
+		verify(service).getProductsInPriceRange(BigDecimal.valueOf(10), null, Direction.DESC, 2);
+	}
+
+	/**
+	 * Prueba que el servidor envíe una página de productos filtrados según los
+	 * criterios recibidos.
+	 */
+	@Test
+	void testGetFilteredProducts() throws Exception {
+		ProductSlice slice = new ProductSlice(List.of(new Product(Long.valueOf(2), "producto B",
+				"El producto N°2 de la base de datos", BigDecimal.valueOf(5), Long.valueOf(250))), 1, 2);
+		ProductFilter filter = new ProductFilter(BigDecimal.valueOf(1), BigDecimal.valueOf(50), Long.valueOf(100),
+				"prod");
+		Mockito.doReturn(slice).when(service).getFilteredProducts(filter, "cantidad", Direction.DESC, 1, 1, null);
+		final String expectedResponseContent = objectMapper.writeValueAsString(slice);
+		this.mockMvc.perform(get(
+				"/api/productos/filtrar?precioMinimo=1&precioMaximo=50&cantidadMinima=100&nombre=prod&ordenarPor=cantidad&orden=DESC&pagina=1&limite=1"))
+				.andExpect(status().isOk()).andExpect(content().json(expectedResponseContent));
+		verify(service).getFilteredProducts(filter, "cantidad", Direction.DESC, 1, 1, null);
+	}
+
+	/**
+	 * Prueba que el servidor envíe un mensaje de error en caso de recibir un precio
+	 * negativo como límite del rango.
+	 */
+	@Test
+	void testGetProductsInNegativePriceRange() throws Exception {
+		Map<String, String> message = Map.of("getProductsInPriceRange.min", "El precio minimo no puede ser menor a $0");
+		this.mockMvc.perform(get("/api/productos/precios?minimo=-1")).andExpect(status().isUnprocessableEntity())
+				.andExpect(content().json(objectMapper.writeValueAsString(message)));
+		verify(service, Mockito.never()).getProductsInPriceRange(any(), any(), any(), Mockito.anyInt());
+	}
+
+	/**
+	 * Prueba que el servidor envíe un mensaje de error en caso de que se pida un
+	 * modo de búsqueda inexistente.
+	 */
+	@Test
+	void testSearchProductsInvalidMode() throws Exception {
+		Map<String, String> message = Map.of("message", "El modo de busqueda solicitado no existe");
+		final String expectedResponseContent = objectMapper.writeValueAsString(message);
+		this.mockMvc.perform(get("/api/productos/buscar?texto=cafe&modo=exacto"))
+				.andExpect(status().isUnprocessableEntity()).andExpect(content().json(expectedResponseContent));
+	}
+
 	/**
 	 * Prueba que el servidor envíe un mensaje de éxito en caso de que se intente
 	 * cargar un producto valido a la Base de Datos.
@@ -228,6 +661,39 @@ class ProductControllerIntegrationTest {
 				.andExpect(status().isUnprocessableEntity()).andExpect(content().json(expectedResponseContent));
 	}
 
+	/**
+	 * Prueba que el servidor envíe el resultado de la carga en caso de que se
+	 * intente cargar un lote de productos a la Base de Datos.
+	 */
+	@Test
+	void testCreateProducts() throws Exception {
+		List<Product> products = List.of(
+				new Product(null, "producto A", "El producto N°1 de la base de datos", BigDecimal.valueOf(10),
+						Long.valueOf(10)),
+				new Product(null, "producto B", "El producto N°2 de la base de datos", BigDecimal.valueOf(-5),
+						Long.valueOf(250)));
+		ProductBatchResult result = new ProductBatchResult();
+		result.getCreados().add(Long.valueOf(1));
+		result.getErrores().put(1, Map.of("precio", "El precio no puede ser menor a $0"));
+		Mockito.doReturn(result).when(service).createProducts(products);
+		final String expectedResponseContent = objectMapper.writeValueAsString(result);
+		this.mockMvc
+				.perform(post("/api/productos/lote").content(objectMapper.writeValueAsString(products))
+						.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk()).andExpect(content().json(expectedResponseContent));
+		verify(service).createProducts(products);
+	}
+
+	/**
+	 * Prueba que el servidor envíe un mensaje de error en caso de que se intente
+	 * cargar un lote vacío.
+	 */
+	@Test
+	void testCreateEmptyProductBatch() throws Exception {
+		this.mockMvc.perform(post("/api/productos/lote").content("[]").contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isUnprocessableEntity());
+	}
+
 	/**
 	 * Prueba que el servidor envíe el resultado esperado en el caso de que se
 	 * intente actualizar un producto existente en la Base de Datos.
@@ -240,13 +706,49 @@ class ProductControllerIntegrationTest {
 		Product newProd = new Product(null, "producto A modificado", null, null, null);
 		Product resultingProd = new Product(Long.valueOf(1), "producto A modificado",
 				"El producto N°1 de la base de datos", BigDecimal.valueOf(10), Long.valueOf(10));
-		Mockito.doReturn(resultingProd).when(service).updateProduct(Long.valueOf(1), newProd);
+		Mockito.doReturn(resultingProd).when(service).updateProduct(Long.valueOf(1), newProd, null);
 		final String expectedResponseContent = objectMapper.writeValueAsString(resultingProd);
 		this.mockMvc
 				.perform(patch("/api/productos/1").content(objectMapper.writeValueAsString(newProd))
 						.contentType(MediaType.APPLICATION_JSON))
 				.andExpect(status().isOk()).andExpect(content().json(expectedResponseContent));
-		verify(service).updateProduct(Long.valueOf(1), newProd);
+		verify(service).updateProduct(Long.valueOf(1), newProd, null);
+	}
+
+	/**
+	 * Prueba que el servidor envíe la versión del producto actualizado como ETag y
+	 * que utilice la versión recibida en el encabezado If-Match.
+	 */
+	@Test
+	void testUpdateProductIfMatch() throws Exception {
+		Product newProd = new Product(null, "producto A modificado", null, null, null);
+		Product resultingProd = new Product(Long.valueOf(1), "producto A modificado",
+				"El producto N°1 de la base de datos", BigDecimal.valueOf(10), Long.valueOf(10));
+		resultingProd.setVersion(Long.valueOf(4));
+		Mockito.doReturn(resultingProd).when(service).updateProduct(Long.valueOf(1), newProd, Long.valueOf(3));
+		this.mockMvc
+				.perform(patch("/api/productos/1").content(objectMapper.writeValueAsString(newProd))
+						.contentType(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_MATCH, "W/\"3\""))
+				.andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, "W/\"4\""));
+		verify(service).updateProduct(Long.valueOf(1), newProd, Long.valueOf(3));
+	}
+
+	/**
+	 * Prueba que el servidor envíe un mensaje de error en caso de que el producto
+	 * sea modificado en simultáneo por otra petición.
+	 */
+	@Test
+	void testUpdateProductConcurrentModification() throws Exception {
+		Product newProd = new Product(null, "producto A modificado", null, null, null);
+		Map<String, String> message = Map.of("message",
+				"El producto fue modificado por otra peticion, vuelva a intentarlo");
+		Mockito.doThrow(new OptimisticLockingFailureException("conflicto")).when(service)
+				.updateProduct(Long.valueOf(1), newProd, null);
+		final String expectedResponseContent = objectMapper.writeValueAsString(message);
+		this.mockMvc
+				.perform(patch("/api/productos/1").content(objectMapper.writeValueAsString(newProd))
+						.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isConflict()).andExpect(content().json(expectedResponseContent));
 	}
 
 	/**
@@ -277,13 +779,50 @@ class ProductControllerIntegrationTest {
 		message.put("message", "No se ha encontrado un producto con el id: '1'");
 		Mockito.doThrow(
 				new ResponseStatusException(HttpStatus.NOT_FOUND, "No se ha encontrado un producto con el id: '1'"))
-				.when(service).updateProduct(Long.valueOf(1), newProd);
+				.when(service).updateProduct(Long.valueOf(1), newProd, null);
 		final String expectedResponseContent = objectMapper.writeValueAsString(message);
 		this.mockMvc
 				.perform(patch("/api/productos/1").content(objectMapper.writeValueAsString(newProd))
 						.contentType(MediaType.APPLICATION_JSON))
 				.andExpect(status().isNotFound()).andExpect(content().json(expectedResponseContent));
-		verify(service).updateProduct(Long.valueOf(1), newProd);
+		verify(service).updateProduct(Long.valueOf(1), newProd, null);
+	}
+
+	/**
+	 * Prueba que el servidor envíe la reserva realizada en caso de que se intente
+	 * reservar stock de un producto con stock suficiente.
+	 */
+	@Test
+	void testReserveStock() throws Exception {
+		StockReservation reservation = new StockReservation(Long.valueOf(1), Long.valueOf(3), Long.valueOf(7));
+		Mockito.doReturn(reservation).when(service).reserveStock(Long.valueOf(1), 3);
+		final String expectedResponseContent = objectMapper.writeValueAsString(reservation);
+		this.mockMvc.perform(post("/api/productos/1/reservar?cantidad=3")).andExpect(status().isOk())
+				.andExpect(content().json(expectedResponseContent));
+		verify(service).reserveStock(Long.valueOf(1), 3);
+	}
+
+	/**
+	 * Prueba que el servidor envíe un mensaje de error en caso de que se intente
+	 * reservar más stock del disponible.
+	 */
+	@Test
+	void testReserveStockInsufficient() throws Exception {
+		Map<String, String> message = Map.of("message", "No hay stock suficiente del producto con el id: '1'");
+		Mockito.doThrow(new ResponseStatusException(HttpStatus.CONFLICT,
+				"No hay stock suficiente del producto con el id: '1'")).when(service).reserveStock(Long.valueOf(1), 30);
+		final String expectedResponseContent = objectMapper.writeValueAsString(message);
+		this.mockMvc.perform(post("/api/productos/1/reservar?cantidad=30")).andExpect(status().isConflict())
+				.andExpect(content().json(expectedResponseContent));
+	}
+
+	/**
+	 * Prueba que el servidor envíe un mensaje de error en caso de que se intente
+	 * reservar una cantidad inválida.
+	 */
+	@Test
+	void testReserveStockInvalidQuantity() throws Exception {
+		this.mockMvc.perform(post("/api/productos/1/reservar?cantidad=0")).andExpect(status().isUnprocessableEntity());
 	}
 
 	/**
@@ -297,11 +836,11 @@ class ProductControllerIntegrationTest {
 		service.createProduct(prod);
 		Map<String, String> message = new HashMap<String, String>();
 		message.put("message", "El producto con el id '1' ha sido eliminado con exito");
-		Mockito.doReturn(true).when(service).deleteProduct(Long.valueOf(1));
+		Mockito.doReturn(true).when(service).deleteProduct(Long.valueOf(1), null);
 		final String expectedResponseContent = objectMapper.writeValueAsString(message);
 		this.mockMvc.perform(delete("/api/productos/1")).andExpect(status().isOk())
 				.andExpect(content().json(expectedResponseContent));
-		verify(service).deleteProduct(Long.valueOf(1));
+		verify(service).deleteProduct(Long.valueOf(1), null);
 	}
 
 	/**
@@ -312,11 +851,11 @@ class ProductControllerIntegrationTest {
 	void testDeleteNoProduct() throws Exception {
 		Map<String, String> message = new HashMap<String, String>();
 		message.put("message", "No existe un producto con el id: '1'");
-		Mockito.doReturn(false).when(service).deleteProduct(Long.valueOf(1));
+		Mockito.doReturn(false).when(service).deleteProduct(Long.valueOf(1), null);
 		final String expectedResponseContent = objectMapper.writeValueAsString(message);
 		this.mockMvc.perform(delete("/api/productos/1")).andExpect(status().isConflict())
 				.andExpect(content().json(expectedResponseContent));
-		verify(service).deleteProduct(Long.valueOf(1));
+		verify(service).deleteProduct(Long.valueOf(1), null);
 	}
 
 }
@@ -0,0 +1,262 @@
+package com.PayGoal.Postulacion.Controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.PayGoal.Postulacion.Models.CatalogStatistics;
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Models.ProductChange;
+import com.PayGoal.Postulacion.Models.ProductLookup;
+import com.PayGoal.Postulacion.Services.CatalogVersion;
+import com.PayGoal.Postulacion.Services.ProductService;
+import com.PayGoal.Postulacion.Services.ReactiveProductService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@WebFluxTest(ReactiveProductController.class)
+@Import({ CatalogVersion.class, SimpleMeterRegistry.class })
+class ReactiveProductControllerIntegrationTest {
+
+	private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+	@Autowired
+	private WebTestClient webClient;
+
+	@MockBean
+	private ReactiveProductService service;
+
+	/**
+	 * Requerido por el inicializador de datos de la aplicación.
+	 */
+	@MockBean
+	private ProductService productService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private CatalogVersion catalogVersion;
+
+	/**
+	 * Prueba que el servidor transmita los productos ordenados según su precio.
+	 */
+	@Test
+	void testGetProductsPriceOrdered() throws Exception {
+		List<Product> products = List.of(
+				new Product(Long.valueOf(2), "producto B", "El producto N°2 de la base de datos",
+						BigDecimal.valueOf(5), Long.valueOf(250)),
+				new Product(Long.valueOf(1), "producto A", "El producto N°1 de la base de datos",
+						BigDecimal.valueOf(10), Long.valueOf(10)));
+		Mockito.doReturn(Flux.fromIterable(products)).when(service).streamAllProductsOrderedByPrice(Direction.ASC);
+		this.webClient.get().uri("/api/productos?orden=ASC").exchange().expectStatus().isOk().expectBody()
+				.json(objectMapper.writeValueAsString(products));
+		verify(service).streamAllProductsOrderedByPrice(Direction.ASC);
+	}
+
+	/**
+	 * Prueba que el servidor envíe los productos ordenados según su precio en
+	 * formato Smile en caso de que el cliente lo solicite.
+	 */
+	@Test
+	void testGetProductsPriceOrderedSmile() throws Exception {
+		List<Product> products = List.of(new Product(Long.valueOf(2), "producto B",
+				"El producto N°2 de la base de datos", BigDecimal.valueOf(5), Long.valueOf(250)));
+		Mockito.doReturn(Flux.fromIterable(products)).when(service).streamAllProductsOrderedByPrice(Direction.ASC);
+		byte[] body = this.webClient.get().uri("/api/productos?orden=ASC").accept(SMILE)
+				.exchange().expectStatus().isOk().expectHeader().contentType(SMILE)
+				.expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT).expectBody(byte[].class).returnResult().getResponseBody();
+		assertEquals(products, new SmileMapper().readValue(body, new TypeReference<List<Product>>() {
+		}));
+	}
+
+	/**
+	 * Prueba que el servidor envíe solo los campos solicitados de los productos
+	 * ordenados según su precio.
+	 */
+	@Test
+	void testGetProductFieldsPriceOrdered() throws Exception {
+		List<Map<String, Object>> products = List.of(Map.of("id", 2, "nombre", "producto B"));
+		Mockito.doReturn(Mono.just(products)).when(service).getProductFieldsOrderedByPrice(Direction.DESC,
+				List.of("id", "nombre"));
+		this.webClient.get().uri("/api/productos?orden=DESC&campos=nombre,id").exchange().expectStatus().isOk()
+				.expectBody().json(objectMapper.writeValueAsString(products), true);
+	}
+
+	/**
+	 * Prueba que el servidor responda 304 sin consultar la Base de Datos en caso de
+	 * que el cliente ya tenga la versión actual del catálogo.
+	 */
+	@Test
+	void testGetProductsPriceOrderedNotModified() throws Exception {
+		String etag = catalogVersion.getETag();
+		Flux<Product> products = Flux.defer(() -> Flux.error(new IllegalStateException("Consulta inesperada")));
+		Mockito.doReturn(products).when(service).streamAllProductsOrderedByPrice(Direction.ASC);
+		this.webClient.get().uri("/api/productos?orden=ASC").header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+				.expectStatus().isNotModified().expectHeader().valueEquals(HttpHeaders.ETAG, etag).expectBody()
+				.isEmpty();
+		this.webClient.get().uri("/api/productos?nombre=producto").header(HttpHeaders.IF_NONE_MATCH, etag)
+				.exchange().expectStatus().isNotModified();
+		verify(service, Mockito.never()).getProductsByName(any());
+	}
+
+	/**
+	 * Prueba que la búsqueda por Ids no pueda combinarse con otros criterios.
+	 */
+	@Test
+	void testProductsByIdsWithOtherCriteria() throws Exception {
+		this.webClient.get().uri("/api/productos?ids=1&nombre=producto").exchange().expectStatus()
+				.isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+		this.webClient.get().uri("/api/productos?ids=1&orden=ASC&limite=5").exchange().expectStatus()
+				.isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+		verify(service, Mockito.never()).getProductsByIds(any());
+	}
+
+	/**
+	 * Prueba que los errores no informen la versión del catálogo.
+	 */
+	@Test
+	void testCatalogVersionOnlyInSuccessfulResponses() throws Exception {
+		Mockito.doReturn(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "No encontrado")))
+				.when(service).getProductsByName("producto");
+		this.webClient.get().uri("/api/productos?nombre=producto").exchange().expectStatus().isNotFound()
+				.expectHeader().doesNotExist(HttpHeaders.ETAG).expectHeader().doesNotExist(HttpHeaders.LAST_MODIFIED);
+	}
+
+	/**
+	 * Prueba que el servidor envíe las estadísticas del catálogo y responda 304 en
+	 * caso de que el cliente ya tenga la versión actual del catálogo.
+	 */
+	@Test
+	void testGetCatalogStatistics() throws Exception {
+		CatalogStatistics statistics = new CatalogStatistics(2, 3, new BigDecimal("25.00"), new BigDecimal("5.00"),
+				new BigDecimal("10.00"), new BigDecimal("7.50"), Map.of("p50", new BigDecimal("5.00")));
+		Mockito.doReturn(Mono.just(statistics)).when(service).getCatalogStatistics();
+		this.webClient.get().uri("/api/productos/estadisticas").exchange().expectStatus().isOk().expectBody()
+				.json(objectMapper.writeValueAsString(statistics));
+		this.webClient.get().uri("/api/productos/estadisticas")
+				.header(HttpHeaders.IF_NONE_MATCH, catalogVersion.getETag()).exchange().expectStatus()
+				.isNotModified();
+		verify(service).getCatalogStatistics();
+	}
+
+	/**
+	 * Prueba que el servidor envíe un mensaje de error en caso de que no se
+	 * encuentre ningún producto en la Base de Datos.
+	 */
+	@Test
+	void testGetNoProductsPriceOrdered() throws Exception {
+		Map<String, String> message = new HashMap<String, String>();
+		message.put("message", "No se ha encontrado ningun producto en la base de datos");
+		Mockito.doReturn(Flux.error(new ResponseStatusException(HttpStatus.NOT_FOUND,
+				"No se ha encontrado ningun producto en la base de datos"))).when(service)
+				.streamAllProductsOrderedByPrice(Direction.ASC);
+		this.webClient.get().uri("/api/productos?orden=ASC").exchange().expectStatus().isNotFound().expectBody()
+				.json(objectMapper.writeValueAsString(message));
+	}
+
+	/**
+	 * Prueba que el servidor envíe un mensaje de error en caso de recibir un orden
+	 * inexistente.
+	 */
+	@Test
+	void testGetProductsInvalidOrder() throws Exception {
+		Map<String, String> message = new HashMap<String, String>();
+		message.put("message", "El orden solicitado no existe");
+		this.webClient.get().uri("/api/productos?orden=X").exchange().expectStatus()
+				.isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY).expectBody().json(objectMapper.writeValueAsString(message));
+	}
+
+	/**
+	 * Prueba que el servidor envíe un producto junto a su versión como ETag.
+	 */
+	@Test
+	void testGetProductById() throws Exception {
+		Product prod = new Product(Long.valueOf(1), "producto A", "El producto N°1 de la base de datos",
+				BigDecimal.valueOf(10), Long.valueOf(10));
+		prod.setVersion(Long.valueOf(3));
+		Mockito.doReturn(Mono.just(prod)).when(service).getProductById(Long.valueOf(1));
+		this.webClient.get().uri("/api/productos/1").exchange().expectStatus().isOk().expectHeader()
+				.valueEquals(HttpHeaders.ETAG, "W/\"3\"").expectBody().json(objectMapper.writeValueAsString(prod));
+	}
+
+	/**
+	 * Prueba que el servidor envíe los productos encontrados y los Ids faltantes en
+	 * caso de que se consulten varios productos por Id.
+	 */
+	@Test
+	void testGetProductsByIds() throws Exception {
+		ProductLookup lookup = new ProductLookup();
+		lookup.getProductos().add(new Product(Long.valueOf(1), "producto A", "El producto N°1 de la base de datos",
+				BigDecimal.valueOf(10), Long.valueOf(10)));
+		lookup.getFaltantes().add(Long.valueOf(9));
+		Mockito.doReturn(Mono.just(lookup)).when(service).getProductsByIds(List.of(1L, 9L));
+		this.webClient.get().uri("/api/productos?ids=1,9").exchange().expectStatus().isOk().expectBody()
+				.json(objectMapper.writeValueAsString(lookup));
+	}
+
+	/**
+	 * Prueba que el servidor transmita los cambios posteriores al último evento
+	 * recibido por el cliente, con la secuencia de cada cambio como Id.
+	 */
+	@Test
+	void testStreamChanges() throws Exception {
+		ProductChange change = new ProductChange();
+		change.setSecuencia(Long.valueOf(4));
+		change.setTipo(ProductChange.Tipo.ACTUALIZADO);
+		change.setIdProducto(Long.valueOf(1));
+		Mockito.doReturn(Flux.just(change)).when(service).streamChangesSince(Long.valueOf(3));
+		Flux<ServerSentEvent<ProductChange>> events = this.webClient.get().uri("/api/productos/cambios/stream")
+				.header("Last-Event-ID", "3").accept(MediaType.TEXT_EVENT_STREAM).exchange().expectStatus().isOk()
+				.returnResult(new ParameterizedTypeReference<ServerSentEvent<ProductChange>>() {
+				}).getResponseBody();
+		StepVerifier.create(events.take(1)).assertNext(event -> {
+			assertEquals("4", event.id());
+			assertEquals("actualizado", event.event());
+			assertEquals(change, event.data());
+		}).verifyComplete();
+	}
+
+	/**
+	 * Prueba que el servidor envíe los errores de validación en caso de que se
+	 * intente crear un producto con datos inválidos.
+	 */
+	@Test
+	void testCreateInvalidProduct() throws Exception {
+		Map<String, String> message = new HashMap<String, String>();
+		message.put("nombre", "El nombre no puede ser nulo ni debe estar vacio");
+		message.put("descripcion", "La descripcion no puede ser nulo ni debe estar vacio");
+		message.put("precio", "El precio no puede ser menor a $0");
+		message.put("cantidad", "La cantidad no puede ser nula");
+		this.webClient.post().uri("/api/productos/").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue("{\"nombre\":\"\",\"precio\":-1}").exchange().expectStatus()
+				.isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY).expectBody().json(objectMapper.writeValueAsString(message));
+		verify(service, Mockito.never()).createProduct(any());
+	}
+}
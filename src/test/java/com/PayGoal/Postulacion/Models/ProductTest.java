@@ -29,4 +29,14 @@ class ProductTest {
 		assertEquals(resultadoEsperado, productoViejo);
 	}
 
+	@Test
+	void testCopyIsIndependent() {
+		Product producto = new Product(Long.valueOf(1), "producto A", "El producto N°1", BigDecimal.valueOf(10),
+				Long.valueOf(10));
+		Product copia = producto.copy();
+		assertEquals(producto, copia);
+		copia.setNombre("producto A Modificado");
+		assertEquals("producto A", producto.getNombre());
+	}
+
 }
@@ -1,13 +1,30 @@
 package com.PayGoal.Postulacion;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import com.PayGoal.Postulacion.Services.ProductService;
+
 @SpringBootTest
 class PostulacionApplicationTests {
 
+	@Autowired
+	private ProductService productSv;
+
 	@Test
 	void contextLoads() {
 	}
 
+	/**
+	 * Prueba que los productos de prueba no se carguen sin habilitarlos con
+	 * productos.datos-iniciales.habilitado.
+	 */
+	@Test
+	void testSeedDataIsOptIn() {
+		assertEquals(0, productSv.countProducts());
+	}
+
 }
@@ -0,0 +1,96 @@
+package com.PayGoal.Postulacion.Services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class FlashSaleStockTest {
+
+	private final FlashSaleStock stock = new FlashSaleStock(Set.of(1L), 4, 100);
+
+	@Test
+	void testOnlyConfiguredProductsAreEnabled() {
+		assertTrue(stock.isEnabled(1L));
+		assertFalse(stock.isEnabled(2L));
+	}
+
+	@Test
+	void testLeaseSizeCoversLargeReservations() {
+		assertEquals(100, stock.leaseSize(5));
+		assertEquals(250, stock.leaseSize(250));
+	}
+
+	@Test
+	void testReserveNeverExceedsStock() {
+		stock.add(1L, 10);
+		assertTrue(stock.tryReserve(1L, 7));
+		assertFalse(stock.tryReserve(1L, 4));
+		assertTrue(stock.tryReserve(1L, 3));
+		assertEquals(Map.of(), stock.drain());
+	}
+
+	@Test
+	void testDrainReturnsRemainingStock() {
+		stock.add(1L, 10);
+		stock.tryReserve(1L, 4);
+		assertEquals(Map.of(1L, 6L), stock.drain());
+		assertEquals(Map.of(), stock.drain());
+	}
+
+	@Test
+	void testResetDiscardsStockOfPreviousGenerations() {
+		long generation = stock.generation(1L);
+		stock.add(1L, 10, generation);
+		assertEquals(10, stock.reset(1L));
+		// el sobrante retirado antes del descarte ya no se agrega
+		assertTrue(stock.add(1L, 5, generation));
+		assertEquals(Map.of(), stock.drain());
+		stock.add(1L, 5, stock.generation(1L));
+		assertEquals(Map.of(1L, 5L), stock.drain());
+	}
+
+	@Test
+	void testTakeUpToGathersAllShards() {
+		stock.add(1L, 10);
+		stock.add(1L, 5);
+		assertEquals(12, stock.takeUpTo(1L, 12));
+		assertEquals(3, stock.takeUpTo(1L, 12));
+		assertEquals(0, stock.takeUpTo(1L, 12));
+	}
+
+	@Test
+	void testClosedStockIsReturned() {
+		assertTrue(stock.add(1L, 10));
+		stock.close();
+		assertFalse(stock.isEnabled(1L));
+		assertFalse(stock.add(1L, 5));
+		assertEquals(Map.of(1L, 15L), stock.drain());
+	}
+
+	@Test
+	void testConcurrentReservationsAreExact() throws Exception {
+		stock.add(1L, 1000);
+		AtomicLong reserved = new AtomicLong();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < 8; i++) {
+			executor.submit(() -> {
+				while (stock.tryReserve(1L, 3)) {
+					reserved.addAndGet(3);
+				}
+			});
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(999, reserved.get());
+		assertEquals(Map.of(1L, 1L), stock.drain());
+	}
+}
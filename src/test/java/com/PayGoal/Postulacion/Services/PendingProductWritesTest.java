@@ -0,0 +1,105 @@
+package com.PayGoal.Postulacion.Services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Services.PendingProductWrites.Operation;
+import com.PayGoal.Postulacion.Services.PendingProductWrites.Write;
+
+class PendingProductWritesTest {
+
+	private final PendingProductWrites writes = new PendingProductWrites();
+
+	@Test
+	void testUpdatesOfCreatedProductAreMergedIntoTheCreation() {
+		writes.create(new Product(1L, "producto A", "descripcion", BigDecimal.valueOf(10), 5L));
+		writes.update(1L, new Product(null, null, null, BigDecimal.valueOf(20), null));
+		writes.update(1L, new Product(null, "producto B", null, null, null));
+
+		Map<Long, Write> batch = writes.take(10);
+		assertEquals(1, batch.size());
+		Product created = batch.get(1L).getProduct();
+		assertEquals(Operation.CREATE, batch.get(1L).getOperation());
+		assertEquals("producto B", created.getNombre());
+		assertEquals(new BigDecimal("20.00"), created.getPrecio());
+		assertEquals(5L, created.getCantidad());
+	}
+
+	@Test
+	void testUpdatesKeepTheLastValueOfEachField() {
+		writes.update(1L, new Product(null, "producto A", null, BigDecimal.valueOf(20), null));
+		writes.update(1L, new Product(null, null, null, BigDecimal.valueOf(30), 8L));
+
+		Product patch = writes.take(10).get(1L).getProduct();
+		assertEquals("producto A", patch.getNombre());
+		assertNull(patch.getDescripcion());
+		assertEquals(new BigDecimal("30.00"), patch.getPrecio());
+		assertEquals(8L, patch.getCantidad());
+	}
+
+	@Test
+	void testDeletingCreatedProductDiscardsBothWrites() {
+		Write created = writes.create(new Product(1L, "producto A", "descripcion", BigDecimal.valueOf(10), 5L));
+
+		writes.delete(1L);
+
+		assertEquals(0, writes.size());
+		assertTrue(created.getCommitted().isDone());
+	}
+
+	@Test
+	void testDeleteReplacesUpdateAndRejectsLaterWrites() {
+		writes.update(1L, new Product(null, null, null, BigDecimal.valueOf(20), null));
+
+		Write deleted = writes.delete(1L);
+
+		assertEquals(Operation.DELETE, deleted.getOperation());
+		assertNull(writes.update(1L, new Product(null, "producto A", null, null, null)));
+		assertNull(writes.delete(1L));
+		assertEquals(1, writes.size());
+	}
+
+	@Test
+	void testWritesInFlightAreReadBeforePendingOnes() {
+		writes.update(1L, new Product(null, null, null, BigDecimal.valueOf(20), null));
+		Map<Long, Write> batch = writes.take(10);
+		writes.update(1L, new Product(null, null, null, null, 8L));
+
+		assertFalse(writes.isPending(2L));
+		assertTrue(writes.contains(1L));
+		List<Write> productWrites = writes.writesOf(1L);
+		assertEquals(2, productWrites.size());
+		Product state = new Product(1L, "producto A", "descripcion", BigDecimal.valueOf(10), 5L);
+		state.setVersion(3L);
+		for (Write write : productWrites) {
+			state = write.applyTo(state);
+		}
+		assertEquals(new BigDecimal("20.00"), state.getPrecio());
+		assertEquals(8L, state.getCantidad());
+		assertNull(state.getVersion());
+
+		writes.completed(batch);
+		assertEquals(1, writes.writesOf(1L).size());
+		assertEquals(1, writes.tracked());
+	}
+
+	@Test
+	void testTakeReturnsOldestWritesFirst() {
+		for (long id = 1; id <= 5; id++) {
+			writes.delete(id);
+		}
+
+		assertEquals(List.of(1L, 2L, 3L), List.copyOf(writes.take(3).keySet()));
+		assertEquals(2, writes.size());
+		assertEquals(5, writes.tracked());
+	}
+}
@@ -0,0 +1,63 @@
+package com.PayGoal.Postulacion.Services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.PayGoal.Postulacion.Events.ProductChangeEvent;
+import com.PayGoal.Postulacion.Models.Product;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ProductCacheTest {
+
+	private final ProductCache cache = new ProductCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void testRenamedProductIsEvictedFromItsPreviousName() {
+		getByName("cafe", product(1, "cafe"), product(2, "cafe"));
+		getByName("te", product(3, "te"));
+
+		cache.onProductChange(new ProductChangeEvent(ProductChangeEvent.Type.UPDATED, 1L, product(1, "yerba")));
+		getByName("cafe", product(2, "cafe"));
+		getByName("te", product(3, "te"));
+		// solo se vuelve a cargar el nombre anterior del producto
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	void testDeletedProductIsEvictedFromItsName() {
+		getByName("cafe", product(1, "cafe"));
+
+		cache.onProductChange(new ProductChangeEvent(ProductChangeEvent.Type.DELETED, 1L, null));
+		assertEquals(List.of(), getByName("cafe"));
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void testCreatedProductIsEvictedFromItsName() {
+		getByName("cafe");
+
+		cache.onProductChange(new ProductChangeEvent(ProductChangeEvent.Type.CREATED, 1L, product(1, "cafe")));
+		assertEquals(List.of(1L), getByName("cafe", product(1, "cafe")).stream().map(Product::getId).toList());
+		assertEquals(2, loads.get());
+	}
+
+	private List<Product> getByName(String name, Product... saved) {
+		return cache.getByName(name, key -> {
+			loads.incrementAndGet();
+			return List.of(saved);
+		});
+	}
+
+	private static Product product(long id, String name) {
+		return new Product(id, name, "descripcion", BigDecimal.ONE, 1L);
+	}
+}
@@ -0,0 +1,183 @@
+package com.PayGoal.Postulacion.Services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.PayGoal.Postulacion.Events.ProductChangeEvent;
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Models.ProductChange;
+import com.PayGoal.Postulacion.Models.ProductChangePage;
+import com.PayGoal.Postulacion.Repositories.ProductChangeRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.test.StepVerifier;
+
+class ProductChangeLogTest {
+
+	// fuera de una transacción, cada cambio se guarda y se confirma en el momento
+	private final ProductChangeLog changeLog = new ProductChangeLog(Duration.ofDays(7), 3, new SimpleMeterRegistry());
+
+	private final List<ProductChange> saved = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		changeLog.changeRepo = Mockito.mock(ProductChangeRepository.class);
+		changeLog.transactionManager = Mockito.mock(PlatformTransactionManager.class);
+		when(changeLog.changeRepo.save(any())).thenAnswer(invocation -> {
+			ProductChange change = invocation.getArgument(0);
+			change.setSecuencia(Long.valueOf(saved.size() + 1));
+			saved.add(change);
+			return change;
+		});
+		when(changeLog.changeRepo.findAllBetween(anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+			long since = invocation.getArgument(0);
+			long last = invocation.getArgument(1);
+			return saved.stream().filter(change -> change.getSecuencia() > since && change.getSecuencia() <= last)
+					.limit(((Pageable) invocation.getArgument(2)).getPageSize()).toList();
+		});
+	}
+
+	private void publish(ProductChangeEvent.Type type, long id) {
+		Product prod = type == ProductChangeEvent.Type.DELETED ? null
+				: new Product(id, "producto " + id, "descripcion", BigDecimal.TEN, 5L);
+		changeLog.onProductChange(new ProductChangeEvent(type, id, prod));
+	}
+
+	private static List<Long> sequences(ProductChangePage page) {
+		return page.getCambios().stream().map(ProductChange::getSecuencia).toList();
+	}
+
+	@Test
+	void testChangesAreNumberedInOrder() {
+		publish(ProductChangeEvent.Type.CREATED, 7);
+		publish(ProductChangeEvent.Type.UPDATED, 7);
+		publish(ProductChangeEvent.Type.DELETED, 7);
+
+		ProductChangePage page = changeLog.getChangesSince(0, 10);
+		assertEquals(List.of(1L, 2L, 3L), sequences(page));
+		assertEquals(3, page.getSiguiente());
+		assertEquals(ProductChange.Tipo.CREADO, page.getCambios().get(0).getTipo());
+		assertEquals("producto 7", page.getCambios().get(1).getNombre());
+		assertEquals(ProductChange.Tipo.ELIMINADO, page.getCambios().get(2).getTipo());
+		assertNull(page.getCambios().get(2).getNombre());
+	}
+
+	@Test
+	void testChangesNoLongerInMemoryAreReadFromDatabase() {
+		for (long id = 1; id <= 5; id++) {
+			publish(ProductChangeEvent.Type.CREATED, id);
+		}
+
+		assertEquals(List.of(2L, 3L), sequences(changeLog.getChangesSince(1, 2)));
+		verify(changeLog.changeRepo).findAllBetween(1, 5, Pageable.ofSize(2));
+		Mockito.clearInvocations(changeLog.changeRepo);
+		ProductChangePage page = changeLog.getChangesSince(3, 10);
+		assertEquals(List.of(4L, 5L), sequences(page));
+		assertEquals(5, page.getSiguiente());
+		assertEquals(List.of(), changeLog.getChangesSince(5, 10).getCambios());
+		// los cambios en memoria no se consultan en la Base de Datos
+		verify(changeLog.changeRepo, never()).findAllBetween(anyLong(), anyLong(), any());
+	}
+
+	@Test
+	void testSequenceAfterLastChangeIsRejected() {
+		publish(ProductChangeEvent.Type.CREATED, 1);
+
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> changeLog.getChangesSince(2, 10));
+		assertEquals(HttpStatus.GONE, e.getStatusCode());
+	}
+
+	@Test
+	void testAwaitReturnsWhenChangeIsSaved() {
+		publish(ProductChangeEvent.Type.CREATED, 1);
+
+		StepVerifier.create(changeLog.awaitChangesSince(1, 10, Duration.ofSeconds(5)))
+				.then(() -> publish(ProductChangeEvent.Type.UPDATED, 1))
+				.assertNext(page -> assertEquals(List.of(2L), sequences(page))).verifyComplete();
+		StepVerifier.create(changeLog.awaitChangesSince(2, 10, Duration.ofMillis(50)))
+				.assertNext(page -> assertEquals(2, page.getSiguiente())).verifyComplete();
+	}
+
+	@Test
+	void testStreamSendsSavedChangesAndThenNewOnes() {
+		publish(ProductChangeEvent.Type.CREATED, 1);
+		publish(ProductChangeEvent.Type.CREATED, 2);
+
+		StepVerifier.create(changeLog.streamChangesSince(0L).map(ProductChange::getSecuencia))
+				.expectNext(1L, 2L)
+				.then(() -> publish(ProductChangeEvent.Type.DELETED, 1))
+				.expectNext(3L).thenCancel().verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	void testChangesAreVisibleOnceEarlierTransactionsComplete() {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			publish(ProductChangeEvent.Type.CREATED, 1);
+			publish(ProductChangeEvent.Type.CREATED, 2);
+			List<TransactionSynchronization> transactions = TransactionSynchronizationManager.getSynchronizations();
+
+			// la segunda transacción se confirma primero, pero su cambio espera al anterior
+			transactions.get(1).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+			assertEquals(0, changeLog.getLastSequence());
+			transactions.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+			assertEquals(List.of(1L, 2L), sequences(changeLog.getChangesSince(0, 10)));
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void testRolledBackChangesAreSkipped() {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			publish(ProductChangeEvent.Type.CREATED, 1);
+			publish(ProductChangeEvent.Type.CREATED, 2);
+			List<TransactionSynchronization> transactions = TransactionSynchronizationManager.getSynchronizations();
+
+			transactions.get(1).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+			transactions.get(0).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+			saved.remove(0);
+			ProductChangePage page = changeLog.getChangesSince(0, 10);
+			assertEquals(List.of(2L), sequences(page));
+			assertEquals(2, page.getSiguiente());
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void testChangeThatCannotBeSavedFails() {
+		doThrow(new IllegalStateException("sin conexion")).when(changeLog.changeRepo).save(any());
+
+		assertThrows(IllegalStateException.class, () -> publish(ProductChangeEvent.Type.CREATED, 1));
+		assertEquals(0, changeLog.getLastSequence());
+		// el cambio fallido no demora a los siguientes
+		setUp();
+		publish(ProductChangeEvent.Type.UPDATED, 1);
+		assertEquals(List.of(1L), sequences(changeLog.getChangesSince(0, 10)));
+	}
+}
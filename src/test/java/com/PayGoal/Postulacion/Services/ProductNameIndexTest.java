@@ -0,0 +1,74 @@
+package com.PayGoal.Postulacion.Services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.PayGoal.Postulacion.Events.ProductChangeEvent;
+import com.PayGoal.Postulacion.Models.Product;
+
+class ProductNameIndexTest {
+
+	private ProductNameIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new ProductNameIndex();
+		created(1, "Café Molido");
+		created(2, "cafetera italiana");
+		created(3, "Té verde");
+		created(4, "Molinillo de CAFÉ");
+	}
+
+	@Test
+	void testFindByPrefixIgnoresCaseAndAccents() {
+		assertEquals(List.of(1L, 2L), index.findByPrefix("CAFE", 10));
+	}
+
+	@Test
+	void testFindByContent() {
+		assertEquals(List.of(1L, 2L, 4L), index.findByContent("afe", 10));
+		assertEquals(List.of(3L), index.findByContent("te v", 10));
+	}
+
+	@Test
+	void testFindByContentRequiresTheWholeText() {
+		created(5, "te e vino");
+		// "te e vino" contiene los trigramas de "te v" pero no el texto
+		assertEquals(List.of(3L), index.findByContent("te v", 10));
+		assertEquals(List.of(), index.findByContent("xyz", 10));
+	}
+
+	@Test
+	void testFindByContentWithShortText() {
+		assertEquals(List.of(2L, 3L), index.findByContent("te", 10));
+	}
+
+	@Test
+	void testSearchRespectsLimit() {
+		assertEquals(List.of(1L), index.findByContent("cafe", 1));
+		assertEquals(List.of(1L, 2L), index.findByContent("afe", 2));
+		assertEquals(List.of(2L), index.findByContent("te", 1));
+		assertEquals(List.of(1L), index.findByPrefix("cafe", 1));
+	}
+
+	@Test
+	void testIndexFollowsUpdatesAndDeletes() {
+		index.onProductChange(new ProductChangeEvent(ProductChangeEvent.Type.UPDATED, 1L, product(1, "Azúcar")));
+		index.onProductChange(new ProductChangeEvent(ProductChangeEvent.Type.DELETED, 2L, null));
+		assertEquals(List.of(4L), index.findByContent("cafe", 10));
+		assertEquals(List.of(1L), index.findByPrefix("azu", 10));
+	}
+
+	private void created(long id, String name) {
+		index.onProductChange(new ProductChangeEvent(ProductChangeEvent.Type.CREATED, id, product(id, name)));
+	}
+
+	private static Product product(long id, String name) {
+		return new Product(id, name, "descripcion", BigDecimal.ONE, 1L);
+	}
+}
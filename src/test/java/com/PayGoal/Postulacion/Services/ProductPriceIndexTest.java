@@ -0,0 +1,127 @@
+package com.PayGoal.Postulacion.Services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.PayGoal.Postulacion.Events.ProductChangeEvent;
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Repositories.ProductRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ProductPriceIndexTest {
+
+	private ProductPriceIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new ProductPriceIndex(true, new SimpleMeterRegistry());
+		index.productRepo = Mockito.mock(ProductRepository.class);
+		index.transactionManager = Mockito.mock(PlatformTransactionManager.class);
+		created(1, 10);
+		created(2, 5);
+		created(3, 100);
+		created(4, 10);
+	}
+
+	@Test
+	void testFindAllOrdersByPriceAndId() {
+		assertEquals(List.of(2L, 1L, 4L, 3L), ids(index.findAll(Direction.ASC)));
+		assertEquals(List.of(3L, 4L, 1L, 2L), ids(index.findAll(Direction.DESC)));
+	}
+
+	@Test
+	void testFindAfterPosition() {
+		assertEquals(List.of(2L, 1L), ids(index.findAfter(Direction.ASC, null, null, 2)));
+		assertEquals(List.of(4L, 3L), ids(index.findAfter(Direction.ASC, 1000L, 1L, 10)));
+		assertEquals(List.of(1L, 2L), ids(index.findAfter(Direction.DESC, 1000L, 4L, 10)));
+	}
+
+	@Test
+	void testFindInRange() {
+		assertEquals(List.of(2L, 1L, 4L),
+				ids(index.findInRange(500L, 1000L, Direction.ASC, 10)));
+		assertEquals(List.of(3L, 4L), ids(index.findInRange(1000L, null, Direction.DESC, 2)));
+		assertEquals(List.of(2L), ids(index.findInRange(null, null, Direction.ASC, 1)));
+	}
+
+	@Test
+	void testIndexFollowsUpdatesAndDeletes() {
+		index.onProductChange(new ProductChangeEvent(ProductChangeEvent.Type.UPDATED, 3L, product(3, 1)));
+		index.onProductChange(new ProductChangeEvent(ProductChangeEvent.Type.DELETED, 1L, null));
+		assertEquals(List.of(3L, 2L, 4L), ids(index.findAll(Direction.ASC)));
+		assertEquals(3, index.size());
+	}
+
+	@Test
+	void testRebuildKeepsTheIndexAvailableAndAppliesConcurrentChanges() {
+		when(index.productRepo.streamAllBy(any())).thenReturn(Stream.of(product(1, 10), product(5, 7)).peek(prod -> {
+			if (prod.getId() == 1) {
+				// mientras se recorre la Base de Datos el índice responde con su estado anterior
+				assertEquals(List.of(2L, 1L, 4L, 3L), ids(index.findAll(Direction.ASC)));
+				index.onProductChange(new ProductChangeEvent(ProductChangeEvent.Type.UPDATED, 5L, product(5, 3)));
+			}
+		}));
+		index.rebuild();
+		assertEquals(List.of(5L, 1L), ids(index.findAll(Direction.ASC)));
+		assertEquals(true, index.isReady());
+	}
+
+	@Test
+	void testVerifyIgnoresChangesNotYetIndexed() {
+		index.rebuild();
+		created(1, 10);
+		created(2, 5);
+		created(3, 100);
+		// el 3 se actualizó y el 6 se creó, pero el índice recibe los cambios al terminar el recorrido
+		when(index.productRepo.streamAllPrices()).thenReturn(Stream.of(row(1, 10), row(2, 5), row(3, 99), row(6, 1)));
+		when(index.productRepo.findAllById(List.of(3L, 6L))).thenAnswer(invocation -> {
+			index.onProductChange(new ProductChangeEvent(ProductChangeEvent.Type.UPDATED, 3L, product(3, 99)));
+			created(6, 1);
+			return List.of(product(3, 99), product(6, 1));
+		});
+		assertEquals(0, index.verify());
+		verify(index.productRepo, times(1)).streamAllBy(any());
+	}
+
+	@Test
+	void testVerifyRebuildsWhenIndexDiffers() {
+		// el 2 se eliminó sin que el índice lo reciba
+		when(index.productRepo.streamAllBy(any())).thenReturn(Stream.of(product(1, 10), product(2, 5)),
+				Stream.of(product(1, 10)));
+		index.rebuild();
+		when(index.productRepo.streamAllPrices()).thenReturn(Stream.<Object[]>of(row(1, 10)));
+		when(index.productRepo.findAllById(List.of(2L))).thenReturn(List.of());
+		assertEquals(1, index.verify());
+		assertEquals(List.of(1L), ids(index.findAll(Direction.ASC)));
+	}
+
+	private void created(long id, long price) {
+		index.onProductChange(new ProductChangeEvent(ProductChangeEvent.Type.CREATED, id, product(id, price)));
+	}
+
+	private static Product product(long id, long price) {
+		return new Product(id, "producto", "descripcion", BigDecimal.valueOf(price), 1L);
+	}
+
+	private static Object[] row(long id, long price) {
+		return new Object[] { id, price * 100, null };
+	}
+
+	private static List<Long> ids(List<Product> products) {
+		return products.stream().map(Product::getId).toList();
+	}
+}
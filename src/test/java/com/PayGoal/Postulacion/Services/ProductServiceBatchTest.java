@@ -0,0 +1,36 @@
+package com.PayGoal.Postulacion.Services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Models.ProductBatchResult;
+
+/**
+ * Prueba la carga por lotes de productos contra la Base de Datos.
+ */
+@SpringBootTest
+class ProductServiceBatchTest {
+
+	@Autowired
+	private ProductService productSv;
+
+	/**
+	 * Prueba que los productos nulos del lote se informen como errores según su
+	 * posición sin afectar al resto del lote.
+	 */
+	@Test
+	void testNullProductsAreReportedByPosition() {
+		ProductBatchResult result = productSv.createProducts(Arrays.asList(
+				new Product(null, "producto", "descripcion", BigDecimal.TEN, 10L), null));
+		assertEquals(1, result.getCreados().size());
+		assertEquals(Map.of(1, Map.of("producto", "El producto no puede ser nulo")), result.getErrores());
+	}
+}
@@ -0,0 +1,124 @@
+package com.PayGoal.Postulacion.Services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Repositories.ProductRepository;
+
+/**
+ * Prueba las reservas de stock de los productos en modo ráfaga contra la Base
+ * de Datos. Todos los productos creados por las pruebas están en modo ráfaga y
+ * el stock en memoria no se devuelve periódicamente durante las pruebas.
+ */
+@SpringBootTest(properties = { "productos.stock.rafaga.ids=1,2,3,4,5,6,7,8,9,10", "productos.stock.rafaga.bloque=100",
+		"productos.stock.rafaga.intervalo=3600000" })
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ProductServiceStockTest {
+
+	@Autowired
+	private ProductService productSv;
+
+	@Autowired
+	private ProductRepository productRepo;
+
+	@Autowired
+	private FlashSaleStock flashSaleStock;
+
+	/**
+	 * Prueba que una reserva se complete juntando el stock en memoria con el de la
+	 * Base de Datos cuando ninguno alcanza por sí solo.
+	 */
+	@Test
+	void testReservationCombinesMemoryAndDatabaseStock() {
+		Long id = createFlashSaleProduct(150);
+		productSv.reserveStock(id, 1);
+		// el bloque deja 99 unidades en memoria y 50 en la Base de Datos
+		productSv.reserveStock(id, 120);
+		assertEquals(29, productRepo.findById(id).get().getCantidad());
+		assertFalse(flashSaleStock.tryReserve(id, 1));
+	}
+
+	/**
+	 * Prueba que una reserva sin stock suficiente devuelva a memoria el stock que
+	 * había tomado de ella.
+	 */
+	@Test
+	void testInsufficientStockKeepsMemoryStock() {
+		Long id = createFlashSaleProduct(150);
+		productSv.reserveStock(id, 1);
+		ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> productSv.reserveStock(id, 200));
+		assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+		assertEquals(50, productRepo.findById(id).get().getCantidad());
+		assertTrue(flashSaleStock.tryReserve(id, 99));
+	}
+
+	/**
+	 * Prueba que reemplazar la cantidad de un producto descarte su stock en memoria
+	 * en lugar de sumarlo a la nueva cantidad al devolverlo.
+	 */
+	@Test
+	void testQuantityUpdateReplacesMemoryStock() {
+		Long id = createFlashSaleProduct(150);
+		productSv.reserveStock(id, 1);
+		Product changes = new Product();
+		changes.setCantidad(10L);
+		productSv.updateProduct(id, changes, null);
+		productSv.flushFlashSaleStock();
+		assertEquals(10, productRepo.findById(id).get().getCantidad());
+		productSv.reserveStock(id, 4);
+		assertEquals(6, productRepo.findById(id).get().getCantidad());
+	}
+
+	/**
+	 * Prueba que eliminar un producto descarte su stock en memoria y que no se
+	 * pueda liberar stock de un producto eliminado.
+	 */
+	@Test
+	void testDeleteDiscardsMemoryStock() {
+		Long id = createFlashSaleProduct(150);
+		productSv.reserveStock(id, 1);
+		assertTrue(productSv.deleteProduct(id, null));
+		assertFalse(flashSaleStock.tryReserve(id, 1));
+		ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> productSv.releaseStock(id, 1));
+		assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+		assertFalse(flashSaleStock.tryReserve(id, 1));
+	}
+
+	/**
+	 * Prueba que al detener la aplicación el stock en memoria vuelva a la Base de
+	 * Datos y que las reservas siguientes se descuenten de ella.
+	 */
+	@Test
+	@Order(Integer.MAX_VALUE)
+	void testStockIsReturnedOnShutdown() {
+		Long id = createFlashSaleProduct(150);
+		productSv.reserveStock(id, 1);
+		productSv.returnFlashSaleStock();
+		assertEquals(149, productRepo.findById(id).get().getCantidad());
+		productSv.reserveStock(id, 9);
+		productSv.releaseStock(id, 4);
+		assertEquals(144, productRepo.findById(id).get().getCantidad());
+		assertEquals(Map.of(), flashSaleStock.drain());
+	}
+
+	private Long createFlashSaleProduct(long quantity) {
+		Product prod = productSv.createProduct(new Product(null, "producto", "descripcion", BigDecimal.TEN, quantity));
+		assertTrue(flashSaleStock.isEnabled(prod.getId()));
+		return prod.getId();
+	}
+}
@@ -0,0 +1,78 @@
+package com.PayGoal.Postulacion.Services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Repositories.ProductRepository;
+
+/**
+ * Prueba las reservas de stock con la escritura diferida habilitada. Los cambios
+ * no se guardan por sí solos durante las pruebas.
+ */
+@SpringBootTest(properties = { "productos.escritura-diferida.habilitado=true",
+		"productos.escritura-diferida.intervalo=1h", "productos.escritura-diferida.lote=10000" })
+class ProductServiceWriteBehindTest {
+
+	@Autowired
+	private ProductService productSv;
+
+	@Autowired
+	private ProductRepository productRepo;
+
+	@Autowired
+	private ProductWriteBehind writeBehind;
+
+	/**
+	 * Prueba que se pueda reservar stock de un producto cuyo alta todavía no se
+	 * guardó.
+	 */
+	@Test
+	void testReserveStockOfPendingProduct() {
+		Long id = productSv.createProduct(new Product(null, "producto", "descripcion", BigDecimal.TEN, 10L)).getId();
+		assertTrue(writeBehind.hasPendingWrites(id));
+		assertEquals(7L, productSv.reserveStock(id, 3).getDisponible());
+		assertFalse(writeBehind.hasPendingWrites(id));
+	}
+
+	/**
+	 * Prueba que una actualización de la cantidad todavía no guardada no
+	 * sobrescriba las reservas posteriores.
+	 */
+	@Test
+	void testPendingUpdateDoesNotOverwriteReservation() {
+		Long id = productSv.createProduct(new Product(null, "producto", "descripcion", BigDecimal.TEN, 10L)).getId();
+		Product changes = new Product();
+		changes.setCantidad(50L);
+		productSv.updateProduct(id, changes, null);
+		productSv.reserveStock(id, 5);
+		productSv.releaseStock(id, 1);
+		writeBehind.flushAll();
+		assertEquals(46L, productRepo.findById(id).get().getCantidad());
+	}
+
+	/**
+	 * Prueba que una actualización todavía no guardada no sobrescriba una carga
+	 * por lotes posterior del mismo producto.
+	 */
+	@Test
+	void testPendingUpdateDoesNotOverwriteBatch() {
+		Long id = productSv.createProduct(new Product(null, "producto", "descripcion", BigDecimal.TEN, 10L)).getId();
+		Product changes = new Product();
+		changes.setCantidad(50L);
+		productSv.updateProduct(id, changes, null);
+		productSv.createProducts(List.of(new Product(id, "producto", "descripcion", BigDecimal.ONE, 20L)));
+		assertFalse(writeBehind.hasPendingWrites(id));
+		writeBehind.flushAll();
+		assertEquals(20L, productRepo.findById(id).get().getCantidad());
+		assertEquals(20L, productSv.getProductById(id).getCantidad());
+	}
+}
@@ -0,0 +1,100 @@
+package com.PayGoal.Postulacion.Services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.PayGoal.Postulacion.Events.ProductChangeEvent;
+import com.PayGoal.Postulacion.Models.CatalogStatistics;
+import com.PayGoal.Postulacion.Models.Product;
+
+class ProductStatisticsTest {
+
+	private ProductStatistics.Accumulator accumulator;
+
+	@BeforeEach
+	void setUp() {
+		accumulator = new ProductStatistics.Accumulator();
+		apply(ProductChangeEvent.Type.CREATED, 1, "10.00", 2);
+		apply(ProductChangeEvent.Type.CREATED, 2, "5.50", 4);
+		apply(ProductChangeEvent.Type.CREATED, 3, "100.00", 1);
+		apply(ProductChangeEvent.Type.CREATED, 4, "10.00", 0);
+	}
+
+	@Test
+	void testStatisticsSummarizeTheCatalog() {
+		CatalogStatistics stats = accumulator.statistics();
+		assertEquals(4, stats.getProductos());
+		assertEquals(7, stats.getUnidades());
+		assertEquals(new BigDecimal("142.00"), stats.getValorInventario());
+		assertEquals(new BigDecimal("5.50"), stats.getPrecioMinimo());
+		assertEquals(new BigDecimal("100.00"), stats.getPrecioMaximo());
+		assertEquals(new BigDecimal("31.38"), stats.getPrecioPromedio());
+		assertEquals(Map.of("p50", new BigDecimal("10.00"), "p90", new BigDecimal("100.00"), "p95",
+				new BigDecimal("100.00"), "p99", new BigDecimal("100.00")), stats.getPercentilesPrecio());
+	}
+
+	@Test
+	void testStatisticsFollowUpdatesAndDeletes() {
+		apply(ProductChangeEvent.Type.UPDATED, 3, "1.00", 10);
+		accumulator.apply(new ProductChangeEvent(ProductChangeEvent.Type.DELETED, 2L, null));
+		CatalogStatistics stats = accumulator.statistics();
+		assertEquals(3, stats.getProductos());
+		assertEquals(12, stats.getUnidades());
+		assertEquals(new BigDecimal("30.00"), stats.getValorInventario());
+		assertEquals(new BigDecimal("1.00"), stats.getPrecioMinimo());
+		assertEquals(new BigDecimal("10.00"), stats.getPrecioMaximo());
+		assertEquals(new BigDecimal("10.00"), stats.getPercentilesPrecio().get("p50"));
+	}
+
+	@Test
+	void testPercentilesAreExactAcrossBuckets() {
+		ProductStatistics.Accumulator large = new ProductStatistics.Accumulator();
+		for (long id = 1; id <= 1000; id++) {
+			// precios entre $0.07 y $70000, varios en el mismo intervalo del histograma
+			large.add(id, id * id * 7, 1L);
+		}
+		assertEquals(500L * 500 * 7, large.percentile(50));
+		assertEquals(900L * 900 * 7, large.percentile(90));
+		assertEquals(990L * 990 * 7, large.percentile(99));
+		assertEquals(1000L * 1000 * 7, large.percentile(100));
+	}
+
+	@Test
+	void testBucketsCoverEveryPrice() {
+		for (long price : new long[] { 0, 999, 1000, 1009, 1010, 123456789, Long.MAX_VALUE / 10 }) {
+			int bucket = ProductStatistics.Accumulator.bucket(price);
+			assertEquals(true, ProductStatistics.Accumulator.lowerBound(bucket) <= price);
+			assertEquals(true, price < ProductStatistics.Accumulator.lowerBound(bucket + 1));
+		}
+	}
+
+	@Test
+	void testDifferencesCountMismatchedProducts() {
+		ProductStatistics.Accumulator other = new ProductStatistics.Accumulator();
+		other.add(1L, 1000L, 2L);
+		other.add(2L, 550L, 5L);
+		other.add(5L, 100L, 1L);
+		// el 2 difiere, el 3 y el 4 faltan y el 5 sobra
+		assertEquals(4, accumulator.differences(other));
+	}
+
+	@Test
+	void testEmptyCatalog() {
+		CatalogStatistics stats = new ProductStatistics.Accumulator().statistics();
+		assertEquals(0, stats.getProductos());
+		assertEquals(new BigDecimal("0.00"), stats.getValorInventario());
+		assertNull(stats.getPrecioMinimo());
+		assertNull(stats.getPercentilesPrecio());
+	}
+
+	private void apply(ProductChangeEvent.Type type, long id, String price, long quantity) {
+		accumulator.apply(new ProductChangeEvent(type, id,
+				new Product(id, "producto", "descripcion", new BigDecimal(price), quantity)));
+	}
+}
@@ -0,0 +1,69 @@
+package com.PayGoal.Postulacion.Services;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.PayGoal.Postulacion.Models.Product;
+import com.PayGoal.Postulacion.Models.ProductPage;
+
+import reactor.test.StepVerifier;
+
+class ReactiveProductServiceTest {
+
+	private final ReactiveProductService service = new ReactiveProductService(2, 10);
+
+	private final Product first = new Product(1L, "producto A", "A", BigDecimal.ONE, 1L);
+
+	private final Product second = new Product(2L, "producto B", "B", BigDecimal.TEN, 1L);
+
+	@BeforeEach
+	void setUp() {
+		service.productSv = Mockito.mock(ProductService.class);
+		service.productPriceIndex = Mockito.mock(ProductPriceIndex.class);
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.destroy();
+	}
+
+	@Test
+	void testStreamFollowsCursorsUntilLastPage() {
+		when(service.productSv.getProductsPageOrderedByPrice(Direction.ASC, null, ProductService.MAX_PAGE_SIZE))
+				.thenReturn(new ProductPage(List.of(first), "cursor"));
+		when(service.productSv.getProductsPageOrderedByPrice(Direction.ASC, "cursor", ProductService.MAX_PAGE_SIZE))
+				.thenReturn(new ProductPage(List.of(second), null));
+		StepVerifier.create(service.streamAllProductsOrderedByPrice(Direction.ASC)).expectNext(first, second)
+				.verifyComplete();
+	}
+
+	@Test
+	void testNextPageIsReadOnDemand() {
+		when(service.productSv.getProductsPageOrderedByPrice(Direction.ASC, null, ProductService.MAX_PAGE_SIZE))
+				.thenReturn(new ProductPage(List.of(first), "cursor"));
+		StepVerifier.create(service.streamAllProductsOrderedByPrice(Direction.ASC), 0).thenRequest(1)
+				.expectNext(first).thenCancel().verify();
+		verify(service.productSv, never()).getProductsPageOrderedByPrice(Direction.ASC, "cursor",
+				ProductService.MAX_PAGE_SIZE);
+	}
+
+	@Test
+	void testStreamUsesPriceIndexSnapshotWhenReady() {
+		when(service.productPriceIndex.isReady()).thenReturn(true);
+		when(service.productSv.getAllProductsOrderedByPrice(Direction.ASC)).thenReturn(List.of(first, second));
+		StepVerifier.create(service.streamAllProductsOrderedByPrice(Direction.ASC)).expectNext(first, second)
+				.verifyComplete();
+		verify(service.productSv, never()).getProductsPageOrderedByPrice(Direction.ASC, null,
+				ProductService.MAX_PAGE_SIZE);
+	}
+}
@@ -0,0 +1,52 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+class ConcurrencyLimitFilterTest {
+
+	private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ZERO, new ObjectMapper(),
+			new SimpleMeterRegistry());
+
+	@Test
+	void testRequestsOverTheLimitAreRejected() throws Exception {
+		MockHttpServletResponse inner = new MockHttpServletResponse();
+		// la segunda petición llega mientras la primera sigue en curso
+		FilterChain chain = (request, response) -> filter.doFilter(new MockHttpServletRequest("GET", "/api/productos/2"),
+				inner, new MockFilterChain());
+		MockHttpServletResponse outer = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", "/api/productos/1"), outer, chain);
+		assertEquals(200, outer.getStatus());
+		assertEquals(503, inner.getStatus());
+		assertEquals("1", inner.getHeader("Retry-After"));
+	}
+
+	@Test
+	void testPermitIsReleasedAfterEachRequest() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			filter.doFilter(new MockHttpServletRequest("GET", "/api/productos/1"), response, new MockFilterChain());
+			assertEquals(200, response.getStatus());
+		}
+	}
+
+	@Test
+	void testRequestsOutsideTheApiAreNotLimited() throws Exception {
+		MockHttpServletResponse inner = new MockHttpServletResponse();
+		FilterChain chain = (request, response) -> filter.doFilter(
+				new MockHttpServletRequest("GET", "/actuator/health"), inner, new MockFilterChain());
+		filter.doFilter(new MockHttpServletRequest("GET", "/api/productos/1"), new MockHttpServletResponse(), chain);
+		assertEquals(200, inner.getStatus());
+	}
+}
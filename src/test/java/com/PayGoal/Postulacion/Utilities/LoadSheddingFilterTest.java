@@ -0,0 +1,51 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.PayGoal.Postulacion.Utilities.LoadShedding.EndpointGroup;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LoadSheddingFilterTest {
+
+	private final LoadSheddingFilter filter = new LoadSheddingFilter(new LoadShedding(true, "", 20, 1,
+			Map.of(EndpointGroup.CONSULTA, 1, EndpointGroup.BUSQUEDA, 5, EndpointGroup.LISTADO, 20,
+					EndpointGroup.EXPORTACION, 50, EndpointGroup.ESCRITURA, 2, EndpointGroup.LOTE, 50),
+			false, Duration.ofMillis(100), 20, 2, 200, new SimpleMeterRegistry(), System::nanoTime), new ObjectMapper());
+
+	private MockHttpServletResponse listing() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/productos");
+		request.addParameter("orden", "ASC");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+	@Test
+	void testRequestsOverTheRateLimitAreRejected() throws Exception {
+		assertEquals(200, listing().getStatus());
+		MockHttpServletResponse rejected = listing();
+		assertEquals(429, rejected.getStatus());
+		assertEquals("20", rejected.getHeader("Retry-After"));
+		assertEquals("{\"message\":\"Se supero el limite de peticiones, vuelva a intentarlo\"}",
+				rejected.getContentAsString());
+	}
+
+	@Test
+	void testRequestsOutsideTheApiAreNotLimited() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), response, new MockFilterChain());
+			assertEquals(200, response.getStatus());
+		}
+	}
+}
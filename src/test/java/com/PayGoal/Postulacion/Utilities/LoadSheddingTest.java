@@ -0,0 +1,166 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import com.PayGoal.Postulacion.Utilities.LoadShedding.Admission;
+import com.PayGoal.Postulacion.Utilities.LoadShedding.EndpointGroup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LoadSheddingTest {
+
+	private static final Map<EndpointGroup, Integer> COSTS = Map.of(EndpointGroup.CONSULTA, 1, EndpointGroup.BUSQUEDA,
+			5, EndpointGroup.LISTADO, 20, EndpointGroup.EXPORTACION, 50, EndpointGroup.ESCRITURA, 2, EndpointGroup.LOTE,
+			50, EndpointGroup.SUSCRIPCION, 5);
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private LoadShedding rateLimit() {
+		return new LoadShedding(true, "X-Cliente", 40, 10, COSTS, false, Duration.ofMillis(100), 20, 2, 200,
+				meterRegistry, clock::get);
+	}
+
+	private LoadShedding adaptive(int initialLimit) {
+		return new LoadShedding(false, "", 40, 10, COSTS, true, Duration.ofMillis(100), initialLimit, 2, 200,
+				meterRegistry, clock::get);
+	}
+
+	private static Admission listing(LoadShedding loadShedding, String client) {
+		return loadShedding.admit(client, "GET", "/api/productos", Map.of("orden", "ASC")::get);
+	}
+
+	private static Admission byId(LoadShedding loadShedding, String client) {
+		return loadShedding.admit(client, "GET", "/api/productos/1", Map.<String, String>of()::get);
+	}
+
+	@Test
+	void testRequestsAreClassifiedByCost() {
+		assertEquals(EndpointGroup.LISTADO, LoadShedding.classify("GET", "/api/productos", Set.of("orden")::contains));
+		assertEquals(EndpointGroup.LISTADO,
+				LoadShedding.classify("GET", "/api/productos", Set.of("orden", "limite")::contains));
+		assertEquals(EndpointGroup.BUSQUEDA, LoadShedding.classify("GET", "/api/productos", Set.of("nombre")::contains));
+		assertEquals(EndpointGroup.BUSQUEDA, LoadShedding.classify("GET", "/api/productos/filtrar", Set.of()::contains));
+		assertEquals(EndpointGroup.EXPORTACION,
+				LoadShedding.classify("GET", "/api/productos/exportar", Set.of()::contains));
+		assertEquals(EndpointGroup.CONSULTA, LoadShedding.classify("GET", "/api/productos/7", Set.of()::contains));
+		assertEquals(EndpointGroup.ESCRITURA, LoadShedding.classify("PATCH", "/api/productos/7", Set.of()::contains));
+		assertEquals(EndpointGroup.LOTE, LoadShedding.classify("POST", "/api/productos/lote", Set.of()::contains));
+		assertEquals(EndpointGroup.BUSQUEDA, LoadShedding.classify("GET", "/api/productos", Set.of("ids")::contains));
+		assertEquals(EndpointGroup.BUSQUEDA, LoadShedding.classify("POST", "/api/productos/ids", Set.of()::contains));
+		assertEquals(EndpointGroup.SUSCRIPCION,
+				LoadShedding.classify("GET", "/api/productos/cambios/stream", Set.of()::contains));
+	}
+
+	@Test
+	void testListingPagesCostInProportionToTheirLimit() {
+		LoadShedding loadShedding = rateLimit();
+		assertEquals(20, loadShedding.cost(EndpointGroup.LISTADO, null));
+		assertEquals(20, loadShedding.cost(EndpointGroup.LISTADO, "100"));
+		assertEquals(10, loadShedding.cost(EndpointGroup.LISTADO, "50"));
+		assertEquals(1, loadShedding.cost(EndpointGroup.LISTADO, "1"));
+		assertEquals(20, loadShedding.cost(EndpointGroup.LISTADO, "mucho"));
+		assertEquals(5, loadShedding.cost(EndpointGroup.BUSQUEDA, "1"));
+
+		// las páginas consumen del balde del listado completo
+		listing(loadShedding, "a");
+		loadShedding.admit("a", "GET", "/api/productos", Map.of("orden", "ASC", "limite", "100")::get);
+		assertThrows(RetryLaterException.class,
+				() -> loadShedding.admit("a", "GET", "/api/productos", Map.of("orden", "ASC", "limite", "5")::get));
+	}
+
+	@Test
+	void testExpensiveRequestsExhaustTheBucketFirst() {
+		LoadShedding loadShedding = rateLimit();
+		listing(loadShedding, "a");
+		listing(loadShedding, "a");
+
+		RetryLaterException e = assertThrows(RetryLaterException.class, () -> listing(loadShedding, "a"));
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, e.getStatusCode());
+		// faltan 20 fichas a 10 por segundo
+		assertEquals("2", e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+		// las consultas por Id y los demás clientes tienen sus propios baldes
+		byId(loadShedding, "a");
+		listing(loadShedding, "b");
+		assertEquals(1.0, meterRegistry.get("productos.peticiones.descartadas").tag("motivo", "tasa")
+				.tag("grupo", "listado").counter().count());
+	}
+
+	@Test
+	void testBucketIsRefilledOverTime() {
+		LoadShedding loadShedding = rateLimit();
+		listing(loadShedding, "a");
+		listing(loadShedding, "a");
+		clock.addAndGet(Duration.ofSeconds(2).toNanos());
+
+		listing(loadShedding, "a");
+	}
+
+	@Test
+	void testClientIsIdentifiedByHeaderOrAddress() {
+		LoadShedding loadShedding = rateLimit();
+		assertEquals("clave", loadShedding.clientOf(Map.of("X-Cliente", "clave")::get, "10.0.0.1"));
+		assertEquals("10.0.0.1", loadShedding.clientOf(Map.<String, String>of()::get, "10.0.0.1"));
+	}
+
+	@Test
+	void testRequestsOverTheConcurrencyLimitAreShed() {
+		LoadShedding loadShedding = adaptive(2);
+		Admission first = byId(loadShedding, "a");
+		byId(loadShedding, "a");
+
+		RetryLaterException e = assertThrows(RetryLaterException.class, () -> byId(loadShedding, "a"));
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+		assertEquals("1", e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+		first.release();
+		first.release();
+		byId(loadShedding, "a");
+	}
+
+	@Test
+	void testChangeSubscriptionsDoNotCountForTheConcurrencyLimit() {
+		LoadShedding loadShedding = adaptive(2);
+		for (int i = 0; i < 3; i++) {
+			loadShedding.admit("a", "GET", "/api/productos/cambios/stream", Map.<String, String>of()::get);
+		}
+		byId(loadShedding, "a");
+		byId(loadShedding, "a");
+	}
+
+	@Test
+	void testLimitAdaptsToLatency() {
+		LoadShedding loadShedding = adaptive(10);
+		// cada petición termina un período con una latencia mayor a la objetivo
+		for (int i = 0; i < 5; i++) {
+			Admission admission = byId(loadShedding, "a");
+			clock.addAndGet(Duration.ofMillis(500).toNanos());
+			admission.release();
+		}
+		assertEquals(5, loadShedding.getLimit());
+
+		// un período con el límite en uso y una latencia promedio menor a la objetivo
+		Admission[] admissions = new Admission[5];
+		for (int i = 0; i < admissions.length; i++) {
+			admissions[i] = byId(loadShedding, "a");
+		}
+		clock.addAndGet(Duration.ofMillis(50).toNanos());
+		for (Admission admission : admissions) {
+			admission.release();
+		}
+		assertEquals(5, loadShedding.getLimit());
+		clock.addAndGet(Duration.ofMillis(60).toNanos());
+		byId(loadShedding, "a").release();
+		assertEquals(6, loadShedding.getLimit());
+	}
+}
@@ -0,0 +1,67 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+import com.PayGoal.Postulacion.Models.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+class PricesTest {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	void testFormatWritesTwoDecimals() {
+		char[] buffer = new char[21];
+		assertEquals("0.05", new String(buffer, 0, Prices.format(5, buffer)));
+		assertEquals("1234.50", new String(buffer, 0, Prices.format(123450, buffer)));
+		assertEquals("-0.99", new String(buffer, 0, Prices.format(-99, buffer)));
+		assertEquals("-92233720368547758.08", new String(buffer, 0, Prices.format(Long.MIN_VALUE, buffer)));
+	}
+
+	@Test
+	void testConversionsAreExact() {
+		assertEquals(1050L, Prices.toCents(new BigDecimal("10.5")));
+		assertEquals(new BigDecimal("10.50"), Prices.toDecimal(1050L));
+		assertThrows(ArithmeticException.class, () -> Prices.toCents(new BigDecimal("10.005")));
+		assertEquals(1001L, Prices.toCentsCeiling(new BigDecimal("10.005")));
+		assertEquals(1000L, Prices.toCentsFloor(new BigDecimal("10.005")));
+	}
+
+	@Test
+	void testProductPriceIsWrittenAsDecimal() throws Exception {
+		Product prod = new Product(1L, "producto A", "descripcion", new BigDecimal("10.5"), 5L);
+
+		assertEquals("{\"id\":1,\"nombre\":\"producto A\",\"descripcion\":\"descripcion\",\"precio\":10.50,\"cantidad\":5}",
+				mapper.writeValueAsString(prod));
+		assertEquals(prod, mapper.readValue(mapper.writeValueAsBytes(prod), Product.class));
+		SmileMapper smile = new SmileMapper();
+		assertEquals(prod, smile.readValue(smile.writeValueAsBytes(prod), Product.class));
+	}
+
+	@Test
+	void testPriceWithMoreDecimalsIsRejected() throws Exception {
+		assertEquals(1000L, mapper.readValue("{\"precio\":\"10\"}", Product.class).getPrecioCentavos());
+		assertThrows(InvalidFormatException.class, () -> mapper.readValue("{\"precio\":10.005}", Product.class));
+	}
+
+	@Test
+	void testGsonWritesAndReadsPriceAsDecimal() {
+		Gson gson = new Gson();
+		Product prod = new Product(1L, "producto A", "descripcion", new BigDecimal("10.5"), 5L);
+
+		String json = gson.toJson(prod);
+		assertTrue(json.contains("\"precio\":10.50"), json);
+		assertEquals(1050L, gson.fromJson(json, Product.class).getPrecioCentavos());
+		assertThrows(JsonParseException.class, () -> gson.fromJson("{\"precio\":10.005}", Product.class));
+	}
+}
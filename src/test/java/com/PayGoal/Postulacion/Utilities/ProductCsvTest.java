@@ -0,0 +1,39 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ProductCsvTest {
+
+	@Test
+	void testRecordsRoundTrip() throws IOException {
+		StringBuilder out = new StringBuilder();
+		ProductCsv.writeRecord(out, 1L, "producto A", "Con \"comillas\", comas\ny saltos", new BigDecimal("10.50"),
+				10L, null);
+		ProductCsv.writeRecord(out, 2L, "producto B", "", BigDecimal.ONE, 5L, 3L);
+		StringReader in = new StringReader(out.toString());
+		assertEquals(Arrays.asList("1", "producto A", "Con \"comillas\", comas\ny saltos", "10.50", "10", null),
+				ProductCsv.readRecord(in));
+		assertEquals(Arrays.asList("2", "producto B", null, "1", "5", "3"), ProductCsv.readRecord(in));
+		assertNull(ProductCsv.readRecord(in));
+	}
+
+	@Test
+	void testQuotedEmptyFieldIsNotNull() throws IOException {
+		assertEquals(List.of("1", ""), ProductCsv.readRecord(new StringReader("1,\"\"\r\n")));
+	}
+
+	@Test
+	void testUnterminatedQuoteIsRejected() {
+		assertThrows(IOException.class, () -> ProductCsv.readRecord(new StringReader("1,\"sin cerrar\n")));
+	}
+}
@@ -0,0 +1,38 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.PayGoal.Postulacion.Models.Product;
+
+class ProductFieldsTest {
+
+	@Test
+	void testParseKeepsProductOrderWithoutRepeating() {
+		assertEquals(List.of("id", "nombre", "precio"), ProductFields.parse("precio, NOMBRE,id,,precio"));
+	}
+
+	@Test
+	void testParseRejectsUnknownOrMissingFields() {
+		ResponseStatusException unknown = assertThrows(ResponseStatusException.class,
+				() -> ProductFields.parse("id,version"));
+		assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, unknown.getStatusCode());
+		assertEquals("El campo 'version' no existe", unknown.getReason());
+		assertThrows(ResponseStatusException.class, () -> ProductFields.parse(" , "));
+	}
+
+	@Test
+	void testProjectSelectsFields() {
+		Product prod = new Product(1L, "producto A", "descripcion larga", BigDecimal.TEN, 5L);
+		assertEquals(Map.of("id", 1L, "precio", new BigDecimal("10.00")),
+				ProductFields.project(prod, List.of("id", "precio")));
+	}
+}
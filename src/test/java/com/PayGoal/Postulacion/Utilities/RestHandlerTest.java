@@ -0,0 +1,35 @@
+package com.PayGoal.Postulacion.Utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RestHandlerTest {
+
+	private final RestHandler restHandler = new RestHandler(new SimpleMeterRegistry());
+
+	@Test
+	void testNotFoundResponseWithoutStackTrace() {
+		NotFoundException e = NotFoundException.forProduct(7L);
+		assertEquals(0, e.getStackTrace().length);
+		ResponseEntity<?> response = restHandler.handleStatusExceptions(e);
+		assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+		assertEquals(Map.of("message", "No se ha encontrado un producto con el id: '7'"), response.getBody());
+	}
+
+	@Test
+	void testRetryLaterResponseIncludesRetryAfter() {
+		ResponseEntity<?> response = restHandler
+				.handleStatusExceptions(new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE, "Saturado", 2));
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+		assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+		assertEquals(Map.of("message", "Saturado"), response.getBody());
+	}
+}